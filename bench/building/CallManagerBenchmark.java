@@ -0,0 +1,90 @@
+package building;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import passengers.PassengerStore;
+import passengers.Passengers;
+
+/**
+ * The Class CallManagerBenchmark. Measures the call queries made by the state
+ * handlers - CallManager.prioritizePassengerCalls() from a stopped elevator and
+ * callsInDir() from a moving one - with calls on a quarter of the floors.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CallManagerBenchmark {
+
+	/** The number of floors. */
+	@Param({"6", "50", "200"})
+	public int numFloors;
+
+	/** The call manager. */
+	private CallManager callMgr;
+
+	/** The floor that the elevator is on. */
+	private int floor;
+
+	/**
+	 * Creates the building and places the calls.
+	 *
+	 * @throws IOException Signals that the log file could not be created.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		String logfile = Files.createTempDirectory("elevator-bench").resolve("bench.log").toString();
+		Building building = new Building(numFloors, logfile);
+		PassengerStore store = building.getPassengerStore();
+		SplittableRandom random = new SplittableRandom(42);
+		ArrayList<Passengers> arrivals = new ArrayList<Passengers>();
+		for (int i = 0; i < Math.max(2, numFloors / 4); i++) {
+			int from = random.nextInt(numFloors);
+			int to = random.nextInt(numFloors - 1);
+			if (to >= from) to++;
+			arrivals.add(store.add(1, 1, from + 1, to + 1, true, 1000));
+		}
+		building.addPassengersToQueue(arrivals);
+		callMgr = building.getCallManager();
+		floor = numFloors / 2;
+	}
+
+	/**
+	 * Chooses the call for a stopped elevator to answer.
+	 *
+	 * @return the passengers to answer
+	 */
+	@Benchmark
+	public Passengers prioritizePassengerCalls() {
+		return callMgr.prioritizePassengerCalls(floor, 0);
+	}
+
+	/**
+	 * Checks for calls ahead of a moving elevator.
+	 *
+	 * @return true if there are calls above the floor
+	 */
+	@Benchmark
+	public boolean callsInDir() {
+		return callMgr.callsInDir(floor, 1, 0);
+	}
+}
@@ -0,0 +1,81 @@
+package building;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import passengers.PassengerStore;
+import passengers.Passengers;
+
+/**
+ * The Class FloorQueueStringBenchmark. Measures rendering the queue strings of
+ * every floor, as the controller does for each frame the GUI draws, with
+ * waiting groups in every floor queue and none of them changed since the last
+ * frame - the usual case, as only a few floors change between frames.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FloorQueueStringBenchmark {
+
+	/** The number of floors. */
+	@Param({"6", "50", "200"})
+	public int numFloors;
+
+	/** The number of groups waiting in each floor queue. */
+	@Param({"8"})
+	public int waiting;
+
+	/** The building. */
+	private Building building;
+
+	/**
+	 * Creates the building, and fills every floor queue.
+	 *
+	 * @throws IOException Signals that the log file could not be created.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		String logfile = Files.createTempDirectory("elevator-bench").resolve("bench.log").toString();
+		building = new Building(new SimContext(new SimConfig(numFloors, 4, 15, 5, 2, 3, "bench.csv"), logfile));
+		PassengerStore store = building.getPassengerStore();
+		ArrayList<Passengers> arrivals = new ArrayList<Passengers>();
+		for (int floor = 1; floor <= numFloors; floor++) {
+			for (int i = 0; i < waiting; i++) {
+				if (floor < numFloors) arrivals.add(store.add(1, 1 + i % 5, floor, numFloors, true, 1000));
+				if (floor > 1) arrivals.add(store.add(1, 1 + i % 5, floor, 1, true, 1000));
+			}
+		}
+		building.addPassengersToQueue(arrivals);
+	}
+
+	/**
+	 * Renders the up and down queue strings of every floor.
+	 *
+	 * @return the total length of the strings
+	 */
+	@Benchmark
+	public int renderQueues() {
+		int length = 0;
+		for (int floor = 0; floor < numFloors; floor++)
+			length += building.getFloorQueueString(floor, 1).length() + building.getFloorQueueString(floor, -1).length();
+		return length;
+	}
+}
@@ -0,0 +1,203 @@
+package building;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import passengers.PassengerStore;
+import passengers.Passengers;
+
+/**
+ * The Class StateHandlerBenchmark. Measures a single call of each state handler
+ * (currStateStop, currStateMvToFlr, ... currStateMv1Flr) on the tick where the
+ * handler does its real work - the door finishing, the car reaching a floor,
+ * the passengers boarding or offloading.
+ *
+ * The building is rebuilt before every call, so the scores include some JMH
+ * per-invocation overhead, and the allocation reported by -prof gc includes
+ * the rebuilt elevator and floor queues. Use TickLoopBenchmark for the
+ * allocation rate of the simulation itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StateHandlerBenchmark {
+
+	/** The Constant UP. */
+	private final static int UP = 1;
+
+	/** The Constant DOWN. */
+	private final static int DOWN = -1;
+
+	/** The time passed to the handler - well before any group gives up. */
+	private static final int TIME = 100;
+
+	/** The number of groups waiting to board, or offloading. */
+	private static final int NUM_GROUPS = 3;
+
+	/** The number of floors. */
+	@Param({"6", "50", "200"})
+	public int numFloors;
+
+	/** The state whose handler is measured. */
+	@Param({"STOP", "MVTOFLR", "OPENDR", "OFFLD", "BOARD", "CLOSEDR", "MV1FLR"})
+	public String state;
+
+	/** The context of the simulation, which holds the passenger groups. */
+	private SimContext context;
+
+	/** The building. */
+	private Building building;
+
+	/** The elevator. */
+	private Elevator elevator;
+
+	/** The middle floor, where the elevator is for most of the states. */
+	private int midFloor;
+
+	/** The top floor. */
+	private int topFloor;
+
+	/** The groups waiting to go up from the middle floor. */
+	private Passengers[] boarding;
+
+	/** The groups in the elevator going to the middle floor. */
+	private Passengers[] offloading;
+
+	/** The group in the elevator going to the top floor. */
+	private Passengers rider;
+
+	/** The group waiting to go down from the top floor. */
+	private Passengers caller;
+
+	/** The groups to add to the floor queues. */
+	private ArrayList<Passengers> arrivals = new ArrayList<Passengers>();
+
+	/**
+	 * Creates the context and the passenger groups.
+	 *
+	 * @throws IOException Signals that the log file could not be created.
+	 */
+	@Setup(Level.Trial)
+	public void setUpTrial() throws IOException {
+		String logfile = Files.createTempDirectory("elevator-bench").resolve("bench.log").toString();
+		context = new SimContext(new SimConfig(numFloors, 1, 15, 5, 2, 3, "bench.csv"), logfile);
+		PassengerStore store = context.getPassengerStore();
+		midFloor = numFloors / 2;
+		topFloor = numFloors - 1;
+		boarding = new Passengers[NUM_GROUPS];
+		offloading = new Passengers[NUM_GROUPS];
+		for (int i = 0; i < NUM_GROUPS; i++) {
+			boarding[i] = store.add(1, 3, midFloor + 1, topFloor + 1, true, 1000);
+			offloading[i] = store.add(1, 3, 1, midFloor + 1, true, 1000);
+		}
+		rider = store.add(1, 3, 1, topFloor + 1, true, 1000);
+		caller = store.add(1, 3, topFloor + 1, 1, true, 1000);
+	}
+
+	/**
+	 * Puts a new building into the state to be measured.
+	 */
+	@Setup(Level.Invocation)
+	public void setUpInvocation() {
+		building = new Building(context);
+		elevator = building.getElevator(0);
+		switch (state) {
+		case "STOP":
+			addToQueue(caller);
+			break;
+		case "MVTOFLR":
+			addToQueue(caller);
+			elevator.setDirection(UP);
+			elevator.setMoveToFloor(topFloor);
+			elevator.setPostMoveToFloorDir(DOWN);
+			enterState(Elevator.MVTOFLR, elevator.getTicksPerFloor());
+			break;
+		case "OPENDR":
+			moveToMidFloor();
+			for (Passengers p : boarding) addToQueue(p);
+			enterState(Elevator.OPENDR, elevator.getTicksDoorOpenClose());
+			break;
+		case "OFFLD":
+			moveToMidFloor();
+			for (Passengers p : offloading) elevator.boardPassengers(p);
+			for (Passengers p : boarding) addToQueue(p);
+			elevator.updateCurrState(Elevator.OPENDR);
+			enterState(Elevator.OFFLD, 1);
+			break;
+		case "BOARD":
+			moveToMidFloor();
+			for (Passengers p : boarding) addToQueue(p);
+			enterState(Elevator.BOARD, 1);
+			break;
+		case "CLOSEDR":
+			moveToMidFloor();
+			addToQueue(caller);
+			enterState(Elevator.CLOSEDR, elevator.getTicksDoorOpenClose());
+			break;
+		case "MV1FLR":
+			moveToMidFloor();
+			elevator.boardPassengers(rider);
+			enterState(Elevator.MV1FLR, elevator.getTicksPerFloor());
+			break;
+		}
+	}
+
+	/**
+	 * Runs the handler for the current state.
+	 *
+	 * @return the next state
+	 */
+	@Benchmark
+	public int stateHandler() {
+		return building.runStateHandler(TIME, 0);
+	}
+
+	/**
+	 * Moves the elevator up to the middle floor.
+	 */
+	private void moveToMidFloor() {
+		elevator.setDirection(UP);
+		for (int i = 0; i < midFloor * elevator.getTicksPerFloor(); i++)
+			elevator.moveElevator();
+	}
+
+	/**
+	 * Puts the elevator into the state, so that the next call of the handler
+	 * is the tick on which the handler's work happens.
+	 *
+	 * @param newState the new state
+	 * @param ticks the number of ticks in the state, including the next one
+	 */
+	private void enterState(int newState, int ticks) {
+		elevator.updateCurrState(newState);
+		elevator.skipTicks(ticks - 1);
+	}
+
+	/**
+	 * Adds a group to its floor queue, which also dispatches the call.
+	 *
+	 * @param p the group
+	 */
+	private void addToQueue(Passengers p) {
+		arrivals.add(p);
+		building.addPassengersToQueue(arrivals);
+	}
+}
@@ -0,0 +1,144 @@
+package building;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import passengers.PassengerStore;
+import passengers.Passengers;
+
+/**
+ * The Class TickLoopBenchmark. Measures the simulation tick loop - adding the
+ * passengers that arrive on a tick, then Building.updateElevator() - under
+ * seeded synthetic traffic. One operation is one tick, so the throughput score
+ * is ticks/second. Run with -prof gc for the allocation rate per tick.
+ *
+ * Groups arrive with probability arrivalRate on each tick, between two random
+ * floors. A new group is dropped if its floor queue is nearly full, since the
+ * floor queues are bounded, so the building stays busy without overflowing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TickLoopBenchmark {
+
+	/** The limit on the number of groups waiting in one floor queue. */
+	private static final int MAX_WAITING = 8;
+
+	/** The number of floors. */
+	@Param({"6", "50", "200"})
+	public int numFloors;
+
+	/** The number of elevators. */
+	@Param({"1", "4"})
+	public int numElevators;
+
+	/** The probability that a group arrives on a tick. */
+	@Param({"0.05"})
+	public double arrivalRate;
+
+	/** The building. */
+	private Building building;
+
+	/** The passenger store of the building. */
+	private PassengerStore store;
+
+	/** The groups arriving on the current tick. */
+	private ArrayList<Passengers> arrivals = new ArrayList<Passengers>();
+
+	/** The number of groups waiting in each floor queue - up queues then down queues. */
+	private int[] waiting;
+
+	/** The number of boarded groups already removed from waiting. */
+	private int numBoarded;
+
+	/** The number of gave up groups already removed from waiting. */
+	private int numGaveUp;
+
+	/** The random number generator for the traffic. */
+	private SplittableRandom random;
+
+	/** The current time. */
+	private int time;
+
+	/**
+	 * Creates a new building for each iteration, so the passenger store does
+	 * not grow across the whole run.
+	 *
+	 * @throws IOException Signals that the log file could not be created.
+	 */
+	@Setup(Level.Iteration)
+	public void setUp() throws IOException {
+		String logfile = Files.createTempDirectory("elevator-bench").resolve("bench.log").toString();
+		building = new Building(new SimContext(new SimConfig(numFloors, numElevators, 15, 5, 2, 3, "bench.csv"), logfile));
+		store = building.getPassengerStore();
+		waiting = new int[2 * numFloors];
+		numBoarded = 0;
+		numGaveUp = 0;
+		random = new SplittableRandom(42);
+		time = 0;
+	}
+
+	/**
+	 * Simulates one tick.
+	 *
+	 * @return the time
+	 */
+	@Benchmark
+	public int tick() {
+		time++;
+		updateWaiting();
+		if (random.nextDouble() < arrivalRate) {
+			int from = random.nextInt(numFloors);
+			int to = random.nextInt(numFloors - 1);
+			if (to >= from) to++;
+			int queue = (to > from) ? from : numFloors + from;
+			if (waiting[queue] < MAX_WAITING) {
+				waiting[queue]++;
+				arrivals.add(store.add(time, 1 + random.nextInt(5), from + 1, to + 1, true, 1000));
+				building.addPassengersToQueue(arrivals);
+			}
+		}
+		building.updateElevator(time);
+		return time;
+	}
+
+	/**
+	 * Removes the groups that boarded or gave up since the last tick from
+	 * the waiting counts.
+	 */
+	private void updateWaiting() {
+		for (; numBoarded < store.getNumSuccess(); numBoarded++)
+			leaveQueue(store.getSuccess(numBoarded));
+		for (; numGaveUp < store.getNumGaveUp(); numGaveUp++)
+			leaveQueue(store.getGaveUp(numGaveUp));
+	}
+
+	/**
+	 * Removes a group from the waiting count of its floor queue.
+	 *
+	 * @param id the id of the group
+	 */
+	private void leaveQueue(int id) {
+		int from = store.getOnFloor(id);
+		waiting[(store.getDestFloor(id) > from) ? from : numFloors + from]--;
+	}
+}
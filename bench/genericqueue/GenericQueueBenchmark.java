@@ -0,0 +1,73 @@
+package genericqueue;
+
+import java.util.ListIterator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The Class GenericQueueBenchmark. Measures the floor queue operations - an
+ * add and a poll on a queue holding size elements, and a walk of the queue
+ * with its ListIterator, as done when the GUI shows the queue.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenericQueueBenchmark {
+
+	/** The number of elements in the queue. */
+	@Param({"1", "9"})
+	public int size;
+
+	/** The queue - the same size as a floor queue. */
+	private GenericQueue<Integer> queue;
+
+	/**
+	 * Fills the queue.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		queue = new GenericQueue<Integer>(10);
+		for (int i = 0; i < size; i++)
+			queue.add(i);
+	}
+
+	/**
+	 * Adds an element at the tail and removes the one at the head.
+	 *
+	 * @return the element removed
+	 */
+	@Benchmark
+	public Integer addPoll() {
+		queue.add(size);
+		return queue.poll();
+	}
+
+	/**
+	 * Walks the queue from head to tail.
+	 *
+	 * @return the sum of the elements
+	 */
+	@Benchmark
+	public int iterate() {
+		int sum = 0;
+		ListIterator<Integer> it = queue.getListIterator();
+		while (it.hasNext())
+			sum += it.next();
+		return sum;
+	}
+}
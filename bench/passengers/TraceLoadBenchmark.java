@@ -0,0 +1,119 @@
+package passengers;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The Class TraceLoadBenchmark. Measures reading a seeded passenger file of
+ * rows rows - parsing the rows alone with CsvTraceReader, loading them into a
+ * PassengerTrace, and opening the file converted to a BinaryTrace and seeking
+ * to the middle of it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class TraceLoadBenchmark {
+
+	/** The number of rows in the passenger file. */
+	@Param({"1000000", "10000000"})
+	public int rows;
+
+	/** The passenger file. */
+	private Path file;
+
+	/** The passenger file converted to a binary trace. */
+	private Path binaryFile;
+
+	/**
+	 * Writes the passenger file.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		file = Files.createTempFile("trace", ".csv");
+		Random random = new Random(1);
+		try (BufferedWriter out = Files.newBufferedWriter(file)) {
+			out.write("Time,NumPass,FromFloor,ToFloor,Polite,Wait\n");
+			for (int i = 0, time = 0; i < rows; i++) {
+				time += random.nextInt(4);
+				out.write(time+","+(1 + random.nextInt(5))+","+(1 + random.nextInt(40))+","+(1 + random.nextInt(40))+
+						  ","+(random.nextInt(5) > 0 ? "TRUE" : "FALSE")+","+(100 + random.nextInt(900))+"\n");
+			}
+		}
+		binaryFile = Files.createTempFile("trace", BinaryTrace.EXTENSION);
+		BinaryTrace.convert(file.toString(), binaryFile.toString());
+	}
+
+	/**
+	 * Deletes the passenger file.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.delete(file);
+		Files.delete(binaryFile);
+	}
+
+	/**
+	 * Parses every row of the file.
+	 *
+	 * @return the sum of the columns
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Benchmark
+	public long parseRows() throws IOException {
+		CsvTraceReader reader = new CsvTraceReader(file);
+		long sum = 0;
+		while (reader.next())
+			sum += reader.getTime() + reader.getNumPass() + reader.getOnFloor() + reader.getDestFloor() +
+				   reader.getWaitTime() + (reader.isPolite() ? 1 : 0);
+		reader.close();
+		return sum;
+	}
+
+	/**
+	 * Loads the file into a trace.
+	 *
+	 * @return the trace
+	 */
+	@Benchmark
+	public PassengerTrace loadTrace() {
+		return new PassengerTrace(file.toString());
+	}
+
+	/**
+	 * Maps the binary trace, and finds the first group at or after the time of
+	 * the middle row.
+	 *
+	 * @return the row found
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Benchmark
+	public int openBinaryTrace() throws IOException {
+		BinaryTrace trace = new BinaryTrace(binaryFile.toString());
+		return trace.seek(trace.getTime(trace.size() / 2));
+	}
+}
@@ -0,0 +1,96 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import building.BankLayout;
+import building.SimConfig;
+import passengers.PassengerStore;
+import passengers.PassengerTrace;
+
+/**
+ * Checks banks of elevators that serve different floors: trips are routed
+ * through the floors where passengers change banks, each elevator only opens
+ * its doors on the floors it serves, and zoning a tall building shortens the
+ * trips at up-peak.
+ */
+class BankTest {
+	private static final String SKY_LOBBY = "1:1-20;1:1+20-40";
+
+	@TempDir
+	Path dir;
+
+	private String write(String name, String rows) throws IOException {
+		Path file = dir.resolve(name);
+		Files.writeString(file, "Time,NumPass,FromFloor,ToFloor,Polite,Wait\n"+rows);
+		return file.toString();
+	}
+
+	@Test
+	void testRouting() {
+		BankLayout layout = new BankLayout(SKY_LOBBY, 40);
+		assertEquals(2, layout.getNumCars());
+		assertEquals(34, layout.nextStop(0, 34), "The express bank serves the lobby");
+		assertEquals(19, layout.nextStop(4, 34), "Change at the sky lobby");
+		assertEquals(19, layout.nextStop(35, 1));
+		assertEquals(1, layout.nextStop(19, 1));
+		BankLayout lobbyOnly = new BankLayout("2:1-20;2:1+21-40", 40);
+		assertEquals(0, lobbyOnly.nextStop(4, 34), "Change at the lobby");
+		assertThrows(IllegalArgumentException.class, () -> new BankLayout("1:1-20;1:22-40", 40));
+		assertThrows(IllegalArgumentException.class, () -> new BankLayout("1:1-10;1:11-40", 40));
+		assertThrows(IllegalArgumentException.class, () -> new SimConfig(40, 3, 15, 2, 2, 3, "x.csv", "default", "nearest", SKY_LOBBY));
+	}
+
+	@Test
+	void testTransfers() throws IOException {
+		String passCSV = write("Transfers.csv", "3,2,5,35,TRUE,1000\n5,1,36,2,TRUE,1000\n9,3,1,30,TRUE,1000\n");
+		for (String dispatcher : new String[] {"nearest", "eta", "destination"}) {
+			ElevatorSimController c = new ElevatorSimController(null,
+					new SimConfig(40, 2, 15, 2, 2, 3, passCSV, "default", dispatcher, SKY_LOBBY), false);
+			String log = SimTestSupport.finishLogged(c);
+			PassengerStore store = c.getBuilding().getPassengerStore();
+			assertEquals(3, store.getNumSuccess(), dispatcher);
+			for (int id = 0; id < 3; id++) assertTrue(store.getTimeArrived(id) > store.getBoardTime(id), dispatcher);
+			assertTrue(log.contains("Transfer=2 Floor=20 passID=0"), dispatcher);
+			assertTrue(log.contains("Transfer=1 Floor=20 passID=1"), dispatcher);
+			assertTrue(!log.contains("passID=2   Car=1"), dispatcher+": the lobby to 30 is served by the express bank");
+			Matcher open = Pattern.compile("Curr State: OPENDR    PrevFloor: \\d+   CurrFloor: (\\d+)   Car=(\\d)").matcher(log);
+			while (open.find()) {
+				int floor = Integer.parseInt(open.group(1)), car = Integer.parseInt(open.group(2));
+				assertTrue((car == 1) ? floor <= 20 : (floor == 1 || floor >= 20), dispatcher+": car "+car+" opened on floor "+floor);
+			}
+		}
+	}
+
+	@Test
+	void testZonedUpPeak() throws IOException {
+		Random random = new Random(5);
+		StringBuilder rows = new StringBuilder();
+		int time = 1;
+		for (int i = 0; i < 700; i++) {
+			time += 6 + 2 * random.nextInt(4);
+			rows.append(time+","+(1 + random.nextInt(4))+",1,"+(2 + random.nextInt(39))+",TRUE,1000\n");
+		}
+		String passCSV = write("UpPeak40.csv", rows.toString());
+		PassengerTrace trace = new PassengerTrace(passCSV);
+		SimConfig config = new SimConfig(40, 6, 15, 3, 2, 3, passCSV, "default", "destination");
+		ElevatorSweep.Result all = ElevatorSweep.runOne(config, trace);
+		ElevatorSweep.Result zoned = ElevatorSweep.runOne(config.withBanks("3:1-20;3:1+21-40"), trace);
+		assertNull(all.getError());
+		assertNull(zoned.getError());
+		assertEquals(trace.size(), zoned.getStats().getNumGroups() + zoned.getStats().getNumGaveUp());
+		assertTrue(zoned.getStats().getMeanTotalTime() < all.getStats().getMeanTotalTime(), "Zoning should shorten the trips");
+		assertNotNull(ElevatorSweep.runOne(config.withDispatcher("nearest"), trace).getError(), "The lobby queue should overflow");
+	}
+}
@@ -0,0 +1,89 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import building.SimConfig;
+import passengers.BinaryTrace;
+import passengers.PassengerTrace;
+import passengers.Trace;
+
+/**
+ * Checks that a passenger file converted to a binary trace holds the same
+ * groups, that seek() finds the first group at or after a tick, and that a
+ * simulation of the binary trace logs exactly what the CSV file does.
+ */
+class BinaryTraceTest {
+	private static final String TEST = "FullElevatorTest.csv";
+
+	@TempDir
+	Path dir;
+
+	private String convert() throws IOException {
+		String traceFile = dir.resolve("FullElevatorTest.trc").toString();
+		assertEquals(new PassengerTrace(TEST).size(), BinaryTrace.convert(TEST, traceFile));
+		return traceFile;
+	}
+
+	@Test
+	void testConvert() throws IOException {
+		Trace csv = new PassengerTrace(TEST);
+		Trace binary = Trace.open(convert());
+		assertEquals(csv.size(), binary.size());
+		for (int row = 0; row < csv.size(); row++) {
+			assertEquals(csv.getTime(row), binary.getTime(row));
+			assertEquals(csv.getNumPass(row), binary.getNumPass(row));
+			assertEquals(csv.getOnFloor(row), binary.getOnFloor(row));
+			assertEquals(csv.getDestFloor(row), binary.getDestFloor(row));
+			assertEquals(csv.isPolite(row), binary.isPolite(row));
+			assertEquals(csv.getWaitTime(row), binary.getWaitTime(row));
+		}
+		for (int tick = 0; tick <= csv.getTime(csv.size() - 1) + 1; tick += 7) {
+			int first = 0;
+			while (first < csv.size() && csv.getTime(first) < tick) first++;
+			assertEquals(first, binary.seek(tick), "First group at or after tick "+tick);
+			assertEquals(first, csv.seek(tick), "First group at or after tick "+tick);
+		}
+	}
+
+	@Test
+	void testSameLog() throws IOException {
+		SimConfig config = new SimConfig(6, 2, 10, 4, 2, 2, TEST);
+		SimConfig binary = config.withPassCSV(convert());
+		String expected = SimTestSupport.runLogged(config);
+		assertEquals(expected, SimTestSupport.runLogged(binary));
+
+		ElevatorSimController c = SimTestSupport.runTo(new ElevatorSimController(null, binary, false), 4000);
+		ByteArrayOutputStream snap = new ByteArrayOutputStream();
+		c.writeSnapshot(snap);
+		ElevatorSimController restored = ElevatorSimController.readSnapshot(new ByteArrayInputStream(snap.toByteArray()));
+		assertEquals(SimTestSupport.finishLogged(c), SimTestSupport.finishLogged(restored), "Log after restoring from a binary trace differs");
+
+		ElevatorSweep.Result fromCsv = ElevatorSweep.runOne(config);
+		ElevatorSweep.Result fromBinary = ElevatorSweep.runOne(binary);
+		assertEquals(fromCsv.getStats().getMeanTotalTime(), fromBinary.getStats().getMeanTotalTime());
+		assertEquals(fromCsv.getStats().getNumGroups(), fromBinary.getStats().getNumGroups());
+		assertEquals(fromCsv.getStats().getNumGaveUp(), fromBinary.getStats().getNumGaveUp());
+	}
+
+	@Test
+	void testRejected() throws IOException {
+		String traceFile = convert();
+		try (RandomAccessFile f = new RandomAccessFile(traceFile, "rw")) {
+			f.setLength(f.length() - 1);
+		}
+		assertThrows(IOException.class, () -> new BinaryTrace(traceFile));
+		assertThrows(IOException.class, () -> new BinaryTrace(TEST));
+		Path unordered = dir.resolve("Unordered.csv");
+		Files.writeString(unordered, "Time,NumPass,FromFloor,ToFloor,Polite,Wait\n5,1,1,2\n4,1,2,1\n");
+		assertThrows(IllegalArgumentException.class, () -> BinaryTrace.convert(unordered.toString(), traceFile));
+	}
+}
@@ -0,0 +1,48 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import building.SimConfig;
+
+/**
+ * Checks that simulations running at the same time in one JVM do not share
+ * passenger ids, logs or configuration: every concurrent run must produce the
+ * same log as the same simulation run on its own.
+ */
+class ConcurrentSimulationTest {
+	private static final int RUNS = 16;
+	private static final int THREADS = 4;
+
+	@Test
+	void testConcurrentRunsMatchSingleRun() throws Exception {
+		SimConfig[] configs = {
+			new SimConfig(6, 1, 15, 5, 2, 3, "ElevatorTest.csv"),
+			new SimConfig(6, 1, 10, 3, 1, 2, "ElevatorTest.csv"),
+			new SimConfig(6, 2, 15, 5, 2, 3, "ElevatorTest.csv")
+		};
+		String[] expected = new String[configs.length];
+		for (int i = 0; i < configs.length; i++)
+			expected[i] = SimTestSupport.runLogged(configs[i]);
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<String>> logs = new ArrayList<Future<String>>();
+			for (int r = 0; r < RUNS; r++) {
+				SimConfig config = configs[r % configs.length];
+				Callable<String> run = () -> SimTestSupport.runLogged(config);
+				logs.add(pool.submit(run));
+			}
+			for (int r = 0; r < RUNS; r++)
+				assertEquals(expected[r % configs.length], logs.get(r).get(), "Run "+r+" differs from the single run");
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
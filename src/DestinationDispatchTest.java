@@ -0,0 +1,80 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import building.DestinationDispatcher;
+import building.EtaDispatcher;
+import building.SimConfig;
+import passengers.PassengerTrace;
+
+/**
+ * Checks destination dispatch: every group is delivered, and in the morning
+ * up-peak of a tall building, where every group calls from the lobby, giving
+ * each elevator its own lobby queue handles traffic that overflows the single
+ * up queue of the lobby when calls are dispatched.
+ */
+class DestinationDispatchTest {
+
+	@TempDir
+	Path dir;
+
+	/**
+	 * Writes a passenger file in which groups of 1 to 4 arrive in the lobby every
+	 * 6 to 12 ticks, going to any floor above.
+	 *
+	 * @param numFloors the num floors
+	 * @return the passenger file
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private String writeUpPeak(int numFloors) throws IOException {
+		Random random = new Random(7);
+		StringBuilder csv = new StringBuilder("Time,NumPass,FromFloor,ToFloor,Polite,Wait\n");
+		int time = 1;
+		for (int i = 0; i < 600; i++) {
+			time += 6 + 2 * random.nextInt(4);
+			csv.append(time+","+(1 + random.nextInt(4))+",1,"+(2 + random.nextInt(numFloors - 1))+",TRUE,1000\n");
+		}
+		Path file = dir.resolve("UpPeak.csv");
+		Files.writeString(file, csv);
+		return file.toString();
+	}
+
+	@Test
+	void testUpPeakHandlingCapacity() throws IOException {
+		String passCSV = writeUpPeak(20);
+		PassengerTrace trace = new PassengerTrace(passCSV);
+		SimConfig config = new SimConfig(20, 4, 15, 3, 2, 3, passCSV);
+		assertNotNull(ElevatorSweep.runOne(config, trace).getError(), "The lobby queue should overflow");
+		ElevatorSweep.Result r = ElevatorSweep.runOne(config.withDispatcher("destination"), trace);
+		assertNull(r.getError());
+		assertEquals(trace.size(), r.getStats().getNumGroups() + r.getStats().getNumGaveUp());
+	}
+
+	@Test
+	void testEveryGroupDelivered() {
+		PassengerTrace trace = new PassengerTrace("FullElevatorTest.csv");
+		for (int cars = 1; cars <= 4; cars++) {
+			SimConfig config = new SimConfig(6, cars, 15, 5, 2, 3, "FullElevatorTest.csv", "default", "destination");
+			ElevatorSweep.Result r = ElevatorSweep.runOne(config, trace);
+			assertNull(r.getError());
+			assertEquals(trace.size(), r.getStats().getNumGroups() + r.getStats().getNumGaveUp());
+		}
+	}
+
+	@Test
+	void testModeIsFixedByConfig() {
+		ElevatorSimController c = new ElevatorSimController(null, new SimConfig(6, 2, 15, 5, 2, 3, "FullElevatorTest.csv"), false);
+		assertThrows(IllegalArgumentException.class,
+		             () -> c.setDispatcher(new DestinationDispatcher(null)));
+		c.setDispatcher(new EtaDispatcher(null));
+	}
+}
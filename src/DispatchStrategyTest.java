@@ -0,0 +1,59 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+
+import building.DispatchStrategy;
+import building.SimConfig;
+import passengers.PassengerStats;
+import passengers.PassengerTrace;
+
+/**
+ * Checks that every dispatch strategy runs the same passengers to the end of
+ * the simulation, delivering or giving up every group, and that the default
+ * strategy logs exactly what the simulation logged before there were
+ * strategies.
+ */
+class DispatchStrategyTest {
+	private static final String TEST = "FullElevatorTest.csv";
+	private static final String RECORDED = "test_data/Mv2FCallPri3a-3cars.log";
+	private static final String[] STRATEGIES = {"default", "nearest", "look", "scan", "grouping"};
+
+	@Test
+	void testEveryStrategyFinishes() {
+		PassengerTrace trace = new PassengerTrace(TEST);
+		for (int cars = 1; cars <= 3; cars += 2) {
+			for (String strategy : STRATEGIES) {
+				SimConfig config = new SimConfig(6, cars, 15, 5, 2, 3, TEST, strategy);
+				ElevatorSweep.Result r = ElevatorSweep.runOne(config, trace);
+				assertNull(r.getError(), strategy+" with "+cars+" cars failed");
+				PassengerStats stats = r.getStats();
+				assertEquals(trace.size(), stats.getNumGroups() + stats.getNumGaveUp(), strategy+" with "+cars+" cars lost passengers");
+				assertTrue(r.getFloorsTravelled() > 0 && r.getNumStops() > 0);
+			}
+		}
+	}
+
+	@Test
+	void testDefaultStrategyIsOriginalBehavior() throws IOException {
+		SimConfig config = new SimConfig(6, 3, 10, 4, 2, 2, "test_data/Mv2FCallPri3a.csv");
+		assertEquals(DispatchStrategy.DEFAULT, config.getStrategy());
+		// the log of this config, recorded before there were dispatch strategies
+		String expected = new String(Files.readAllBytes(Paths.get(RECORDED)), StandardCharsets.UTF_8);
+		assertEquals(expected, SimTestSupport.runLogged(config));
+		assertNotEquals(expected, SimTestSupport.runLogged(config.withStrategy("nearest")));
+	}
+
+	@Test
+	void testUnknownStrategy() {
+		assertThrows(IllegalArgumentException.class, () -> DispatchStrategy.forName("random"));
+	}
+}
@@ -0,0 +1,297 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import building.SimConfig;
+import passengers.PassengerStats;
+import passengers.Trace;
+
+/**
+ * The Class ElevatorPlanner. Finds the cheapest elevator configuration that
+ * meets a wait time target for a passenger trace. For every number of cars in
+ * a range it searches for the smallest capacity whose percentile WaitToBoard
+ * and/or TotalTime are within the target, with no more than the allowed number
+ * of groups giving up. The cheapest configuration is the one with the fewest
+ * cars, then the smallest capacity.
+ *
+ * The search assumes that adding capacity never makes the waits longer. That
+ * is not always so - whether a group gives up can depend on the order the cars
+ * reach the floors - so the capacity found always meets the target, but now and
+ * then a smaller one would too; use ElevatorSweep to check a range. Each
+ * round runs several capacities for every car count that is not yet resolved,
+ * in parallel - a bisection when there is one thread per car count, and a
+ * search that narrows the range faster when there are more threads. The trace
+ * is read once and replayed by every trial, and no trial is run twice.
+ */
+public class ElevatorPlanner {
+
+	/**  The default base configuration file - supplies the values that are not searched. */
+	private static final String SIM_CONFIG = "ElevatorSimConfig.csv";
+
+	/** The base configuration. */
+	private final SimConfig base;
+
+	/** The passenger trace. */
+	private final Trace trace;
+
+	/** The percentile the targets apply to. */
+	private final double pct;
+
+	/** The target for the percentile WaitToBoard, or -1 for none. */
+	private final int maxWait;
+
+	/** The target for the percentile TotalTime, or -1 for none. */
+	private final int maxTotal;
+
+	/** The number of groups allowed to give up. */
+	private final int maxGaveUp;
+
+	/** The number of trials to run at the same time. */
+	private final int threads;
+
+	/** Every trial run so far, by number of cars and capacity. */
+	private final Map<String, ElevatorSweep.Result> trials = new HashMap<String, ElevatorSweep.Result>();
+
+	/** Every trial run so far, in the order they were run. */
+	private final List<ElevatorSweep.Result> trialOrder = new ArrayList<ElevatorSweep.Result>();
+
+	/**
+	 * Instantiates a new planner.
+	 *
+	 * @param base the base configuration - the passenger file is replaced by the trace, and the
+	 *        elevators are sized as one bank serving every floor
+	 * @param trace the passenger trace
+	 * @param pct the percentile the targets apply to, from 0 to 100
+	 * @param maxWait the target for the percentile WaitToBoard, or -1 for none
+	 * @param maxTotal the target for the percentile TotalTime, or -1 for none
+	 * @param maxGaveUp the number of groups allowed to give up
+	 * @param threads the number of trials to run at the same time
+	 */
+	public ElevatorPlanner(SimConfig base, Trace trace, double pct, int maxWait, int maxTotal,
+			               int maxGaveUp, int threads) {
+		this.base = base.withPassCSV(trace.getFilename()).withBanks("").withTraffic("");
+		this.trace = trace;
+		this.pct = pct;
+		this.maxWait = maxWait;
+		this.maxTotal = maxTotal;
+		this.maxGaveUp = maxGaveUp;
+		this.threads = threads;
+	}
+
+	/**
+	 * Checks if a trial meets the target.
+	 *
+	 * @param r the result of the trial
+	 * @return true, if the trial completed and is within every target
+	 */
+	public boolean meetsTarget(ElevatorSweep.Result r) {
+		PassengerStats stats = r.getStats();
+		if (stats == null) return false;
+		if (stats.getNumGaveUp() > maxGaveUp) return false;
+		if (maxWait >= 0 && stats.getWaitToBoardPercentile(pct) > maxWait) return false;
+		if (maxTotal >= 0 && stats.getTotalTimePercentile(pct) > maxTotal) return false;
+		return true;
+	}
+
+	/**
+	 * Gets the key of a trial.
+	 *
+	 * @param cars the number of cars
+	 * @param capacity the capacity
+	 * @return the key
+	 */
+	private static String key(int cars, int capacity) {
+		return cars+","+capacity;
+	}
+
+	/**
+	 * Finds the smallest capacity that meets the target for each number of cars.
+	 *
+	 * @param minCars the fewest cars to try
+	 * @param maxCars the most cars to try
+	 * @param minCapacity the smallest capacity to try
+	 * @param maxCapacity the largest capacity to try
+	 * @return for each number of cars from minCars, the trial with the smallest capacity
+	 *         that meets the target, or null if even maxCapacity does not
+	 * @throws InterruptedException if interrupted while waiting for the trials
+	 * @throws ExecutionException if a trial failed
+	 */
+	public ElevatorSweep.Result[] plan(int minCars, int maxCars, int minCapacity, int maxCapacity)
+			throws InterruptedException, ExecutionException {
+		int n = maxCars - minCars + 1;
+		// for each car count, the largest capacity known to fail and the smallest known to pass
+		int[] fail = new int[n];
+		int[] pass = new int[n];
+		for (int i = 0; i < n; i++) {
+			fail[i] = minCapacity - 1;
+			pass[i] = maxCapacity + 1;
+		}
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			while (true) {
+				List<Integer> active = new ArrayList<Integer>();
+				for (int i = 0; i < n; i++)
+					if (pass[i] - fail[i] > 1) active.add(i);
+				if (active.isEmpty()) break;
+
+				int k = Math.max(1, threads / active.size());
+				List<TreeSet<Integer>> probes = new ArrayList<TreeSet<Integer>>();
+				List<Callable<ElevatorSweep.Result>> tasks = new ArrayList<Callable<ElevatorSweep.Result>>();
+				for (int i : active) {
+					TreeSet<Integer> p = new TreeSet<Integer>();
+					for (int j = 1; j <= k; j++) {
+						int capacity = fail[i] + (int) ((long) (pass[i] - fail[i]) * j / (k + 1));
+						if (capacity > fail[i] && capacity < pass[i]) p.add(capacity);
+					}
+					if (p.isEmpty()) p.add(fail[i] + 1);
+					probes.add(p);
+					for (int capacity : p) {
+						if (trials.containsKey(key(minCars + i, capacity))) continue;
+						SimConfig config = base.withNumElevators(minCars + i).withCapacity(capacity);
+						tasks.add(() -> ElevatorSweep.runOne(config, trace));
+					}
+				}
+				for (ElevatorSweep.Result r : ElevatorSweep.runAll(pool, tasks)) {
+					trials.put(key(r.getConfig().getNumElevators(), r.getConfig().getCapacity()), r);
+					trialOrder.add(r);
+				}
+
+				for (int a = 0; a < active.size(); a++) {
+					int i = active.get(a);
+					for (int capacity : probes.get(a)) {
+						if (meetsTarget(trials.get(key(minCars + i, capacity)))) {
+							pass[i] = capacity;
+							break;
+						}
+						fail[i] = capacity;
+					}
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+
+		ElevatorSweep.Result[] best = new ElevatorSweep.Result[n];
+		for (int i = 0; i < n; i++)
+			best[i] = (pass[i] <= maxCapacity) ? trials.get(key(minCars + i, pass[i])) : null;
+		return best;
+	}
+
+	/**
+	 * Gets every trial run so far, in the order they were run.
+	 *
+	 * @return the trials
+	 */
+	public List<ElevatorSweep.Result> getTrials() {
+		return trialOrder;
+	}
+
+	/**
+	 * The main method. At least one of -maxWait and -maxTotal must be given.
+	 *    -c configFile        the base configuration file (default ElevatorSimConfig.csv)
+	 *    -passCSV trace.csv   the passenger trace, CSV or binary .trc (default the one in the base configuration)
+	 *    -pct 95              the percentile the targets apply to (default 95)
+	 *    -maxWait n           the target for the percentile WaitToBoard
+	 *    -maxTotal n          the target for the percentile TotalTime
+	 *    -maxGaveUp n         the number of groups allowed to give up (default 0)
+	 *    -minCars n           the fewest cars to try (default 1)
+	 *    -maxCars n           the most cars to try (default 4)
+	 *    -minCapacity n       the smallest capacity to try (default 1)
+	 *    -maxCapacity n       the largest capacity to try (default 40)
+	 *    -threads n           the trials to run at once (default the number of cores)
+	 *    -o trials.csv        also write every trial, in the format of ElevatorSweep
+	 *
+	 * @param args the arguments
+	 */
+	public static void main(String[] args) {
+		String configFile = SIM_CONFIG;
+		String passCSV = null;
+		String trialsFile = null;
+		double pct = 95;
+		int maxWait = -1;
+		int maxTotal = -1;
+		int maxGaveUp = 0;
+		int minCars = 1;
+		int maxCars = 4;
+		int minCapacity = 1;
+		int maxCapacity = 40;
+		int threads = Runtime.getRuntime().availableProcessors();
+		for (int i = 0; i < args.length; i++) {
+			boolean hasValue = i < args.length-1;
+			if ("-c".equals(args[i]) && hasValue) {
+				configFile = args[++i];
+			} else if ("-passCSV".equals(args[i]) && hasValue) {
+				passCSV = args[++i];
+			} else if ("-pct".equals(args[i]) && hasValue) {
+				pct = Double.parseDouble(args[++i]);
+			} else if ("-maxWait".equals(args[i]) && hasValue) {
+				maxWait = Integer.parseInt(args[++i]);
+			} else if ("-maxTotal".equals(args[i]) && hasValue) {
+				maxTotal = Integer.parseInt(args[++i]);
+			} else if ("-maxGaveUp".equals(args[i]) && hasValue) {
+				maxGaveUp = Integer.parseInt(args[++i]);
+			} else if ("-minCars".equals(args[i]) && hasValue) {
+				minCars = Integer.parseInt(args[++i]);
+			} else if ("-maxCars".equals(args[i]) && hasValue) {
+				maxCars = Integer.parseInt(args[++i]);
+			} else if ("-minCapacity".equals(args[i]) && hasValue) {
+				minCapacity = Integer.parseInt(args[++i]);
+			} else if ("-maxCapacity".equals(args[i]) && hasValue) {
+				maxCapacity = Integer.parseInt(args[++i]);
+			} else if ("-threads".equals(args[i]) && hasValue) {
+				threads = Integer.parseInt(args[++i]);
+			} else if ("-o".equals(args[i]) && hasValue) {
+				trialsFile = args[++i];
+			} else {
+				System.out.println("Ignoring unknown option "+args[i]);
+			}
+		}
+		if (maxWait < 0 && maxTotal < 0) {
+			System.out.println("Usage: java ElevatorPlanner [-c configFile] [-passCSV trace.csv] [-pct 95] " +
+		                       "-maxWait n|-maxTotal n [-maxGaveUp 0] [-minCars 1] [-maxCars 4] " +
+					           "[-minCapacity 1] [-maxCapacity 40] [-threads n] [-o trials.csv]");
+			return;
+		}
+		SimConfig base = SimConfig.read(configFile);
+		Trace trace = Trace.open((passCSV == null) ? base.getPassCSV() : passCSV);
+		ElevatorPlanner planner = new ElevatorPlanner(base, trace, pct, maxWait, maxTotal, maxGaveUp, threads);
+		long start = System.nanoTime();
+		ElevatorSweep.Result[] best;
+		try {
+			best = planner.plan(minCars, maxCars, minCapacity, maxCapacity);
+			if (trialsFile != null) ElevatorSweep.writeResults(trialsFile, planner.getTrials());
+		} catch (InterruptedException | ExecutionException | IOException e) {
+			e.printStackTrace();
+			return;
+		}
+
+		System.out.println(trace);
+		System.out.printf("Target: p%s WaitToBoard <= %s, p%s TotalTime <= %s, at most %d groups give up%n",
+				          pct, (maxWait < 0) ? "any" : maxWait, pct, (maxTotal < 0) ? "any" : maxTotal, maxGaveUp);
+		System.out.println("Cars  Capacity  WaitToBoard  TotalTime");
+		ElevatorSweep.Result cheapest = null;
+		for (int i = 0; i < best.length; i++) {
+			ElevatorSweep.Result r = best[i];
+			if (r == null) {
+				System.out.printf("%4d  %8s%n", minCars + i, "> "+maxCapacity);
+				continue;
+			}
+			if (cheapest == null) cheapest = r;
+			System.out.printf("%4d  %8d  %11d  %9d%n", minCars + i, r.getConfig().getCapacity(),
+					          r.getStats().getWaitToBoardPercentile(pct), r.getStats().getTotalTimePercentile(pct));
+		}
+		System.out.printf("%d trials on %d threads in %.1f ms%n", planner.getTrials().size(), threads,
+				          (System.nanoTime() - start) / 1e6);
+		if (cheapest == null)
+			System.out.println("No configuration meets the target");
+		else
+			System.out.println("Cheapest: "+cheapest.getConfig().getNumElevators()+" car(s) of capacity "+
+					           cheapest.getConfig().getCapacity());
+	}
+}
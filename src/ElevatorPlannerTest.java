@@ -0,0 +1,68 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Test;
+
+import building.SimConfig;
+import passengers.PassengerTrace;
+
+/**
+ * Checks that the planner finds, for every number of cars, the same smallest
+ * capacity as trying every capacity in turn - both with one thread per car
+ * count, a bisection, and with more threads than car counts, several probes
+ * at once - and that it finds nothing when no capacity meets the target.
+ */
+class ElevatorPlannerTest {
+	private static final String TEST = "FullElevatorTest.csv";
+	private static final SimConfig BASE = new SimConfig(6, 1, 15, 5, 2, 3, TEST);
+	private static final int MAX_CARS = 3;
+	private static final int MAX_CAPACITY = 20;
+
+	/**
+	 * Finds the smallest capacity that meets the target by trying each one,
+	 * or -1 if none does.
+	 */
+	private int bruteForce(ElevatorPlanner planner, PassengerTrace trace, int cars) {
+		for (int capacity = 1; capacity <= MAX_CAPACITY; capacity++) {
+			SimConfig config = BASE.withNumElevators(cars).withCapacity(capacity);
+			if (planner.meetsTarget(ElevatorSweep.runOne(config, trace))) return capacity;
+		}
+		return -1;
+	}
+
+	@Test
+	void testSameAsBruteForce() throws InterruptedException, ExecutionException {
+		PassengerTrace trace = new PassengerTrace(TEST);
+		// one car never gets the p95 wait down to 100, however big it is
+		int[] expected = {-1, 9, 7};
+		for (int cars = 1; cars <= MAX_CARS; cars++)
+			assertEquals(expected[cars - 1], bruteForce(new ElevatorPlanner(BASE, trace, 95, 100, -1, 10, 1), trace, cars));
+		for (int threads : new int[] {1, MAX_CARS, 4 * MAX_CARS}) {
+			ElevatorPlanner planner = new ElevatorPlanner(BASE, trace, 95, 100, -1, 10, threads);
+			ElevatorSweep.Result[] best = planner.plan(1, MAX_CARS, 1, MAX_CAPACITY);
+			assertEquals(MAX_CARS, best.length);
+			for (int cars = 1; cars <= MAX_CARS; cars++) {
+				ElevatorSweep.Result r = best[cars - 1];
+				assertEquals(expected[cars - 1], (r == null) ? -1 : r.getConfig().getCapacity(),
+						     cars+" cars on "+threads+" threads");
+			}
+			Set<String> run = new HashSet<String>();
+			for (ElevatorSweep.Result r : planner.getTrials())
+				assertTrue(run.add(r.getConfig().getNumElevators()+","+r.getConfig().getCapacity()), "Trial run twice");
+		}
+	}
+
+	@Test
+	void testNothingMeetsTarget() throws InterruptedException, ExecutionException {
+		PassengerTrace trace = new PassengerTrace(TEST);
+		for (int threads : new int[] {1, 4 * MAX_CARS}) {
+			ElevatorPlanner planner = new ElevatorPlanner(BASE, trace, 95, 10, -1, 0, threads);
+			for (ElevatorSweep.Result r : planner.plan(1, MAX_CARS, 1, MAX_CAPACITY)) assertNull(r);
+		}
+	}
+}
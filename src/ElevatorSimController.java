@@ -1,12 +1,23 @@
-import java.io.BufferedReader;
-import java.io.File;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.ListIterator;
 
 import building.Building;
-import genericqueue.GenericQueue;
-import myfileio.MyFileIO;
+import building.Elevator;
+import building.Dispatcher;
+import building.SimConfig;
+import building.SimContext;
+import passengers.CsvPassengerSource;
+import passengers.PassengerSource;
+import passengers.PassengerStore;
+import passengers.BinaryTrace;
+import passengers.Trace;
+import passengers.TrafficGenerator;
 import passengers.Passengers;
 
 // TODO: Auto-generated Javadoc
@@ -19,35 +30,26 @@ public class ElevatorSimController {
 	/**  Constant to specify the configuration file for the simulation. */
 	private static final String SIM_CONFIG = "ElevatorSimConfig.csv";
 	
-	/**  Constant to make the Passenger queue contents visible after initialization. */
-	private boolean PASSQ_DEBUG=true;
+	/** The magic number at the start of a snapshot - "ESNP". */
+	static final int SNAPSHOT_MAGIC = 0x45534e50;
+	
+	/** The version of the snapshot format. */
+	static final int SNAPSHOT_VERSION = 5;
 	
-	/** The gui. */
-	private ElevatorSimulation gui;
+	/**  Constant to make the Passenger queue contents visible as they are read. */
+	private boolean PASSQ_DEBUG=true;
 	
 	/** The building. */
 	private Building building;
 	
-	/** The fio. */
-	private MyFileIO fio;
-
 	/** The num floors. */
 	private final int NUM_FLOORS;
 	
-	/** The num floors. */
-	private int numFloors;
-	
-	/** The capacity. */
-	private int capacity;
-	
-	/** The floor ticks. */
-	private int floorTicks;
-	
-	/** The door ticks. */
-	private int doorTicks;
+	/** The configuration of the simulation. */
+	private SimConfig config;
 	
-	/** The pass per tick. */
-	private int passPerTick;
+	/** The context of the simulation - its passenger store and event log. */
+	private SimContext context;
 	
 	/** The testfile. */
 	private String testfile;
@@ -64,13 +66,19 @@ public class ElevatorSimController {
 	/** The end sim. */
 	private boolean endSim = false;
 	
-	/** passQ holds the time-ordered queue of Passengers, initialized at the start 
-	 *  of the simulation. At the end of the simulation, the queue will be empty.
+	/** When true, the passenger data is written when the end of the simulation is detected. */
+	private boolean savePassData = true;
+	
+	/** passQ supplies the time-ordered Passengers, streamed from the passenger file 
+	 *  as the simulation reaches them. At the end of the simulation, it will be empty.
 	 */
-	private GenericQueue<Passengers> passQ;
-
-	/**  The size of the queue to store Passengers at the start of the simulation. */
-	private final int PASSENGERS_QSIZE = 1000;	
+	private PassengerSource passQ;
+	
+	/** The passenger trace that passQ replays, or null if passQ reads the passenger file. */
+	private Trace trace;
+	
+	/** The passengers arriving on the current tick - reused every tick so stepping does not allocate. */
+	private ArrayList<Passengers> arrivedPassQ = new ArrayList<Passengers>();
 	
 	/**
 	 * Instantiates a new elevator sim controller. 
@@ -79,121 +87,128 @@ public class ElevatorSimController {
 	 * to run. Reads the passenger data for the test to run to
 	 * initialize the passenger queue in building...
 	 *
-	 * @param gui the gui
+	 * @param gui the gui - not called by the controller, as it draws the frames a SimRunner publishes
 	 */
 	public ElevatorSimController(ElevatorSimulation gui) {
-		this.gui = gui;
-		fio = new MyFileIO();
 		// IMPORTANT: DO NOT CHANGE THE NEXT LINE!!! Update the config file itself
 		// (ElevatorSimConfig.csv) to change the configuration or test being run.
-		configSimulation(SIM_CONFIG);
-		NUM_FLOORS = numFloors;
-		logfile = testfile.replaceAll(".csv", ".log");
-		building = new Building(NUM_FLOORS,logfile);
-		passQ = new GenericQueue<>(PASSENGERS_QSIZE);
-		//TODO: YOU still need to configure the elevator in the building here....
-		initializePassengerData(testfile);	
+		this(gui, SIM_CONFIG, true);
 	}
 	
-	//TODO: Write methods to update the GUI display
-	//      Needs to cover the Elevator state, Elevator passengers
-	//      and queues for each floor, as well as the current time
+	/**
+	 * Instantiates a new elevator sim controller from the specified configuration
+	 * file. Used by the headless runner, which has no GUI and may not want the 
+	 * passenger groups printed to the console.
+	 *
+	 * @param gui the gui - null when running headless
+	 * @param configFile the simulation configuration file
+	 * @param passQDebug true to print the passenger groups as they are read
+	 */
+	ElevatorSimController(ElevatorSimulation gui, String configFile, boolean passQDebug) {
+		this(gui, SimConfig.read(configFile), passQDebug);
+	}
 	
 	/**
-	 * Config simulation. Reads the filename, and parses the
-	 * parameters.
+	 * Instantiates a new elevator sim controller from a configuration that has
+	 * already been read or built. No configuration file is involved, so any
+	 * number of controllers can be created and run at the same time.
 	 *
-	 * @param filename the filename
+	 * @param gui the gui - null when running headless
+	 * @param config the configuration of the simulation
+	 * @param passQDebug true to print the passenger groups as they are read
 	 */
-	private void configSimulation(String filename) {
-		File configFile = fio.getFileHandle(filename);
-		try ( BufferedReader br = fio.openBufferedReader(configFile)) {
-			String line;
-			while ((line = br.readLine())!= null) {
-				parseElevatorConfigData(line);
-			}
-			fio.closeFile(br);
-		} catch (IOException e) { 
-			System.err.println("Error in reading file: "+filename);
-			e.printStackTrace();
-		}
+	ElevatorSimController(ElevatorSimulation gui, SimConfig config, boolean passQDebug) {
+		this(gui, config, null, passQDebug);
 	}
 	
 	/**
-	 * Parses the elevator simulation config file to configure the simulation:
-	 * number of floors and elevators, the actual test file to run, and the
-	 * elevator characteristics.
+	 * Instantiates a new headless elevator sim controller that replays a passenger
+	 * trace that has already been read, instead of reading the passenger file in
+	 * the configuration. Many controllers can replay one trace at the same time.
 	 *
-	 * @param line the line
-	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @param config the configuration of the simulation
+	 * @param trace the passenger trace
 	 */
-	private void parseElevatorConfigData(String line) throws IOException {
-		String[] values = line.split(",");
-		if (values[0].equals("numFloors")) {
-			numFloors = Integer.parseInt(values[1]);
-		} else if (values[0].equals("passCSV")) {
-			testfile = values[1];
-		} else if (values[0].equals("capacity")) {
-			capacity = Integer.parseInt(values[1]);
-		} else if (values[0].equals("floorTicks")) {
-			floorTicks = Integer.parseInt(values[1]);
-		} else if (values[0].equals("doorTicks")) {
-			doorTicks = Integer.parseInt(values[1]);
-		} else if (values[0].equals("passPerTick")) {
-			passPerTick = Integer.parseInt(values[1]);
-		}
+	ElevatorSimController(SimConfig config, Trace trace) {
+		this(null, config, trace, false);
+	}
+	
+	/**
+	 * Instantiates a new elevator sim controller.
+	 *
+	 * @param gui the gui - null when running headless
+	 * @param config the configuration of the simulation
+	 * @param trace the passenger trace to replay, or null to read the passenger file
+	 * @param passQDebug true to print the passenger groups as they are read
+	 */
+	private ElevatorSimController(ElevatorSimulation gui, SimConfig config, Trace trace, boolean passQDebug) {
+		this.config = config;
+		PASSQ_DEBUG = passQDebug;
+		NUM_FLOORS = config.getNumFloors();
+		testfile = config.getPassCSV();
+		logfile = testfile.replaceAll(".csv", ".log").replaceAll("\\.trc$", ".log");
+		context = new SimContext(config, logfile);
+		building = new Building(context);
+		this.trace = trace;
+		if (trace != null) passQ = trace.newSource(context.getPassengerStore());
+		else initializePassengerData(testfile);
 	}
 	
 	/**
-	 * Initialize passenger data. Reads the supplied filename,
-	 * and for each passenger group, identifies the pertinent information
-	 * and adds it to the passengers queue in Building...
+	 * Instantiates a headless fork of a simulation at its current tick.
+	 *
+	 * @param parent the controller to fork
+	 */
+	private ElevatorSimController(ElevatorSimController parent) {
+		config = parent.config;
+		PASSQ_DEBUG = false;
+		NUM_FLOORS = parent.NUM_FLOORS;
+		testfile = parent.testfile;
+		logfile = parent.logfile;
+		stepCnt = parent.stepCnt;
+		endSim = parent.endSim;
+		savePassData = false;
+		trace = parent.trace;
+		// the next group in passQ is already in the store, but has not entered the building
+		int rows = parent.context.getPassengerStore().size() - (parent.passQ.isEmpty() ? 0 : 1);
+		context = parent.context.fork(rows);
+		building = parent.building.fork(context);
+		PassengerStore store = context.getPassengerStore();
+		passQ = newPassengerSource(store, rows);
+	}
+	
+	//TODO: Write methods to update the GUI display
+	//      Needs to cover the Elevator state, Elevator passengers
+	//      and queues for each floor, as well as the current time
+	
+	/**
+	 * Initialize passenger data. Opens the supplied filename as a stream
+	 * of passenger groups; each group is read from the file only when the
+	 * simulation reaches the previous one. A binary trace is mapped and
+	 * replayed instead, and synthetic traffic in the config is generated
+	 * instead of reading the file.
 	 *
 	 * @param filename the filename
 	 */
 	private void initializePassengerData(String filename) {
-		boolean firstLine = true;
-		File passInput = fio.getFileHandle(filename);
-		try (BufferedReader br = fio.openBufferedReader(passInput)) {
-			String line;
-			while ((line = br.readLine())!= null) {
-				if (firstLine) {
-					firstLine = false;
-					continue;
-				}
-				parsePassengerData(line);
-			}
-			fio.closeFile(br);
-		} catch (IOException e) { 
-			System.err.println("Error in reading file: "+filename);
-			e.printStackTrace();
-		}
-		if (PASSQ_DEBUG) dumpPassQ();
+		if (config.getTrafficSpec() == null && BinaryTrace.isBinaryTrace(filename))
+			trace = Trace.open(filename);
+		passQ = newPassengerSource(context.getPassengerStore(), 0);
 	}	
-	
+
 	/**
-	 * Parses the line of passenger data into tokens, and 
-	 * passes those values to the building to be added to the
-	 * passenger queue.
+	 * Opens the passenger groups of the simulation from a group part way
+	 * through - replayed from the trace, generated from the synthetic traffic
+	 * in the config, or else read from the passenger file.
 	 *
-	 * @param line the line of passenger input data
+	 * @param store the store to add the passenger groups to, which already holds the groups before the first one
+	 * @param firstGroup the index of the first passenger group
+	 * @return the passenger source
 	 */
-	private void parsePassengerData(String line) {
-		int time=0, numPass=0,fromFloor=0, toFloor=0;
-		boolean polite = true;
-		int wait = 1000;
-		String[] values = line.split(",");
-		for (int i = 0; i < values.length; i++) {
-			switch (i) {
-				case 0 : time      = Integer.parseInt(values[i]); break;
-				case 1 : numPass   = Integer.parseInt(values[i]); break;
-				case 2 : fromFloor   = Integer.parseInt(values[i]); break;
-				case 3 : toFloor  = Integer.parseInt(values[i]); break;
-				case 5 : wait      = Integer.parseInt(values[i]); break;
-				case 4 : polite = "TRUE".equalsIgnoreCase(values[i]); break;
-			}
-		}
-		passQ.add(new Passengers(time,numPass,fromFloor,toFloor,polite,wait));	
+	private PassengerSource newPassengerSource(PassengerStore store, int firstGroup) {
+		if (trace != null) return trace.newSource(store, firstGroup);
+		if (config.getTrafficSpec() != null) return new TrafficGenerator(config.getTrafficSpec(), NUM_FLOORS, store, firstGroup);
+		return new CsvPassengerSource(testfile, store, PASSQ_DEBUG, firstGroup);
 	}
 	
 	/**
@@ -211,7 +226,7 @@ public class ElevatorSimController {
 	 * @return the test name
 	 */
 	public String getTestName() {
-		return (testfile.replaceAll(".csv", ""));
+		return (testfile.replaceAll(".csv", "").replaceAll("\\.trc$", ""));
 	}
 
 	/**
@@ -221,6 +236,15 @@ public class ElevatorSimController {
 		building.enableLogging();
 	}
 	
+	/**
+	 * Enable logging in the text or binary format. A pass-through to building
+	 *
+	 * @param binary true to write the binary event format instead of text
+	 */
+	public void enableLogging(boolean binary) {
+		building.enableLogging(binary);
+	}
+	
 	// TODO: Write any other helper methods that you may need to access data from the building..
 	
 	/**
@@ -231,16 +255,67 @@ public class ElevatorSimController {
 	}
 	
 	/**
-	 * Gets toString of waiting passengers on each floor and sends it to GUI
+	 * Close logs. A pass through to building, using the current time.
+	 *
+	 * @throws java.io.UncheckedIOException if the log could not be written
+	 */
+	public void closeLogs() {
+		building.closeLogs(stepCnt);
+	}
+	
+	/**
+	 * Gets the current time of the simulation.
+	 *
+	 * @return the step cnt
 	 */
-	public void updateGUIFloors() {
-		String upPassengers;
-		String downPassengers;
+	public int getStepCnt() {
+		return stepCnt;
+	}
+	
+	/**
+	 * Checks if the simulation has detected its end - all passengers have
+	 * been processed and the elevator has returned to the STOP state.
+	 *
+	 * @return true, if the simulation has ended
+	 */
+	public boolean isEndSim() {
+		return endSim;
+	}
+	
+	/**
+	 * Captures the state of the elevators and the toString of the waiting
+	 * passengers on each floor as a frame for the GUI to draw. Called on the
+	 * thread that steps the simulation, between ticks. The floors cache their
+	 * queue strings, so only the queues that changed since the last frame are
+	 * rendered again.
+	 *
+	 * @return the frame
+	 */
+	public SimFrame getFrame() {
+		int numCars = building.getNumElevators();
+		int[] state = new int[numCars];
+		int[] floor = new int[numCars];
+		int[] direction = new int[numCars];
+		int[] passengers = new int[numCars];
+		for (int car = 0; car < numCars; car++) {
+			Elevator elevator = building.getElevator(car);
+			state[car] = elevator.getCurrState();
+			floor[car] = elevator.getCurrFloor();
+			direction[car] = elevator.getDirection();
+			passengers[car] = elevator.getNumPassInElevator();
+		}
+		String[] upPassengers = new String[NUM_FLOORS];
+		String[] downPassengers = new String[NUM_FLOORS];
+		int[] upVersions = new int[NUM_FLOORS];
+		int[] downVersions = new int[NUM_FLOORS];
 		for (int i = 0; i < NUM_FLOORS; i++) {
-			upPassengers = building.getFloorQueueString(i, UP);
-			downPassengers = building.getFloorQueueString(i, DOWN);
-			gui.setFloorPassengers(i, upPassengers, downPassengers);
+			upPassengers[i] = building.getFloorQueueString(i, UP);
+			downPassengers[i] = building.getFloorQueueString(i, DOWN);
+			upVersions[i] = building.getFloorVersion(i, UP);
+			downVersions[i] = building.getFloorVersion(i, DOWN);
 		}
+		return new SimFrame(stepCnt, endSim, state, floor, direction, passengers, upPassengers, downPassengers,
+				            upVersions, downVersions);
 	}
 	
  	/**
@@ -264,18 +339,9 @@ public class ElevatorSimController {
 		//		2) close the logs
 		//		3) process the passenger results
 		//		4) send endSimulation to the GUI to stop ticks.
-		int state = building.getElevatorState();
-		int floor = building.getElevatorFloor();
-		int direction = building.getDirection();
-		int passengers = building.getNumPassInElevator();
-		if (gui != null) {
-			gui.updateElevatorState(state, floor, direction, passengers);
-			updateGUIFloors();
-		}
-		
-		ArrayList<Passengers> arrivedPassQ = new ArrayList<Passengers>();
-		
-		if (!passQ.isEmpty() || !building.isElevatorInStopState()) { 
+		// The GUI is not called from here - it samples the frames published by
+		// the SimRunner that steps the simulation, so stepping never waits on paint.
+		if (!passQ.isEmpty() || !building.isIdle()) { 
 			while (!passQ.isEmpty() && passQ.peek().getTime() == stepCnt) {
 				arrivedPassQ.add(passQ.poll());
 			}
@@ -283,27 +349,151 @@ public class ElevatorSimController {
 			building.updateElevator(stepCnt);
 		} else {  //passQ empty and stop state
 			building.updateElevator(stepCnt);
-			building.processPassengerData();
-			if (gui != null) gui.pauseSim();
+			if (savePassData) building.processPassengerData();
+			endSim = true;
 		} 
 	}
 
-	
 	/**
-	 * Dump passQ contents. Debug hook to view the contents of the passenger queue...
+	 * Steps the simulation to the next tick at which anything can change, and
+	 * then steps it. The ticks jumped over are ones in which no passengers arrive
+	 * and the elevator would only be advancing its timers, so the logs are
+	 * identical to calling stepSim() for every tick. Used by the headless runner.
 	 */
-	public void dumpPassQ() {
-		ListIterator<Passengers> passengers = passQ.getListIterator();
-		if (passengers != null) {
-			System.out.println("Passengers Queue:");
-			while (passengers.hasNext()) {
-				Passengers p = passengers.next();
-				System.out.println(p);
-			}
+	public void stepSimToNextEvent() {
+		int idle = building.getIdleTicks();
+		if (!passQ.isEmpty()) 
+			idle = Math.min(idle, passQ.peek().getTime() - stepCnt - 1);
+		else if (building.isIdle())
+			idle = 0;	// the end of the simulation is detected by the next step
+		if (idle > 0) {
+			stepCnt += idle;
+			building.skipTicks(idle);
 		}
+		stepSim();
 	}
-
-
+	
+	/**
+	 * Writes a snapshot of the whole simulation at the current tick: the config,
+	 * the time, the passenger groups that have entered the building, the floor
+	 * queues and the elevators. The passenger groups still to come are not
+	 * written; they are read from the passenger file again on restore. Logging
+	 * is not part of the snapshot. The stream is flushed, but not closed.
+	 *
+	 * @param os the output stream
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public void writeSnapshot(OutputStream os) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 1 << 16));
+		out.writeInt(SNAPSHOT_MAGIC);
+		out.writeInt(SNAPSHOT_VERSION);
+		config.writeState(out);
+		out.writeInt(stepCnt);
+		out.writeBoolean(endSim);
+		// the next group in passQ is already in the store, but has not entered the building
+		PassengerStore store = context.getPassengerStore();
+		store.writeState(out, store.size() - (passQ.isEmpty() ? 0 : 1));
+		building.writeState(out);
+		out.flush();
+	}
+	
+	/**
+	 * Restores a headless simulation from a snapshot, reading the rest of the
+	 * passengers from the passenger file named in the snapshot. Stepping the
+	 * restored simulation produces exactly the same logs as stepping the
+	 * simulation the snapshot was taken from.
+	 *
+	 * @param is the input stream
+	 * @return the controller
+	 * @throws IOException Signals that the input is not a snapshot, or an I/O exception.
+	 */
+	static ElevatorSimController readSnapshot(InputStream is) throws IOException {
+		return readSnapshot(is, null);
+	}
+	
+	/**
+	 * Restores a headless simulation from a snapshot, replaying the rest of the
+	 * passengers from a trace of the passenger file named in the snapshot.
+	 *
+	 * @param is the input stream
+	 * @param trace the passenger trace, or null to read the passenger file
+	 * @return the controller
+	 * @throws IOException Signals that the input is not a snapshot, or an I/O exception.
+	 */
+	static ElevatorSimController readSnapshot(InputStream is, Trace trace) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(is, 1 << 16));
+		if (in.readInt() != SNAPSHOT_MAGIC)
+			throw new IOException("Not a simulation snapshot");
+		int version = in.readInt();
+		if (version != SNAPSHOT_VERSION)
+			throw new IOException("Unsupported snapshot version "+version);
+		SimConfig config = SimConfig.readState(in);
+		ElevatorSimController c = (trace == null) ? new ElevatorSimController(null, config, false)
+				                                  : new ElevatorSimController(config, trace);
+		c.passQ.close();
+		c.stepCnt = in.readInt();
+		c.endSim = in.readBoolean();
+		PassengerStore store = c.context.getPassengerStore();
+		store.readState(in);
+		c.building.readState(in);
+		c.passQ = c.newPassengerSource(store, store.size());
+		return c;
+	}
+	
+	/**
+	 * Forks the simulation at the current tick into a new headless simulation
+	 * that carries on from the same state, but shares nothing that either of
+	 * them changes afterwards - so it can be stepped on another thread, or
+	 * given a different dispatcher. The passenger groups seen so far are shared
+	 * with the fork rather than copied, and the rest are replayed from the same
+	 * trace, or read again from the passenger file. The fork starts with logging
+	 * off, and does not write the passenger data file.
+	 *
+	 * @return the fork
+	 */
+	ElevatorSimController fork() {
+		return new ElevatorSimController(this);
+	}
+	
+	/**
+	 * Sets the dispatcher that decides which elevator answers each new call. A
+	 * pass-through to building.
+	 *
+	 * @param dispatcher the dispatcher
+	 */
+	void setDispatcher(Dispatcher dispatcher) {
+		building.setDispatcher(dispatcher);
+	}
+	
+	/**
+	 * Sets whether the passenger data file is written when the end of the simulation
+	 * is detected. Runs of the same passenger file at the same time would all write
+	 * the same file, so they turn this off and read the results from the building.
+	 *
+	 * @param savePassData true to write the passenger data
+	 */
+	void setSavePassengerData(boolean savePassData) {
+		this.savePassData = savePassData;
+	}
+	
+	/**
+	 * Gets the configuration of the simulation.
+	 *
+	 * @return the config
+	 */
+	SimConfig getConfig() {
+		return config;
+	}
+	
+	/**
+	 * Gets the context of the simulation.
+	 *
+	 * @return the context
+	 */
+	SimContext getContext() {
+		return context;
+	}
+	
 	/**
 	 * Gets the building. ONLY USED FOR JUNIT TESTING - YOUR GUI SHOULD NOT ACCESS THIS!.
 	 *
@@ -0,0 +1,196 @@
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * The Class ElevatorSimHeadless. Runs a simulation to completion without the GUI,
+ * stepping the controller as fast as possible instead of once per millisPerTick.
+ * The building and elevator behave exactly as they do under the GUI, and the
+ * same .log and PassData.csv files are produced.
+ */
+public class ElevatorSimHeadless {
+
+	/**  The default configuration file for the simulation. */
+	private static final String SIM_CONFIG = "ElevatorSimConfig.csv";
+
+	/** The controller. */
+	private ElevatorSimController controller;
+
+	/** When true, idle ticks are jumped over rather than stepped one at a time. */
+	private boolean skipIdle;
+
+	/** The number of steps actually executed by the last run. */
+	private int steps;
+
+	/** The time taken by the last run, in nanoseconds. */
+	private long elapsedNanos;
+
+	/**
+	 * Instantiates a new headless simulation.
+	 *
+	 * @param configFile the simulation configuration file
+	 * @param logging true to enable logging for the run
+	 * @param skipIdle true to jump over idle ticks (event-skipping mode)
+	 */
+	public ElevatorSimHeadless(String configFile, boolean logging, boolean skipIdle) {
+		this(configFile, logging, false, skipIdle);
+	}
+
+	/**
+	 * Instantiates a new headless simulation.
+	 *
+	 * @param configFile the simulation configuration file
+	 * @param logging true to enable logging for the run
+	 * @param binaryLog true to write the log in the binary event format
+	 * @param skipIdle true to jump over idle ticks (event-skipping mode)
+	 */
+	public ElevatorSimHeadless(String configFile, boolean logging, boolean binaryLog, boolean skipIdle) {
+		this(new ElevatorSimController(null, configFile, false), logging, binaryLog, skipIdle);
+	}
+
+	/**
+	 * Instantiates a new headless simulation of an existing controller - for
+	 * example one restored from a snapshot.
+	 *
+	 * @param controller the controller
+	 * @param logging true to enable logging for the run
+	 * @param binaryLog true to write the log in the binary event format
+	 * @param skipIdle true to jump over idle ticks (event-skipping mode)
+	 */
+	ElevatorSimHeadless(ElevatorSimController controller, boolean logging, boolean binaryLog, boolean skipIdle) {
+		this.controller = controller;
+		this.skipIdle = skipIdle;
+		if (logging) controller.enableLogging(binaryLog);
+	}
+
+	/**
+	 * Steps the simulation one tick at a time until the specified tick, or
+	 * the end of the simulation.
+	 *
+	 * @param tick the tick to stop at
+	 */
+	public void runTo(int tick) {
+		while (!controller.isEndSim() && controller.getStepCnt() < tick)
+			controller.stepSim();
+	}
+
+	/**
+	 * Writes a snapshot of the simulation at the current tick to a file.
+	 *
+	 * @param filename the filename
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public void writeSnapshot(String filename) throws IOException {
+		try (FileOutputStream out = new FileOutputStream(filename)) {
+			controller.writeSnapshot(out);
+		}
+	}
+
+	/**
+	 * Runs the simulation until the controller detects the end of the simulation,
+	 * then closes the logs. The passenger data is written by the controller when
+	 * the end is detected.
+	 *
+	 * @return the number of ticks simulated
+	 */
+	public int run() {
+		long start = System.nanoTime();
+		steps = 0;
+		while (!controller.isEndSim()) {
+			steps++;
+			if (skipIdle) controller.stepSimToNextEvent();
+			else controller.stepSim();
+		}
+		controller.closeLogs();
+		elapsedNanos = System.nanoTime() - start;
+		return controller.getStepCnt();
+	}
+
+	/**
+	 * Gets the ticks per second of the last run.
+	 *
+	 * @return the ticks per second
+	 */
+	public double getTicksPerSecond() {
+		return (elapsedNanos == 0) ? 0 : controller.getStepCnt() * 1e9 / elapsedNanos;
+	}
+
+	/**
+	 * Gets the number of steps executed by the last run. This is less than
+	 * the number of ticks simulated when idle ticks are skipped.
+	 *
+	 * @return the steps
+	 */
+	public int getSteps() {
+		return steps;
+	}
+
+	/**
+	 * Gets the elapsed time of the last run in milliseconds.
+	 *
+	 * @return the elapsed millis
+	 */
+	public double getElapsedMillis() {
+		return elapsedNanos / 1e6;
+	}
+
+	/**
+	 * The main method. Options:
+	 *    -c configFile   the simulation configuration file (default ElevatorSimConfig.csv)
+	 *    -log            enable logging
+	 *    -binlog         enable logging in the binary event format (see eventlog.BinaryEventReader)
+	 *    -skip           jump over idle ticks instead of stepping each one
+	 *    -snapshot t f   write a snapshot of the simulation at tick t to file f, then carry on
+	 *    -restore f      resume the simulation from the snapshot in file f instead of starting it
+	 *
+	 * @param args the arguments
+	 */
+	public static void main(String[] args) {
+		String configFile = SIM_CONFIG;
+		boolean logging = false;
+		boolean binaryLog = false;
+		boolean skipIdle = false;
+		int snapshotTick = -1;
+		String snapshotFile = null;
+		String restoreFile = null;
+		for (int i = 0; i < args.length; i++) {
+			if ("-c".equals(args[i]) && i < args.length-1) {
+				configFile = args[++i];
+			} else if ("-log".equals(args[i])) {
+				logging = true;
+			} else if ("-binlog".equals(args[i])) {
+				logging = true;
+				binaryLog = true;
+			} else if ("-skip".equals(args[i])) {
+				skipIdle = true;
+			} else if ("-snapshot".equals(args[i]) && i < args.length-2) {
+				snapshotTick = Integer.parseInt(args[++i]);
+				snapshotFile = args[++i];
+			} else if ("-restore".equals(args[i]) && i < args.length-1) {
+				restoreFile = args[++i];
+			} else {
+				System.out.println("Ignoring unknown option "+args[i]);
+			}
+		}
+		ElevatorSimHeadless sim;
+		try {
+			if (restoreFile != null) {
+				try (FileInputStream in = new FileInputStream(restoreFile)) {
+					sim = new ElevatorSimHeadless(ElevatorSimController.readSnapshot(in), logging, binaryLog, skipIdle);
+				}
+			} else {
+				sim = new ElevatorSimHeadless(configFile, logging, binaryLog, skipIdle);
+			}
+			if (snapshotFile != null) {
+				sim.runTo(snapshotTick);
+				sim.writeSnapshot(snapshotFile);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
+		int ticks = sim.run();
+		System.out.printf("Simulated %d ticks (%d steps) in %.1f ms (%.0f ticks/sec)%n",
+				          ticks, sim.getSteps(), sim.getElapsedMillis(), sim.getTicksPerSecond());
+	}
+}
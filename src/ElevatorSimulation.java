@@ -1,12 +1,12 @@
 import java.util.ArrayList;
 import building.Elevator;
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.BorderPane;
@@ -18,7 +18,6 @@ import javafx.scene.shape.Polygon;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 
 
 public class ElevatorSimulation extends Application {
@@ -27,13 +26,21 @@ public class ElevatorSimulation extends Application {
 	private final int NUM_FLOORS;
 	private final int currFloor;
 
-	/** The t. */
-	private Timeline t;
+	/** Steps the simulation on its own thread, and publishes the frames to draw. */
+	private SimRunner runner;
+	/** Draws the latest frame on every pulse of the JavaFX animation. */
+	private AnimationTimer painter;
+	/** The frame drawn last, so an unchanged frame is not drawn again. */
+	private SimFrame drawn;
 	/** The time */
 	private int ticks;
 
-	/** you MUST use millisPerTick as the duration for your timeline */
+	/** The duration of a tick at 1x */
 	private static int millisPerTick = 150;
+	/** The speed multiplier to start at */
+	private static int speed = SimRunner.MIN_SPEED;
+	/** The speeds offered in the speed box */
+	private static final Integer[] SPEEDS = {1, 2, 5, 10, 100, 1000, 10000};
 
 	/** Local copies of the states for tracking purposes */
 	private final int STOP = Elevator.STOP;
@@ -60,6 +67,7 @@ public class ElevatorSimulation extends Application {
 	private Button logButton;
 	private Button stepButton;
 	private TextField stepField;
+	private ComboBox<Integer> speedBox;
 	private Label timeLabel;
 	private Text stateText;
 
@@ -84,19 +92,71 @@ public class ElevatorSimulation extends Application {
 	}
 
 	/**
-	 * Creates the timeline to control time in simulation.
+	 * Starts the simulation thread, and the animation that draws the latest
+	 * frame it has published. The simulation never waits for the GUI, and the
+	 * GUI draws at most one frame per pulse however fast the simulation runs.
 	 */
 	private void initTimeline() {
-		t =
-				new Timeline(new KeyFrame(Duration.millis(millisPerTick),
-						ae -> {
-							controller.stepSim();
-							ticks++;
-							timeLabel.setText("Time: " + ticks + " ticks");
-						}));
+		runner = new SimRunner(controller, millisPerTick);
+		runner.setSpeed(speed);
+		runner.start();
+		painter = new AnimationTimer() {
+			@Override
+			public void handle(long now) {
+				// read the error first - the runner publishes the final frame before it
+				RuntimeException error = runner.getError();
+				SimFrame frame = runner.getFrame();
+				if (frame != drawn) drawFrame(frame);
+				if (error != null) showError(error);
+			}
+		};
+		painter.start();
 		startSim();
 	}
 
+	/**
+	 * Draws a frame of the simulation - only the floors whose queues changed
+	 * since the frame drawn last.
+	 *
+	 * @param frame the frame
+	 */
+	private void drawFrame(SimFrame frame) {
+		updateElevatorState(frame.getState(0), frame.getFloor(0), frame.getDirection(0), frame.getPassengers(0));
+		for (int i = 0; i < frame.getNumFloors(); i++)
+			if (frame.floorChanged(drawn, i)) setFloorPassengers(i, frame.getUpQueue(i), frame.getDownQueue(i));
+		ticks = frame.getTick();
+		timeLabel.setText("Time: " + ticks + " ticks");
+		drawn = frame;
+	}
+
+	/**
+	 * Reports an exception that stopped the simulation, stops drawing, and
+	 * turns off the controls that would step it.
+	 *
+	 * @param error the exception
+	 */
+	private void showError(RuntimeException error) {
+		painter.stop();
+		stateText.setText("State: FAILED");
+		runButton.setDisable(true);
+		stepButton.setDisable(true);
+		Alert alert = new Alert(Alert.AlertType.ERROR);
+		alert.setHeaderText("The simulation stopped at " + ticks + " ticks");
+		alert.setContentText(error.toString());
+		alert.show();
+	}
+
+	/**
+	 * Stops the simulation thread when the window closes.
+	 *
+	 * @throws Exception the exception
+	 */
+	@Override
+	public void stop() throws Exception {
+		if (painter != null) painter.stop();
+		if (runner != null) runner.stop();
+	}
+
 	/**
 	 * Start.
 	 *
@@ -140,26 +200,33 @@ public class ElevatorSimulation extends Application {
 		stepButton = new Button("Step:  ");
 		stepField = new TextField("1");
 		stepField.setPrefWidth(40);
+		speedBox = new ComboBox<Integer>();
+		speedBox.getItems().addAll(SPEEDS);
+		if (!speedBox.getItems().contains(speed)) speedBox.getItems().add(speed);
+		speedBox.setValue(speed);
+		speedBox.setOnAction(e -> runner.setSpeed(speedBox.getValue()));
+		Label speedLabel = new Label("x");
 		timeLabel = new Label("TIME: " + ticks + " ticks");
 		timeLabel.setScaleX(1.5);
 		timeLabel.setScaleY(1.5);
 		runButton.setOnAction(e -> {
-			if (t.getStatus() == Animation.Status.RUNNING) pauseSim();
+			if (runner.isPlaying()) pauseSim();
 			else startSim();
 		});
 		logButton.setOnAction(e -> {
 			if (!logging) {
-				controller.enableLogging();
+				runner.execute(() -> controller.enableLogging());
 				logging = true;
 			} else {
-				controller.disableLogging();
+				runner.execute(() -> controller.disableLogging());
 				logging = false;
 			}
 		});
 		stepButton.setOnAction(e -> executeSteps(Integer.parseInt(stepField.getText())));
-		HBox topBar = new HBox(runButton, stepButton, stepField, logButton, timeLabel);
+		HBox topBar = new HBox(runButton, stepButton, stepField, speedBox, speedLabel, logButton, timeLabel);
 		topBar.setMargin(runButton, new Insets(0, 20, 0, 0));
 		topBar.setMargin(stepField, new Insets(0, 20, 0, 0));
+		topBar.setMargin(speedLabel, new Insets(3, 20, 0, 2));
 		topBar.setMargin(logButton, new Insets(0, 20, 0, 0));
 		topBar.setMargin(timeLabel, new Insets(3, 20, 0, 20));
 		pane.setTop(topBar);
@@ -338,32 +405,31 @@ public class ElevatorSimulation extends Application {
 	}
 
 	/**
-	 * Starts the timeline
+	 * Plays the simulation
 	 */
 	private void startSim() {
-		t.setCycleCount(Animation.INDEFINITE);
-		t.play();
+		runner.play();
 	}
 
 	/**
-	 * Pauses the timeline
+	 * Pauses the simulation
 	 */
 	public void pauseSim() {
-		t.pause();
+		runner.pause();
 	}
 
 	/**
-	 * Runs the timeline for steps amount
+	 * Runs the simulation for steps amount
 	 * @param steps
 	 */
 	private void executeSteps(int steps) {
-		t.stop();
-		t.setCycleCount(steps);
-		t.play();
+		runner.step(steps);
 	}
 
 	/**
-	 * The main method. Allows command line to modulate the speed of the simulation.
+	 * The main method. Allows command line to modulate the speed of the simulation:
+	 * -m sets the millis per tick at 1x, and -speed the multiplier to start at,
+	 * from 1 to 10000.
 	 *
 	 * @param args the arguments
 	 */
@@ -376,6 +442,14 @@ public class ElevatorSimulation extends Application {
 					} catch (NumberFormatException e) {
 						System.out.println("Unable to update millisPerTick to "+args[i+1]);
 					}
+				} else if ("-speed".equals(args[i])) {
+					try {
+						int s = Integer.parseInt(args[i+1]);
+						if (s < SimRunner.MIN_SPEED || s > SimRunner.MAX_SPEED) throw new NumberFormatException();
+						ElevatorSimulation.speed = s;
+					} catch (NumberFormatException e) {
+						System.out.println("Unable to update speed to "+args[i+1]);
+					}
 				}
 			}
 		}
@@ -0,0 +1,507 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import building.BankLayout;
+import building.DispatchStrategy;
+import building.Dispatcher;
+import building.SimConfig;
+import myfileio.MyFileIO;
+import passengers.PassengerStats;
+import passengers.Trace;
+import passengers.TrafficSpec;
+
+/**
+ * The Class ElevatorSweep. Runs one headless simulation for every combination of
+ * a grid of elevator configurations and passenger files, in parallel across the
+ * available cores, and writes one table with a row of results per simulation.
+ * Each simulation has its own controller, building and passenger store, is built
+ * from a SimConfig rather than a shared configuration file, and runs with logging
+ * off and without writing its passenger data file, so the runs share nothing.
+ */
+public class ElevatorSweep {
+
+	/**  The default base configuration file - supplies the values that are not swept. */
+	private static final String SIM_CONFIG = "ElevatorSimConfig.csv";
+
+	/**  The default results file. */
+	private static final String RESULTS = "SweepResults.csv";
+
+	/** The header of the results table. */
+	private static final String HEADER = "passCSV,numFloors,numElevators,capacity,floorTicks,doorTicks,passPerTick,strategy,dispatcher,banks,traffic," +
+	                                     "ticks,groups,passengers,gaveUpGroups,gaveUpPassengers," +
+	                                     "meanWaitToBoard,p50WaitToBoard,p95WaitToBoard,maxWaitToBoard," +
+	                                     "meanTotalTime,p50TotalTime,p95TotalTime,maxTotalTime,floorsTravelled,stops,millis,error";
+
+	/**
+	 * The Class Result. The results of one simulation of the sweep.
+	 */
+	public static class Result {
+
+		/** The config. */
+		private final SimConfig config;
+
+		/** The number of ticks simulated. */
+		private final int ticks;
+
+		/** The passenger stats. */
+		private final PassengerStats stats;
+
+		/** The number of floors travelled by all of the elevators. */
+		private final int floorsTravelled;
+
+		/** The number of times any elevator opened its doors. */
+		private final int numStops;
+
+		/** The time taken by the run, in milliseconds. */
+		private final double millis;
+
+		/** Why the run failed, or null if it completed. */
+		private final String error;
+
+		/**
+		 * Instantiates a new result.
+		 *
+		 * @param config the config
+		 * @param ticks the ticks
+		 * @param stats the stats
+		 * @param floorsTravelled the floors travelled
+		 * @param numStops the number of stops
+		 * @param millis the millis
+		 * @param error why the run failed, or null if it completed
+		 */
+		Result(SimConfig config, int ticks, PassengerStats stats, int floorsTravelled, int numStops, double millis,
+			   String error) {
+			this.config = config;
+			this.ticks = ticks;
+			this.stats = stats;
+			this.floorsTravelled = floorsTravelled;
+			this.numStops = numStops;
+			this.millis = millis;
+			this.error = error;
+		}
+
+		/**
+		 * Gets the config.
+		 *
+		 * @return the config
+		 */
+		public SimConfig getConfig() {
+			return config;
+		}
+
+		/**
+		 * Gets the number of ticks simulated.
+		 *
+		 * @return the ticks
+		 */
+		public int getTicks() {
+			return ticks;
+		}
+
+		/**
+		 * Gets the passenger stats.
+		 *
+		 * @return the stats, or null if the run failed
+		 */
+		public PassengerStats getStats() {
+			return stats;
+		}
+
+		/**
+		 * Gets the number of floors travelled by all of the elevators.
+		 *
+		 * @return the floors travelled
+		 */
+		public int getFloorsTravelled() {
+			return floorsTravelled;
+		}
+
+		/**
+		 * Gets the number of times any elevator opened its doors.
+		 *
+		 * @return the number of stops
+		 */
+		public int getNumStops() {
+			return numStops;
+		}
+
+		/**
+		 * Gets why the run failed.
+		 *
+		 * @return the error, or null if the run completed
+		 */
+		public String getError() {
+			return error;
+		}
+
+		/**
+		 * Formats the result as a row of the results table.
+		 *
+		 * @return the row
+		 */
+		String toRow() {
+			if (stats == null)
+				return String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%d,%d,%s,%s,%s,%s,%d,,,,,,,,,,,,,%d,%d,%.1f,%s",
+						config.getPassCSV(), config.getNumFloors(), config.getNumElevators(), config.getCapacity(),
+						config.getFloorTicks(), config.getDoorTicks(), config.getPassPerTick(), config.getStrategy(),
+						config.getDispatcher(), config.getBanks(), config.getTraffic(), ticks, floorsTravelled, numStops, millis, error.replace(',', ';'));
+			return String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%d,%d,%s,%s,%s,%s,%d,%d,%d,%d,%d,%.2f,%d,%d,%d,%.2f,%d,%d,%d,%d,%d,%.1f,",
+					config.getPassCSV(), config.getNumFloors(), config.getNumElevators(), config.getCapacity(),
+					config.getFloorTicks(), config.getDoorTicks(), config.getPassPerTick(), config.getStrategy(), config.getDispatcher(),
+					config.getBanks(), config.getTraffic(), ticks,
+					stats.getNumGroups(), stats.getNumPassengers(), stats.getNumGaveUp(), stats.getNumPassGaveUp(),
+					stats.getMeanWaitToBoard(), stats.getWaitToBoardPercentile(50), stats.getWaitToBoardPercentile(95),
+					stats.getWaitToBoardPercentile(100), stats.getMeanTotalTime(), stats.getTotalTimePercentile(50),
+					stats.getTotalTimePercentile(95), stats.getTotalTimePercentile(100), floorsTravelled, numStops, millis);
+		}
+	}
+
+	/** The configurations to run. */
+	private final List<SimConfig> configs;
+
+	/** The number of simulations to run at the same time. */
+	private final int threads;
+
+	/**
+	 * Instantiates a new sweep over the given configurations.
+	 *
+	 * @param configs the configurations to run
+	 * @param threads the number of simulations to run at the same time
+	 */
+	public ElevatorSweep(List<SimConfig> configs, int threads) {
+		this.configs = configs;
+		this.threads = threads;
+	}
+
+	/**
+	 * Builds every combination of the swept values, with every elevator serving
+	 * every floor.
+	 *
+	 * @param numFloors the num floors
+	 * @param passCSVs the passenger files
+	 * @param numElevators the numbers of elevators
+	 * @param capacities the capacities
+	 * @param floorTicks the floor ticks
+	 * @param doorTicks the door ticks
+	 * @param passPerTicks the passengers per tick
+	 * @param strategies the names of the dispatch strategies
+	 * @param dispatchers the names of the dispatchers
+	 * @return the configurations
+	 */
+	public static List<SimConfig> grid(int numFloors, String[] passCSVs, int[] numElevators, int[] capacities,
+			                           int[] floorTicks, int[] doorTicks, int[] passPerTicks, String[] strategies,
+			                           String[] dispatchers) {
+		return grid(numFloors, passCSVs, new String[] {""}, numElevators, capacities, floorTicks, doorTicks, passPerTicks,
+				    strategies, dispatchers);
+	}
+
+	/**
+	 * Builds every combination of the swept values. The passenger file varies
+	 * slowest and the dispatcher fastest, which is the order of the results table.
+	 * A bank layout fixes the number of elevators, so the numbers of elevators
+	 * are only combined with the empty layout, in which every elevator serves
+	 * every floor.
+	 *
+	 * @param numFloors the num floors
+	 * @param passCSVs the passenger files
+	 * @param banks the bank layouts
+	 * @param numElevators the numbers of elevators
+	 * @param capacities the capacities
+	 * @param floorTicks the floor ticks
+	 * @param doorTicks the door ticks
+	 * @param passPerTicks the passengers per tick
+	 * @param strategies the names of the dispatch strategies
+	 * @param dispatchers the names of the dispatchers
+	 * @return the configurations
+	 */
+	public static List<SimConfig> grid(int numFloors, String[] passCSVs, String[] banks, int[] numElevators,
+			                           int[] capacities, int[] floorTicks, int[] doorTicks, int[] passPerTicks,
+			                           String[] strategies, String[] dispatchers) {
+		List<SimConfig> configs = new ArrayList<SimConfig>();
+		for (String passCSV : passCSVs)
+			for (String layout : banks)
+				for (int cars : layout.isEmpty() ? numElevators : new int[] {new BankLayout(layout, numFloors).getNumCars()})
+					for (int capacity : capacities)
+						for (int floor : floorTicks)
+							for (int door : doorTicks)
+								for (int pass : passPerTicks)
+									for (String strategy : strategies)
+										for (String dispatcher : dispatchers)
+											configs.add(new SimConfig(numFloors, cars, capacity, floor, door, pass, passCSV,
+													                  strategy, dispatcher, layout));
+		return configs;
+	}
+
+	/**
+	 * Runs one simulation to completion, reading its passenger file, or
+	 * generating its synthetic traffic.
+	 *
+	 * @param config the config
+	 * @return the result
+	 */
+	public static Result runOne(SimConfig config) {
+		return runOne(config, (config.getTrafficSpec() == null) ? Trace.open(config.getPassCSV()) : null);
+	}
+
+	/**
+	 * Runs one simulation to completion, jumping over the idle ticks. A simulation
+	 * that fails - for example when more groups are waiting on a floor than its
+	 * queue holds, or when its log cannot be written - is reported in its result
+	 * rather than stopping the sweep.
+	 *
+	 * @param config the config
+	 * @param trace the passenger trace to replay - the passenger file of the config is not read - or null
+	 *        to generate the synthetic traffic of the config
+	 * @return the result
+	 */
+	public static Result runOne(SimConfig config, Trace trace) {
+		long start = System.nanoTime();
+		ElevatorSimController controller = new ElevatorSimController(config, trace);
+		controller.setSavePassengerData(false);
+		return finish(controller, config, start);
+	}
+
+	/**
+	 * Runs a simulation from its current tick to completion, jumping over the
+	 * idle ticks, and collects its result.
+	 *
+	 * @param controller the controller, with passenger data saving off
+	 * @param config the config
+	 * @param start the System.nanoTime() that the run started at
+	 * @return the result
+	 */
+	private static Result finish(ElevatorSimController controller, SimConfig config, long start) {
+		try {
+			while (!controller.isEndSim())
+				controller.stepSimToNextEvent();
+			controller.closeLogs();
+		} catch (RuntimeException e) {
+			try {
+				controller.closeLogs();
+			} catch (RuntimeException logError) {
+				e.addSuppressed(logError);
+			}
+			return new Result(config, controller.getStepCnt(), null, controller.getBuilding().getFloorsTravelled(),
+					          controller.getBuilding().getNumStops(), (System.nanoTime() - start) / 1e6, e.toString());
+		}
+		PassengerStats stats = new PassengerStats(controller.getBuilding().getPassengerStore());
+		return new Result(config, controller.getStepCnt(), stats, controller.getBuilding().getFloorsTravelled(),
+				          controller.getBuilding().getNumStops(), (System.nanoTime() - start) / 1e6, null);
+	}
+
+	/**
+	 * Runs every configuration, at most threads at a time. Each passenger file
+	 * is read once, and its trace is shared by every run of that file. Synthetic
+	 * traffic is generated by each run as it goes, and is not held in memory.
+	 *
+	 * @return the results, in the order of the configurations
+	 * @throws InterruptedException if interrupted while waiting for the runs
+	 * @throws ExecutionException if a run failed
+	 */
+	public List<Result> run() throws InterruptedException, ExecutionException {
+		Map<String, Trace> traces = new HashMap<String, Trace>();
+		List<Callable<Result>> tasks = new ArrayList<Callable<Result>>();
+		for (SimConfig config : configs) {
+			Trace trace = (config.getTrafficSpec() == null) ? traces.computeIfAbsent(config.getPassCSV(), Trace::open) : null;
+			tasks.add(() -> runOne(config, trace));
+		}
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			return runAll(pool, tasks);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Forks a running simulation once per dispatcher, and runs the branches to
+	 * completion in parallel, at most threads at a time. The branches start from
+	 * the state of the simulation at its current tick and differ only in how new
+	 * calls are dispatched, so their results compare the dispatchers on the same
+	 * passengers. The simulation itself is not stepped.
+	 *
+	 * @param base the simulation to branch from
+	 * @param dispatchers the dispatcher for each branch
+	 * @param threads the number of branches to run at the same time
+	 * @return the results, in the order of the dispatchers
+	 * @throws InterruptedException if interrupted while waiting for the runs
+	 * @throws ExecutionException if a run failed
+	 */
+	static List<Result> runBranches(ElevatorSimController base, List<Dispatcher> dispatchers, int threads)
+			throws InterruptedException, ExecutionException {
+		List<Callable<Result>> tasks = new ArrayList<Callable<Result>>();
+		for (Dispatcher dispatcher : dispatchers) {
+			ElevatorSimController branch = base.fork();
+			branch.setDispatcher(dispatcher);
+			tasks.add(() -> finish(branch, branch.getConfig(), System.nanoTime()));
+		}
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			return runAll(pool, tasks);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Runs the tasks on the pool, and waits for all of them.
+	 *
+	 * @param pool the pool
+	 * @param tasks the tasks
+	 * @return the results, in the order of the tasks
+	 * @throws InterruptedException if interrupted while waiting for the runs
+	 * @throws ExecutionException if a run failed
+	 */
+	static List<Result> runAll(ForkJoinPool pool, List<Callable<Result>> tasks) throws InterruptedException, ExecutionException {
+		List<Result> results = new ArrayList<Result>();
+		for (Future<Result> f : pool.invokeAll(tasks))
+			results.add(f.get());
+		return results;
+	}
+
+	/**
+	 * Writes the results table.
+	 *
+	 * @param filename the filename
+	 * @param results the results
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static void writeResults(String filename, List<Result> results) throws IOException {
+		MyFileIO fio = new MyFileIO();
+		BufferedWriter out = fio.openBufferedWriter(fio.getFileHandle(filename));
+		out.write(HEADER+"\n");
+		for (Result r : results)
+			out.write(r.toRow()+"\n");
+		fio.closeFile(out);
+	}
+
+	/**
+	 * Parses a comma separated list of ints.
+	 *
+	 * @param list the list
+	 * @return the ints
+	 */
+	private static int[] parseInts(String list) {
+		String[] values = list.split(",");
+		int[] ints = new int[values.length];
+		for (int i = 0; i < values.length; i++)
+			ints[i] = Integer.parseInt(values[i].trim());
+		return ints;
+	}
+
+	/**
+	 * The main method. Each swept option takes a comma separated list of values;
+	 * an option that is not given keeps the value from the base configuration.
+	 *    -c configFile           the base configuration file (default ElevatorSimConfig.csv)
+	 *    -passCSV a.csv,b.csv    the passenger files
+	 *    -banks none,2:1-20;2:1+20-40  the bank layouts - none for every elevator serving every floor
+	 *    -traffic none,uppeak;rate=0.1  the synthetic traffic - none for the passenger files
+	 *    -numElevators 1,2       the numbers of elevators
+	 *    -capacity 10,15         the capacities
+	 *    -floorTicks 3,5         the ticks to move one floor
+	 *    -doorTicks 2            the ticks to open or close the doors
+	 *    -passPerTick 3          the passengers that board or leave per tick
+	 *    -strategy look,scan     the dispatch strategies
+	 *    -dispatcher nearest,eta the dispatchers
+	 *    -threads n              the simulations to run at once (default the number of cores)
+	 *    -o results.csv          the results file (default SweepResults.csv)
+	 *
+	 * @param args the arguments
+	 */
+	public static void main(String[] args) {
+		String configFile = SIM_CONFIG;
+		String results = RESULTS;
+		String passCSVs = null;
+		String numElevators = null;
+		String capacities = null;
+		String floorTicks = null;
+		String doorTicks = null;
+		String passPerTicks = null;
+		String strategies = null;
+		String dispatchers = null;
+		String banks = null;
+		String traffic = null;
+		int threads = Runtime.getRuntime().availableProcessors();
+		for (int i = 0; i < args.length; i++) {
+			boolean hasValue = i < args.length-1;
+			if ("-c".equals(args[i]) && hasValue) {
+				configFile = args[++i];
+			} else if ("-passCSV".equals(args[i]) && hasValue) {
+				passCSVs = args[++i];
+			} else if ("-banks".equals(args[i]) && hasValue) {
+				banks = args[++i];
+			} else if ("-traffic".equals(args[i]) && hasValue) {
+				traffic = args[++i];
+			} else if ("-numElevators".equals(args[i]) && hasValue) {
+				numElevators = args[++i];
+			} else if ("-capacity".equals(args[i]) && hasValue) {
+				capacities = args[++i];
+			} else if ("-floorTicks".equals(args[i]) && hasValue) {
+				floorTicks = args[++i];
+			} else if ("-doorTicks".equals(args[i]) && hasValue) {
+				doorTicks = args[++i];
+			} else if ("-passPerTick".equals(args[i]) && hasValue) {
+				passPerTicks = args[++i];
+			} else if ("-strategy".equals(args[i]) && hasValue) {
+				strategies = args[++i];
+			} else if ("-dispatcher".equals(args[i]) && hasValue) {
+				dispatchers = args[++i];
+			} else if ("-threads".equals(args[i]) && hasValue) {
+				threads = Integer.parseInt(args[++i]);
+			} else if ("-o".equals(args[i]) && hasValue) {
+				results = args[++i];
+			} else {
+				System.out.println("Ignoring unknown option "+args[i]);
+			}
+		}
+		SimConfig base = SimConfig.read(configFile);
+		String[] strategyNames = (strategies == null) ? new String[] {base.getStrategy()} : strategies.split(",");
+		String[] dispatcherNames = (dispatchers == null) ? new String[] {base.getDispatcher()} : dispatchers.split(",");
+		String[] layouts = (banks == null) ? new String[] {base.getBanks()} : banks.replace("none", "").split(",", -1);
+		String[] specs = (traffic == null) ? new String[] {base.getTraffic()} : traffic.replace("none", "").split(",", -1);
+		try {
+			for (String strategy : strategyNames)
+				DispatchStrategy.forName(strategy);
+			for (String dispatcher : dispatcherNames)
+				Dispatcher.forName(dispatcher, null);
+			for (String layout : layouts)
+				if (!layout.isEmpty()) new BankLayout(layout, base.getNumFloors());
+			for (String spec : specs)
+				if (!spec.isEmpty()) new TrafficSpec(spec);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			return;
+		}
+		List<SimConfig> grid = grid(base.getNumFloors(),
+				(passCSVs == null) ? new String[] {base.getPassCSV()} : passCSVs.split(","), layouts,
+				(numElevators == null) ? new int[] {base.getNumElevators()} : parseInts(numElevators),
+				(capacities == null) ? new int[] {base.getCapacity()} : parseInts(capacities),
+				(floorTicks == null) ? new int[] {base.getFloorTicks()} : parseInts(floorTicks),
+				(doorTicks == null) ? new int[] {base.getDoorTicks()} : parseInts(doorTicks),
+				(passPerTicks == null) ? new int[] {base.getPassPerTick()} : parseInts(passPerTicks),
+				strategyNames, dispatcherNames);
+		List<SimConfig> configs = new ArrayList<SimConfig>();
+		for (String spec : specs)
+			for (SimConfig config : grid)
+				configs.add(config.withTraffic(spec));
+		long start = System.nanoTime();
+		try {
+			List<Result> r = new ElevatorSweep(configs, threads).run();
+			writeResults(results, r);
+		} catch (InterruptedException | ExecutionException | IOException e) {
+			e.printStackTrace();
+			return;
+		}
+		System.out.printf("Ran %d simulations on %d threads in %.1f ms - results in %s%n",
+				          configs.size(), threads, (System.nanoTime() - start) / 1e6, results);
+	}
+}
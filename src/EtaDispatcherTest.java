@@ -0,0 +1,30 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import building.SimConfig;
+import passengers.PassengerTrace;
+
+/**
+ * Checks that the ETA dispatcher delivers every passenger, and that on a busy
+ * multi-car run it gets passengers on board sooner than the nearest-car dispatcher.
+ */
+class EtaDispatcherTest {
+	private static final String TEST = "FullElevatorTest.csv";
+
+	@Test
+	void testEtaReducesWaitUnderLoad() {
+		PassengerTrace trace = new PassengerTrace(TEST);
+		for (int cars = 2; cars <= 4; cars++) {
+			SimConfig config = new SimConfig(6, cars, 15, 5, 2, 3, TEST);
+			ElevatorSweep.Result nearest = ElevatorSweep.runOne(config, trace);
+			ElevatorSweep.Result eta = ElevatorSweep.runOne(config.withDispatcher("eta"), trace);
+			assertNull(eta.getError());
+			assertEquals(trace.size(), eta.getStats().getNumGroups() + eta.getStats().getNumGaveUp());
+			assertTrue(eta.getStats().getMeanWaitToBoard() < nearest.getStats().getMeanWaitToBoard(),
+					   "ETA waited longer than nearest car with "+cars+" cars");
+		}
+	}
+}
@@ -0,0 +1,118 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import building.SimConfig;
+import eventlog.BinaryEventReader;
+import eventlog.BinaryEventSink;
+import eventlog.EventLog;
+import eventlog.EventSink;
+import eventlog.TextEventSink;
+
+/**
+ * Checks that a binary event log converted back to text is exactly the text
+ * log, that a damaged binary log is rejected, that an open log cannot be
+ * replaced, and that a sink that fails is reported when the logs are closed
+ * rather than hanging or being ignored.
+ */
+class EventLogTest {
+	private static final String TEST = "FullElevatorTest.csv";
+
+	private byte[] binaryLog(SimConfig config) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ElevatorSimController c = new ElevatorSimController(null, config, false);
+		c.setSavePassengerData(false);
+		try {
+			c.getContext().setEventSink(new BinaryEventSink(bytes), true);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		c.enableLogging();
+		while (!c.isEndSim()) c.stepSim();
+		c.closeLogs();
+		return bytes.toByteArray();
+	}
+
+	private String toText(byte[] binary) throws IOException {
+		StringWriter text = new StringWriter();
+		new BinaryEventReader(new ByteArrayInputStream(binary)).replay(new TextEventSink(text));
+		return text.toString();
+	}
+
+	@Test
+	void testSameAsText() throws IOException {
+		for (int cars : new int[] {1, 3}) {
+			SimConfig config = new SimConfig(6, cars, 10, 4, 2, 2, TEST);
+			String expected = SimTestSupport.finishLogged(new ElevatorSimController(null, config, false));
+			byte[] binary = binaryLog(config);
+			assertEquals(expected, toText(binary), "Binary log of "+cars+" cars differs");
+			if (cars == 1) {
+				byte[] version1 = binary.clone();
+				version1[7] = 1;	// the last byte of the big-endian version - a log from before TRANSFER events
+				assertEquals(expected, toText(version1), "Version 1 log differs");
+			}
+		}
+	}
+
+	@Test
+	void testRejected() {
+		byte[] binary = binaryLog(new SimConfig(6, 1, 10, 4, 2, 2, TEST));
+		assertThrows(IOException.class, () -> toText(Arrays.copyOf(binary, binary.length - 1)));
+		byte[] future = binary.clone();
+		future[7] = (byte) (BinaryEventSink.VERSION + 1);
+		assertThrows(IOException.class, () -> toText(future));
+		byte[] notALog = binary.clone();
+		notALog[0] = 0;
+		assertThrows(IOException.class, () -> toText(notALog));
+	}
+
+	@Test
+	void testSinkSetOnce() {
+		ElevatorSimController c = new ElevatorSimController(null, new SimConfig(6, 1, 10, 4, 2, 2, TEST), false);
+		StringWriter first = new StringWriter();
+		SimTestSupport.logTo(c, first);
+		assertThrows(IllegalStateException.class, () -> c.getContext().setEventSink(new TextEventSink(new StringWriter()), false));
+		while (!c.isEndSim()) c.stepSim();
+		c.closeLogs();
+		assertEquals(SimTestSupport.runLogged(new SimConfig(6, 1, 10, 4, 2, 2, TEST)), first.toString());
+	}
+
+	@Test
+	void testFailingSink() {
+		EventSink failing = new EventSink() {
+			@Override
+			public void write(int[] e, int i) {
+				throw new IllegalStateException("disk on fire");
+			}
+			@Override
+			public void flush() {
+			}
+			@Override
+			public void close() {
+			}
+		};
+		EventLog log = new EventLog(failing, 16);
+		log.start();
+		for (int time = 0; time < 1000; time++) log.call(time, 1, 0, 1, time);
+		log.flush();
+		log.close();
+		assertNotNull(log.getError());
+		assertEquals(IllegalStateException.class, log.getError().getCause().getClass());
+
+		ElevatorSimController c = new ElevatorSimController(null, new SimConfig(6, 1, 10, 4, 2, 2, TEST), false);
+		c.setSavePassengerData(false);
+		c.getContext().setEventSink(failing, true);
+		c.enableLogging();
+		while (c.getStepCnt() < 500) c.stepSim();
+		assertThrows(UncheckedIOException.class, () -> c.closeLogs());
+	}
+}
@@ -0,0 +1,74 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import building.Dispatcher;
+import building.NearestCarDispatcher;
+import building.SimConfig;
+import passengers.PassengerStats;
+import passengers.PassengerTrace;
+
+/**
+ * Checks that a fork of a simulation carries on exactly as the simulation it
+ * was forked from, and that what either of them does after the fork does not
+ * change the other.
+ */
+class ForkTest {
+	private static final String TEST = "FullElevatorTest.csv";
+
+	private void checkFork(SimConfig config) {
+		PassengerTrace trace = new PassengerTrace(TEST);
+		Dispatcher firstCar = (elevators, floor, dir) -> 0;
+		for (int tick : SimTestSupport.TICKS) {
+			String expected = SimTestSupport.finishLogged(SimTestSupport.runTo(new ElevatorSimController(null, config, false), tick));
+
+			ElevatorSimController c = SimTestSupport.runTo(new ElevatorSimController(null, config, false), tick);
+			ElevatorSimController fork = c.fork();
+			ElevatorSimController diverged = c.fork();
+			diverged.setDispatcher(firstCar);
+			while (!diverged.isEndSim()) diverged.stepSim();
+			assertEquals(tick, fork.getStepCnt());
+			assertEquals(expected, SimTestSupport.finishLogged(fork), "Log of the fork at tick "+tick+" differs");
+			assertEquals(expected, SimTestSupport.finishLogged(c), "Log after forking at tick "+tick+" differs");
+
+			ElevatorSimController replayed = SimTestSupport.runTo(new ElevatorSimController(config, trace), tick).fork();
+			assertEquals(expected, SimTestSupport.finishLogged(replayed), "Log of the fork of a trace at tick "+tick+" differs");
+		}
+	}
+
+	@Test
+	void testSingleCarFork() {
+		checkFork(new SimConfig(6, 1, 15, 5, 2, 3, TEST));
+	}
+
+	@Test
+	void testMultiCarFork() {
+		checkFork(new SimConfig(6, 3, 10, 4, 2, 2, TEST));
+	}
+
+	@Test
+	void testBranchesMatchSeparateRuns() throws Exception {
+		SimConfig config = new SimConfig(6, 3, 10, 4, 2, 2, TEST);
+		PassengerTrace trace = new PassengerTrace(TEST);
+		ElevatorSimController base = SimTestSupport.runTo(new ElevatorSimController(config, trace), 2000);
+		List<Dispatcher> dispatchers = Arrays.asList(new NearestCarDispatcher(), (elevators, floor, dir) -> 0);
+		List<ElevatorSweep.Result> results = ElevatorSweep.runBranches(base, dispatchers, 2);
+		assertEquals(2000, base.getStepCnt());
+		for (int i = 0; i < dispatchers.size(); i++) {
+			ElevatorSimController single = SimTestSupport.runTo(new ElevatorSimController(config, trace), 2000);
+			single.setDispatcher(dispatchers.get(i));
+			while (!single.isEndSim()) single.stepSimToNextEvent();
+			ElevatorSweep.Result r = results.get(i);
+			assertNull(r.getError());
+			assertEquals(single.getStepCnt(), r.getTicks(), "Branch "+i+" ran for a different time");
+			PassengerStats expected = new PassengerStats(single.getBuilding().getPassengerStore());
+			assertEquals(expected.getNumGaveUp(), r.getStats().getNumGaveUp(), "Branch "+i+" gave up differently");
+			assertEquals(expected.getMeanWaitToBoard(), r.getStats().getMeanWaitToBoard(), "Branch "+i+" waited differently");
+			assertEquals(expected.getMeanTotalTime(), r.getStats().getMeanTotalTime(), "Branch "+i+" took a different time");
+		}
+	}
+}
@@ -0,0 +1,85 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+import genericqueue.GenericQueue;
+
+/**
+ * Checks the ring buffer behind GenericQueue - first in, first out as the
+ * head wraps round the end of the array, refusing elements when full, the
+ * empty queue, and iterating over a queue that has wrapped.
+ */
+class GenericQueueTest {
+	private static final int SIZE = 4;
+
+	/** Makes a full queue whose head has wrapped round to the second slot of the array. */
+	private GenericQueue<Integer> wrapped() {
+		GenericQueue<Integer> q = new GenericQueue<Integer>(SIZE);
+		for (int i = 0; i < SIZE; i++) q.add(-1);
+		for (int i = 0; i < SIZE + 1; i++) {
+			q.poll();
+			q.add(i);
+		}
+		return q;
+	}
+
+	@Test
+	void testFifoAcrossWrap() {
+		GenericQueue<Integer> q = new GenericQueue<Integer>(SIZE);
+		int next = 0;
+		for (int i = 0; i < 5 * SIZE; i++) {
+			assertTrue(q.offer(i));
+			if (q.size() == SIZE - 1 || i % 3 == 0) {
+				assertEquals(next, q.peek());
+				assertEquals(next++, q.poll());
+			}
+		}
+		while (!q.isEmpty()) assertEquals(next++, q.remove());
+		assertEquals(5 * SIZE, next);
+	}
+
+	@Test
+	void testFull() {
+		GenericQueue<Integer> q = wrapped();
+		assertEquals(SIZE, q.size());
+		assertFalse(q.offer(99));
+		assertThrows(IllegalStateException.class, () -> q.add(99));
+		assertEquals(SIZE, q.size());
+		assertEquals(1, q.element());
+	}
+
+	@Test
+	void testEmpty() {
+		GenericQueue<Integer> q = wrapped();
+		while (!q.isEmpty()) q.poll();
+		assertEquals(0, q.size());
+		assertNull(q.peek());
+		assertNull(q.poll());
+		assertThrows(NoSuchElementException.class, () -> q.element());
+		assertThrows(NoSuchElementException.class, () -> q.remove());
+		assertEquals("queue: []", q.toString());
+	}
+
+	@Test
+	void testIteratorAfterWrap() {
+		GenericQueue<Integer> q = wrapped();
+		ListIterator<Integer> it = q.getListIterator();
+		for (int i = 1; i <= SIZE; i++) {
+			assertEquals(i - 1, it.nextIndex());
+			assertEquals(i, it.next());
+		}
+		assertFalse(it.hasNext());
+		assertThrows(NoSuchElementException.class, () -> it.next());
+		assertEquals(SIZE, it.previous());
+		assertThrows(UnsupportedOperationException.class, () -> it.remove());
+		assertEquals("queue: [1,2,3,4]", q.toString());
+		assertEquals(SIZE, q.size());
+	}
+}
@@ -0,0 +1,77 @@
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import myfileio.MyFileIO;
+import passengers.CsvPassengerSource;
+import passengers.PassengerStore;
+
+/**
+ * Checks that a simulation run with logging disabled does not allocate. The
+ * only allocation allowed while stepping is reading the passenger file, so
+ * the bytes allocated by the run are compared to the bytes allocated by
+ * reading the same file on its own.
+ */
+class LoggingAllocationTest {
+	private static final String CONFIG = "AllocTestConfig.csv";
+	private static final String TEST = "ElevatorTest";
+	/** Slack for the amortized growth of the ArrayLists and id lists used by the run. */
+	private static final long SLACK_BYTES = 2048;
+	private static boolean DEBUG = false;
+	private MyFileIO fio = new MyFileIO();
+	private com.sun.management.ThreadMXBean threads =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	private void writeSimConfigCSV(String fname) throws IOException {
+		BufferedWriter bw = fio.openBufferedWriter(fio.getFileHandle(CONFIG));
+		bw.write("numFloors,6\nnumElevators,1\npassCSV,"+fname+"\ncapacity,15\nfloorTicks,5\ndoorTicks,2\npassPerTick,3\n");
+		fio.closeFile(bw);
+	}
+
+	private long allocatedBytes() {
+		return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	@BeforeEach
+	void setUp() throws Exception {
+		writeSimConfigCSV(TEST+".csv");
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		fio.deleteFile(CONFIG);
+		new File(TEST+"PassData.csv").delete();
+	}
+
+	@Test
+	void testNoAllocationWithLoggingDisabled() {
+		// the first run finds the length of the simulation, and loads the classes
+		ElevatorSimController c = new ElevatorSimController(null, CONFIG, false);
+		while (!c.isEndSim()) c.stepSim();
+		int lastStep = c.getStepCnt();
+
+		// step up to, but not including, the last step - which writes the passenger data
+		c = new ElevatorSimController(null, CONFIG, false);
+		c.disableLogging();
+		long start = allocatedBytes();
+		while (c.getStepCnt() < lastStep - 1) c.stepSim();
+		long runBytes = allocatedBytes() - start;
+
+		CsvPassengerSource src = new CsvPassengerSource(TEST+".csv", new PassengerStore(), false);
+		start = allocatedBytes();
+		while (!src.isEmpty()) src.poll();
+		long readBytes = allocatedBytes() - start;
+		src.close();
+
+		if (DEBUG) System.out.println("Steps="+lastStep+" run="+runBytes+" bytes, reading passengers="+readBytes+" bytes");
+		assertTrue(runBytes - readBytes <= SLACK_BYTES,
+				   "Run allocated "+runBytes+" bytes, but reading the passengers only allocated "+readBytes+" bytes");
+	}
+}
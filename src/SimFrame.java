@@ -0,0 +1,175 @@
+/**
+ * The Class SimFrame. An immutable picture of the simulation at the end of one
+ * tick - what the GUI draws. The SimRunner publishes frames from the thread
+ * that steps the simulation, and the GUI draws the latest one on its own
+ * thread, so a frame holds copies rather than references into the building.
+ */
+public class SimFrame {
+
+	/** The tick. */
+	private final int tick;
+
+	/** Whether the simulation had ended. */
+	private final boolean endSim;
+
+	/** The state of each elevator. */
+	private final int[] state;
+
+	/** The floor of each elevator. */
+	private final int[] floor;
+
+	/** The direction of each elevator. */
+	private final int[] direction;
+
+	/** The number of passengers in each elevator. */
+	private final int[] passengers;
+
+	/** The queue string of the passengers going up on each floor. */
+	private final String[] upQueues;
+
+	/** The queue string of the passengers going down on each floor. */
+	private final String[] downQueues;
+
+	/** The version of the up queues of each floor. */
+	private final int[] upVersions;
+
+	/** The version of the down queues of each floor. */
+	private final int[] downVersions;
+
+	/**
+	 * Instantiates a new frame. The arrays are kept, not copied, so the caller
+	 * must not change them afterwards.
+	 *
+	 * @param tick the tick
+	 * @param endSim whether the simulation had ended
+	 * @param state the state of each elevator
+	 * @param floor the floor of each elevator
+	 * @param direction the direction of each elevator
+	 * @param passengers the number of passengers in each elevator
+	 * @param upQueues the queue string of the passengers going up on each floor
+	 * @param downQueues the queue string of the passengers going down on each floor
+	 * @param upVersions the version of the up queues of each floor
+	 * @param downVersions the version of the down queues of each floor
+	 */
+	SimFrame(int tick, boolean endSim, int[] state, int[] floor, int[] direction, int[] passengers,
+			 String[] upQueues, String[] downQueues, int[] upVersions, int[] downVersions) {
+		this.tick = tick;
+		this.endSim = endSim;
+		this.state = state;
+		this.floor = floor;
+		this.direction = direction;
+		this.passengers = passengers;
+		this.upQueues = upQueues;
+		this.downQueues = downQueues;
+		this.upVersions = upVersions;
+		this.downVersions = downVersions;
+	}
+
+	/**
+	 * Gets the tick.
+	 *
+	 * @return the tick
+	 */
+	public int getTick() {
+		return tick;
+	}
+
+	/**
+	 * Checks if the simulation had ended.
+	 *
+	 * @return true, if ended
+	 */
+	public boolean isEndSim() {
+		return endSim;
+	}
+
+	/**
+	 * Gets the number of elevators.
+	 *
+	 * @return the num elevators
+	 */
+	public int getNumElevators() {
+		return state.length;
+	}
+
+	/**
+	 * Gets the number of floors.
+	 *
+	 * @return the num floors
+	 */
+	public int getNumFloors() {
+		return upQueues.length;
+	}
+
+	/**
+	 * Gets the state of an elevator.
+	 *
+	 * @param car the index of the elevator
+	 * @return the state
+	 */
+	public int getState(int car) {
+		return state[car];
+	}
+
+	/**
+	 * Gets the floor of an elevator.
+	 *
+	 * @param car the index of the elevator
+	 * @return the floor
+	 */
+	public int getFloor(int car) {
+		return floor[car];
+	}
+
+	/**
+	 * Gets the direction of an elevator.
+	 *
+	 * @param car the index of the elevator
+	 * @return the direction
+	 */
+	public int getDirection(int car) {
+		return direction[car];
+	}
+
+	/**
+	 * Gets the number of passengers in an elevator.
+	 *
+	 * @param car the index of the elevator
+	 * @return the passengers
+	 */
+	public int getPassengers(int car) {
+		return passengers[car];
+	}
+
+	/**
+	 * Gets the queue string of the passengers going up on a floor.
+	 *
+	 * @param floor the floor
+	 * @return the queue string
+	 */
+	public String getUpQueue(int floor) {
+		return upQueues[floor];
+	}
+
+	/**
+	 * Gets the queue string of the passengers going down on a floor.
+	 *
+	 * @param floor the floor
+	 * @return the queue string
+	 */
+	public String getDownQueue(int floor) {
+		return downQueues[floor];
+	}
+
+	/**
+	 * Checks if the queues of a floor changed between another frame of the
+	 * same simulation and this one, so the GUI only draws the floors that did.
+	 *
+	 * @param other the other frame, or null to draw every floor
+	 * @param floor the floor
+	 * @return true, if the floor changed
+	 */
+	public boolean floorChanged(SimFrame other, int floor) {
+		return other == null || upVersions[floor] != other.upVersions[floor] || downVersions[floor] != other.downVersions[floor];
+	}
+}
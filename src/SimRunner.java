@@ -0,0 +1,248 @@
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The Class SimRunner. Steps a simulation on its own thread, so that the speed
+ * of the simulation is not bound to painting the GUI. At 1x a tick takes
+ * millisPerTick; at a speed of n it takes millisPerTick / n, and when the
+ * simulation cannot keep up it runs as fast as it can rather than falling
+ * further behind. After stepping, the runner publishes a SimFrame - at most
+ * FRAMES_PER_SECOND of them, however many ticks pass in between - and the GUI
+ * draws whichever frame is the latest when it next paints. Everything that
+ * touches the controller, such as turning logging on, is passed to execute()
+ * and run on the simulation thread between ticks. If a tick or a command
+ * throws, the runner stops playing, publishes the frame it stopped on, and
+ * keeps the exception for the GUI to report.
+ */
+public class SimRunner implements Runnable {
+
+	/** The slowest speed. */
+	public static final int MIN_SPEED = 1;
+
+	/** The fastest speed. */
+	public static final int MAX_SPEED = 10000;
+
+	/** The most frames published per second. */
+	public static final int FRAMES_PER_SECOND = 60;
+
+	/** The shortest time between published frames, in nanoseconds. */
+	private static final long FRAME_NANOS = 1_000_000_000L / FRAMES_PER_SECOND;
+
+	/** The controller, only touched on the simulation thread once started. */
+	private final ElevatorSimController controller;
+
+	/** The time of a tick at 1x, in nanoseconds. */
+	private final long nanosPerTick;
+
+	/** The latest frame published. */
+	private final AtomicReference<SimFrame> frame;
+
+	/** The commands waiting to run on the simulation thread. */
+	private final ConcurrentLinkedQueue<Runnable> commands = new ConcurrentLinkedQueue<Runnable>();
+
+	/** The speed multiplier. */
+	private volatile int speed = MIN_SPEED;
+
+	/** Whether the simulation is playing, rather than paused. */
+	private volatile boolean playing;
+
+	/** Whether the runner has been stopped for good. */
+	private volatile boolean stopped;
+
+	/** The exception that stopped the simulation, or null. */
+	private volatile RuntimeException error;
+
+	/** The ticks still to step while paused - only used on the simulation thread. */
+	private int stepsLeft;
+
+	/** The simulation thread. */
+	private Thread thread;
+
+	/**
+	 * Instantiates a new runner, paused, and publishes the frame of the current tick.
+	 *
+	 * @param controller the controller - not to be touched by anything else once the runner is started
+	 * @param millisPerTick the time of a tick at 1x
+	 */
+	public SimRunner(ElevatorSimController controller, int millisPerTick) {
+		this.controller = controller;
+		nanosPerTick = Math.max(1, millisPerTick) * 1_000_000L;
+		frame = new AtomicReference<SimFrame>(controller.getFrame());
+	}
+
+	/**
+	 * Starts the simulation thread. The thread is a daemon, so it does not keep
+	 * the application running once the GUI has closed.
+	 */
+	public void start() {
+		thread = new Thread(this, "Simulation");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops the simulation thread, and waits for it to finish the tick it is on.
+	 *
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void stop() throws InterruptedException {
+		stopped = true;
+		LockSupport.unpark(thread);
+		thread.join();
+	}
+
+	/**
+	 * Gets the latest frame published. Safe to call from any thread.
+	 *
+	 * @return the frame
+	 */
+	public SimFrame getFrame() {
+		return frame.get();
+	}
+
+	/**
+	 * Gets the exception thrown by a tick or a command, which stopped the
+	 * simulation thread. Safe to call from any thread.
+	 *
+	 * @return the exception, or null if the simulation has not failed
+	 */
+	public RuntimeException getError() {
+		return error;
+	}
+
+	/**
+	 * Gets the speed multiplier.
+	 *
+	 * @return the speed
+	 */
+	public int getSpeed() {
+		return speed;
+	}
+
+	/**
+	 * Sets the speed multiplier.
+	 *
+	 * @param speed the speed, from MIN_SPEED to MAX_SPEED
+	 * @throws IllegalArgumentException if the speed is out of range
+	 */
+	public void setSpeed(int speed) {
+		if (speed < MIN_SPEED || speed > MAX_SPEED)
+			throw new IllegalArgumentException("The speed must be from "+MIN_SPEED+" to "+MAX_SPEED+", not "+speed);
+		this.speed = speed;
+		LockSupport.unpark(thread);
+	}
+
+	/**
+	 * Checks if the simulation is playing.
+	 *
+	 * @return true, if playing
+	 */
+	public boolean isPlaying() {
+		return playing;
+	}
+
+	/**
+	 * Plays the simulation until it ends or is paused.
+	 */
+	public void play() {
+		execute(() -> stepsLeft = 0);
+		playing = true;
+		LockSupport.unpark(thread);
+	}
+
+	/**
+	 * Pauses the simulation at the end of the tick it is on.
+	 */
+	public void pause() {
+		playing = false;
+		execute(() -> stepsLeft = 0);
+	}
+
+	/**
+	 * Pauses the simulation, and then steps it the given number of ticks at the
+	 * current speed.
+	 *
+	 * @param steps the number of ticks
+	 */
+	public void step(int steps) {
+		playing = false;
+		execute(() -> stepsLeft = steps);
+	}
+
+	/**
+	 * Runs a command on the simulation thread, between ticks - the only safe
+	 * way to use the controller once the runner has started.
+	 *
+	 * @param command the command
+	 */
+	public void execute(Runnable command) {
+		commands.add(command);
+		LockSupport.unpark(thread);
+	}
+
+	/**
+	 * The simulation thread. Runs the simulation until the runner is stopped,
+	 * or until a tick or a command throws - then the thread stops playing,
+	 * publishes the frame of the tick it failed on, and ends.
+	 */
+	@Override
+	public void run() {
+		try {
+			runTicks();
+		} catch (RuntimeException e) {
+			playing = false;
+			try {
+				frame.set(controller.getFrame());
+			} catch (RuntimeException frameError) {
+				e.addSuppressed(frameError);
+			}
+			// set last, so a thread that sees the error also sees the final frame
+			error = e;
+		}
+	}
+
+	/**
+	 * Steps every tick that is due at the current speed, but no more than a
+	 * frame's worth of time at once, publishes a frame if one is due, and
+	 * sleeps until the next tick or frame, until the runner is stopped.
+	 */
+	private void runTicks() {
+		long nextTick = System.nanoTime();
+		long lastFrame = nextTick;
+		boolean changed = false;
+		while (!stopped) {
+			for (Runnable command = commands.poll(); command != null; command = commands.poll()) {
+				command.run();
+				changed = true;
+			}
+			long now = System.nanoTime();
+			if (controller.isEndSim() || (!playing && stepsLeft == 0)) {
+				if (controller.isEndSim()) playing = false;
+				if (changed) frame.set(controller.getFrame());
+				changed = false;
+				LockSupport.parkNanos(this, FRAME_NANOS);
+				nextTick = System.nanoTime();
+				continue;
+			}
+			long tickNanos = nanosPerTick / speed;
+			long batchStart = now;
+			while (nextTick - now <= 0 && now - batchStart < FRAME_NANOS && !controller.isEndSim() && (playing || stepsLeft > 0)) {
+				controller.stepSim();
+				if (!playing && stepsLeft > 0) stepsLeft--;
+				nextTick += tickNanos;
+				changed = true;
+				now = System.nanoTime();
+			}
+			if (now - nextTick > FRAME_NANOS) nextTick = now;
+			if (changed && (now - lastFrame >= FRAME_NANOS || controller.isEndSim() || (!playing && stepsLeft == 0))) {
+				frame.set(controller.getFrame());
+				lastFrame = now;
+				changed = false;
+			}
+			long wait = nextTick - now;
+			if (changed) wait = Math.min(wait, lastFrame + FRAME_NANOS - now);
+			if (wait > 0) LockSupport.parkNanos(this, wait);
+		}
+	}
+}
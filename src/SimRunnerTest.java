@@ -0,0 +1,120 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+import building.SimConfig;
+
+/**
+ * Checks that a simulation stepped by a SimRunner on its own thread logs
+ * exactly what stepping it directly does, that its frames follow it, that a
+ * tick that throws stops it with the frame it failed on, and that a floor
+ * whose version has not changed keeps the same queue strings.
+ */
+class SimRunnerTest {
+	private static final String TEST = "FullElevatorTest.csv";
+	private static final SimConfig CONFIG = new SimConfig(6, 2, 10, 4, 2, 2, TEST);
+
+	private SimFrame await(SimRunner runner, int tick) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 60000;
+		SimFrame frame = runner.getFrame();
+		while (!frame.isEndSim() && frame.getTick() < tick && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+			frame = runner.getFrame();
+		}
+		return frame;
+	}
+
+	@Test
+	void testSameLog() throws InterruptedException {
+		ElevatorSimController direct = new ElevatorSimController(null, CONFIG, false);
+		String expected = SimTestSupport.finishLogged(direct);
+
+		StringWriter log = new StringWriter();
+		ElevatorSimController c = SimTestSupport.logTo(new ElevatorSimController(null, CONFIG, false), log);
+		SimRunner runner = new SimRunner(c, 1);
+		assertEquals(0, runner.getFrame().getTick());
+		runner.setSpeed(SimRunner.MAX_SPEED);
+		runner.start();
+		runner.play();
+		SimFrame last = await(runner, Integer.MAX_VALUE);
+		runner.stop();
+		c.closeLogs();
+		assertTrue(last.isEndSim());
+		assertFalse(runner.isPlaying());
+		assertEquals(direct.getStepCnt(), last.getTick());
+		assertEquals(expected, log.toString());
+	}
+
+	@Test
+	void testStep() throws InterruptedException {
+		ElevatorSimController c = SimTestSupport.logTo(new ElevatorSimController(null, CONFIG, false), new StringWriter());
+		SimRunner runner = new SimRunner(c, 1);
+		runner.setSpeed(100);
+		runner.start();
+		runner.step(250);
+		assertEquals(250, await(runner, 250).getTick());
+		Thread.sleep(50);
+		SimFrame frame = runner.getFrame();
+		assertEquals(250, frame.getTick());
+		assertFalse(runner.isPlaying());
+
+		ElevatorSimController direct = SimTestSupport.runTo(new ElevatorSimController(null, CONFIG, false), 250);
+		SimFrame expected = direct.getFrame();
+		for (int car = 0; car < expected.getNumElevators(); car++) {
+			assertEquals(expected.getState(car), frame.getState(car));
+			assertEquals(expected.getFloor(car), frame.getFloor(car));
+			assertEquals(expected.getPassengers(car), frame.getPassengers(car));
+		}
+		for (int floor = 0; floor < expected.getNumFloors(); floor++) {
+			assertEquals(expected.getUpQueue(floor), frame.getUpQueue(floor));
+			assertEquals(expected.getDownQueue(floor), frame.getDownQueue(floor));
+		}
+		runner.stop();
+		assertThrows(IllegalArgumentException.class, () -> runner.setSpeed(SimRunner.MAX_SPEED + 1));
+	}
+
+	@Test
+	void testStepFails() throws InterruptedException {
+		// cars that hold one person fall behind until a floor queue overflows
+		ElevatorSimController c = SimTestSupport.runTo(new ElevatorSimController(null, CONFIG.withCapacity(1), false), 0);
+		SimRunner runner = new SimRunner(c, 1);
+		runner.setSpeed(SimRunner.MAX_SPEED);
+		runner.start();
+		runner.play();
+		long deadline = System.currentTimeMillis() + 60000;
+		while (runner.getError() == null && System.currentTimeMillis() < deadline) Thread.sleep(5);
+		runner.stop();
+		assertEquals(IllegalStateException.class, runner.getError().getClass());
+		assertFalse(runner.isPlaying());
+		SimFrame last = runner.getFrame();
+		assertFalse(last.isEndSim());
+		assertEquals(c.getStepCnt(), last.getTick());
+	}
+
+	@Test
+	void testFloorVersions() {
+		ElevatorSimController c = SimTestSupport.runTo(new ElevatorSimController(null, CONFIG, false), 0);
+		SimFrame previous = c.getFrame();
+		int changed = 0;
+		while (!c.isEndSim()) {
+			c.stepSim();
+			SimFrame frame = c.getFrame();
+			for (int floor = 0; floor < frame.getNumFloors(); floor++) {
+				if (frame.floorChanged(previous, floor)) {
+					changed++;
+				} else {
+					assertSame(previous.getUpQueue(floor), frame.getUpQueue(floor));
+					assertSame(previous.getDownQueue(floor), frame.getDownQueue(floor));
+				}
+			}
+			previous = frame;
+		}
+		assertTrue(changed > 0 && changed < previous.getTick() * previous.getNumFloors() / 10, changed+" floor changes");
+	}
+}
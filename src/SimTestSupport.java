@@ -0,0 +1,74 @@
+import java.io.StringWriter;
+import java.io.Writer;
+
+import building.SimConfig;
+import eventlog.TextEventSink;
+
+/**
+ * The Class SimTestSupport. The fixtures shared by the tests that compare the
+ * logs of simulations - running a headless simulation to a tick, or to the end
+ * while logging to a string.
+ */
+final class SimTestSupport {
+
+	/** The ticks that the snapshot and fork tests stop the simulation at. */
+	static final int[] TICKS = {1, 777, 4000, 9000};
+
+	/**
+	 * Not instantiated.
+	 */
+	private SimTestSupport() {
+	}
+
+	/**
+	 * Turns off writing the passenger data, and enables logging in the text
+	 * format to a writer, without a drain thread.
+	 *
+	 * @param c the controller
+	 * @param log the writer
+	 * @return the controller
+	 */
+	static ElevatorSimController logTo(ElevatorSimController c, Writer log) {
+		c.setSavePassengerData(false);
+		c.getContext().setEventSink(new TextEventSink(log), false);
+		c.enableLogging();
+		return c;
+	}
+
+	/**
+	 * Enables logging to a string, and runs the simulation to the end.
+	 *
+	 * @param c the controller
+	 * @return the log
+	 */
+	static String finishLogged(ElevatorSimController c) {
+		StringWriter log = new StringWriter();
+		logTo(c, log);
+		while (!c.isEndSim()) c.stepSim();
+		c.closeLogs();
+		return log.toString();
+	}
+
+	/**
+	 * Runs a new simulation of the config to the end, logging to a string.
+	 *
+	 * @param config the config
+	 * @return the log
+	 */
+	static String runLogged(SimConfig config) {
+		return finishLogged(new ElevatorSimController(null, config, false));
+	}
+
+	/**
+	 * Turns off writing the passenger data, and runs the simulation to a tick.
+	 *
+	 * @param c the controller
+	 * @param tick the tick
+	 * @return the controller
+	 */
+	static ElevatorSimController runTo(ElevatorSimController c, int tick) {
+		c.setSavePassengerData(false);
+		while (c.getStepCnt() < tick) c.stepSim();
+		return c;
+	}
+}
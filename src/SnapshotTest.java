@@ -0,0 +1,68 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import building.SimConfig;
+import passengers.PassengerTrace;
+
+/**
+ * Checks that a simulation restored from a snapshot produces exactly the same
+ * log as the simulation the snapshot was taken from, and that a snapshot of the
+ * restored simulation is identical to the original snapshot.
+ */
+class SnapshotTest {
+	private static final String TEST = "FullElevatorTest.csv";
+
+	private byte[] snapshot(ElevatorSimController c) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		c.writeSnapshot(out);
+		return out.toByteArray();
+	}
+
+	private void checkRoundTrip(SimConfig config) throws IOException {
+		PassengerTrace trace = new PassengerTrace(TEST);
+		for (int tick : SimTestSupport.TICKS) {
+			ElevatorSimController c = SimTestSupport.runTo(new ElevatorSimController(null, config, false), tick);
+			byte[] snap = snapshot(c);
+
+			ElevatorSimController restored = ElevatorSimController.readSnapshot(new ByteArrayInputStream(snap));
+			assertEquals(tick, restored.getStepCnt());
+			assertArrayEquals(snap, snapshot(restored), "Snapshot of the restored simulation differs at tick "+tick);
+			ElevatorSimController replayed = ElevatorSimController.readSnapshot(new ByteArrayInputStream(snap), trace);
+
+			String expected = SimTestSupport.finishLogged(c);
+			assertEquals(expected, SimTestSupport.finishLogged(restored), "Log after restoring at tick "+tick+" differs");
+			assertEquals(expected, SimTestSupport.finishLogged(replayed), "Log after restoring at tick "+tick+" from a trace differs");
+		}
+	}
+
+	@Test
+	void testSingleCarRoundTrip() throws IOException {
+		checkRoundTrip(new SimConfig(6, 1, 15, 5, 2, 3, TEST));
+	}
+
+	@Test
+	void testMultiCarRoundTrip() throws IOException {
+		checkRoundTrip(new SimConfig(6, 3, 10, 4, 2, 2, TEST));
+	}
+
+	@Test
+	void testStrategyRoundTrip() throws IOException {
+		checkRoundTrip(new SimConfig(6, 2, 10, 4, 2, 2, TEST, "scan", "eta"));
+	}
+
+	@Test
+	void testDestinationDispatchRoundTrip() throws IOException {
+		checkRoundTrip(new SimConfig(6, 3, 10, 4, 2, 2, TEST, "look", "destination"));
+	}
+
+	@Test
+	void testBanksRoundTrip() throws IOException {
+		checkRoundTrip(new SimConfig(6, 2, 10, 4, 2, 2, TEST, "default", "eta", "1:1-4;1:1+4-6"));
+	}
+}
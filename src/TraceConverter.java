@@ -0,0 +1,58 @@
+import java.io.IOException;
+
+import passengers.BinaryTrace;
+import passengers.Trace;
+
+/**
+ * The Class TraceConverter. Converts a passenger CSV file to a binary trace
+ * (see passengers.BinaryTrace). A config whose passCSV names the binary trace
+ * replays it from a read-only mapping, without parsing, and the runs of a sweep
+ * share the one mapping.
+ */
+public class TraceConverter {
+
+	/**
+	 * The main method. Arguments:
+	 *    csvFile          the passenger CSV file
+	 *    traceFile        the binary trace file to write (default csvFile with .csv replaced by .trc)
+	 *    -seek t          print the first row at or after tick t in the binary trace
+	 *
+	 * @param args the arguments
+	 */
+	public static void main(String[] args) {
+		String csvFile = null;
+		String traceFile = null;
+		int seekTime = -1;
+		for (int i = 0; i < args.length; i++) {
+			if ("-seek".equals(args[i]) && i < args.length-1) {
+				seekTime = Integer.parseInt(args[++i]);
+			} else if (csvFile == null) {
+				csvFile = args[i];
+			} else if (traceFile == null) {
+				traceFile = args[i];
+			} else {
+				System.out.println("Ignoring unknown option "+args[i]);
+			}
+		}
+		if (csvFile == null) {
+			System.out.println("Usage: TraceConverter csvFile [traceFile] [-seek t]");
+			return;
+		}
+		if (traceFile == null) traceFile = csvFile.replaceAll(".csv$", "")+BinaryTrace.EXTENSION;
+		try {
+			long start = System.nanoTime();
+			int rows = BinaryTrace.convert(csvFile, traceFile);
+			System.out.printf("Wrote %d rows to %s in %.1f ms%n", rows, traceFile, (System.nanoTime() - start) / 1e6);
+		} catch (IOException | IllegalArgumentException e) {
+			System.err.println("Error converting "+csvFile+": "+e.getMessage());
+			return;
+		}
+		if (seekTime >= 0) {
+			Trace trace = Trace.open(traceFile);
+			int row = trace.seek(seekTime);
+			if (row == trace.size()) System.out.println("No group calls at or after tick "+seekTime);
+			else System.out.println("Tick "+seekTime+": row "+row+" - time "+trace.getTime(row)+", "+trace.getNumPass(row)+
+									" passengers from floor "+trace.getOnFloor(row)+" to "+trace.getDestFloor(row));
+		}
+	}
+}
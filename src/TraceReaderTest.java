@@ -0,0 +1,109 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import passengers.CsvPassengerSource;
+import passengers.PassengerSource;
+import passengers.PassengerStore;
+import passengers.PassengerTrace;
+
+/**
+ * Checks that passenger files read from the mapped bytes give the same groups
+ * as parsing each line with split(",") and Integer.parseInt(), including the
+ * defaults for missing columns, line endings, and lines cut by the end of the
+ * chunk being parsed.
+ */
+class TraceReaderTest {
+	private static final String HEADER = "Time,NumPass,FromFloor,ToFloor,Polite,Wait";
+
+	@TempDir
+	Path dir;
+
+	private String write(String name, String contents) throws IOException {
+		Path file = dir.resolve(name);
+		Files.writeString(file, contents);
+		return file.toString();
+	}
+
+	/**
+	 * Parses the rows the way the passenger files were parsed line by line.
+	 *
+	 * @param contents the file
+	 * @return the groups, each as time, numPass, fromFloor, toFloor, polite and wait
+	 */
+	private String expected(String contents) {
+		StringBuilder groups = new StringBuilder();
+		String[] lines = contents.split("\r\n|\r|\n");
+		for (int i = 1; i < lines.length; i++) {
+			if (lines[i].isEmpty()) continue;
+			int[] row = {0, 0, 0, 0, 1, 1000};
+			String[] values = lines[i].split(",");
+			for (int j = 0; j < Math.min(6, values.length); j++)
+				row[j] = (j == 4) ? ("TRUE".equalsIgnoreCase(values[j]) ? 1 : 0) : Integer.parseInt(values[j]);
+			for (int v : row) groups.append(v).append(' ');
+			groups.append('\n');
+		}
+		return groups.toString();
+	}
+
+	private String read(PassengerSource src, PassengerStore store) {
+		StringBuilder groups = new StringBuilder();
+		while (!src.isEmpty()) {
+			int id = src.poll().getId();
+			groups.append(store.getTime(id)+" "+store.getNumPass(id)+" "+(store.getOnFloor(id)+1)+" "+
+						  (store.getDestFloor(id)+1)+" "+(store.isPolite(id) ? 1 : 0)+" "+store.getWaitTime(id)+" \n");
+		}
+		src.close();
+		return groups.toString();
+	}
+
+	private void check(String contents) throws IOException {
+		String file = write("Trace.csv", contents);
+		PassengerStore store = new PassengerStore();
+		assertEquals(expected(contents), read(new CsvPassengerSource(file, store, false), store));
+		store = new PassengerStore();
+		assertEquals(expected(contents), read(new PassengerTrace(file).newSource(store), store));
+	}
+
+	@Test
+	void testColumns() throws IOException {
+		check(HEADER+"\n1,2,3,4,TRUE,100\n2,1,4,1,false,+50\n3,1,1,6\n4,1,2,5,true\n5,3,6,1,,7\n6,1,1,2,,\n"+
+			  "7,1,3,2,Yes,-4,extra,columns\n\n8,2,5,1,TRUE,2147483647\n9,1,1,3,TRUE,-2147483648");
+		check(HEADER+"\r\n1,2,3,4,TRUE,100\r\n\r\n2,1,4,1,FALSE,50\r\n");
+		check(HEADER+"\r1,2,3,4,TRUE,100\r2,1,4,1\r");
+		check(HEADER);
+		check("");
+	}
+
+	@Test
+	void testBadNumbers() throws IOException {
+		for (String row : new String[] {"1,,3,4", "1,2,3,4x", "1,2,3, 4", "1,2,3,4,TRUE,2147483648", "-,2,3,4", "1,2,3,4,TRUE,1.5"}) {
+			String file = write("Bad.csv", HEADER+"\n"+row+"\n");
+			assertThrows(NumberFormatException.class, () -> new PassengerTrace(file), row);
+		}
+	}
+
+	@Test
+	void testLinesAcrossChunks() throws IOException {
+		Random random = new Random(7);
+		StringBuilder contents = new StringBuilder(HEADER+"\n");
+		for (int i = 0; i < 40000; i++) {
+			contents.append(i+","+(1 + random.nextInt(5))+","+(1 + random.nextInt(40))+","+(1 + random.nextInt(40)));
+			if (random.nextInt(5000) == 0) contents.append(",TRUE,5,").append("x".repeat(100000));
+			else {
+				if (random.nextInt(4) > 0) contents.append(random.nextBoolean() ? ",TRUE" : ",FALSE");
+				if (random.nextInt(4) > 0) contents.append(","+random.nextInt(1000));
+			}
+			contents.append(random.nextBoolean() ? "\n" : "\r\n");
+		}
+		check(contents.toString());
+		assertEquals(40000, new PassengerTrace(write("Trace.csv", contents.toString())).size());
+	}
+}
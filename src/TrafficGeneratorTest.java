@@ -0,0 +1,108 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import building.SimConfig;
+import passengers.PassengerStore;
+import passengers.TrafficGenerator;
+import passengers.TrafficSpec;
+
+/**
+ * Checks that synthetic traffic is the same for the same seed, follows its
+ * pattern, and can be simulated, snapshotted and forked like a passenger file.
+ */
+class TrafficGeneratorTest {
+	private static final String TEST = "FullElevatorTest.csv";
+	private static final int FLOORS = 6;
+
+	private PassengerStore generate(String spec, int firstGroup) {
+		PassengerStore store = new PassengerStore();
+		TrafficGenerator traffic = new TrafficGenerator(new TrafficSpec(spec), FLOORS, store, firstGroup);
+		while (traffic.poll() != null);
+		return store;
+	}
+
+	private void assertSameGroups(PassengerStore expected, int from, PassengerStore actual) {
+		assertEquals(expected.size() - from, actual.size());
+		for (int i = 0; i < actual.size(); i++) {
+			assertEquals(expected.getTime(from + i), actual.getTime(i));
+			assertEquals(expected.getNumPass(from + i), actual.getNumPass(i));
+			assertEquals(expected.getOnFloor(from + i), actual.getOnFloor(i));
+			assertEquals(expected.getDestFloor(from + i), actual.getDestFloor(i));
+			assertEquals(expected.isPolite(from + i), actual.isPolite(i));
+			assertEquals(expected.getWaitTime(from + i), actual.getWaitTime(i));
+		}
+	}
+
+	@Test
+	void testSeeded() {
+		String spec = "lunch;rate=0.2;ticks=5000;size=geo:2;wait=exp:900;polite=0.5;seed=7";
+		PassengerStore groups = generate(spec, 0);
+		assertTrue(groups.size() > 800 && groups.size() < 1200, "About rate * ticks groups, not "+groups.size());
+		assertSameGroups(groups, 0, generate(spec, 0));
+		assertSameGroups(groups, 123, generate(spec, 123));
+		assertNotEquals(groups.size(), generate(spec.replace("seed=7", "seed=8"), 0).size());
+
+		TrafficSpec[] split = new TrafficSpec(spec).split(3);
+		assertEquals(split[1].getSeed(), new TrafficSpec(spec).split(3)[1].getSeed());
+		assertNotEquals(split[0].getSeed(), split[1].getSeed());
+		assertEquals(0.2, split[2].getRate());
+		assertEquals("lunch", split[2].getPattern());
+	}
+
+	@Test
+	void testPatterns() {
+		for (String pattern : TrafficSpec.PATTERNS) {
+			PassengerStore groups = generate(pattern+";rate=0.5;ticks=2000;size=1-3", 0);
+			int previous = 1;
+			for (int i = 0; i < groups.size(); i++) {
+				int on = groups.getOnFloor(i), dest = groups.getDestFloor(i);
+				assertTrue(groups.getTime(i) >= previous && groups.getTime(i) <= 2000);
+				assertTrue(groups.getNumPass(i) >= 1 && groups.getNumPass(i) <= 3);
+				assertTrue(on != dest && on >= 0 && on < FLOORS && dest >= 0 && dest < FLOORS);
+				if ("uppeak".equals(pattern)) assertEquals(0, on);
+				if ("downpeak".equals(pattern)) assertEquals(0, dest);
+				previous = groups.getTime(i);
+			}
+		}
+	}
+
+	@Test
+	void testSimulated() throws IOException {
+		SimConfig config = new SimConfig(FLOORS, 2, 10, 4, 2, 2, TEST)
+				.withTraffic("interfloor;rate=0.02;ticks=4000;wait=exp:600;seed=3");
+		ElevatorSweep.Result result = ElevatorSweep.runOne(config);
+		assertNull(result.getError());
+		assertEquals(generate(config.getTraffic(), 0).size(), result.getStats().getNumGroups() + result.getStats().getNumGaveUp());
+
+		String expected = SimTestSupport.runLogged(config);
+		ElevatorSimController c = SimTestSupport.runTo(new ElevatorSimController(null, config, false), 2000);
+		ElevatorSimController fork = c.fork();
+		ByteArrayOutputStream snap = new ByteArrayOutputStream();
+		c.writeSnapshot(snap);
+		ElevatorSimController restored = ElevatorSimController.readSnapshot(new ByteArrayInputStream(snap.toByteArray()));
+		assertEquals(config.getTraffic(), restored.getConfig().getTraffic());
+		String rest = SimTestSupport.finishLogged(c);
+		assertTrue(!rest.isEmpty() && !expected.equals(rest));
+		assertEquals(rest, SimTestSupport.finishLogged(fork), "Log of the fork differs");
+		assertEquals(rest, SimTestSupport.finishLogged(restored), "Log after restoring differs");
+	}
+
+	@Test
+	void testRejected() {
+		for (String spec : new String[] {"sideways", "uppeak;rate=0", "uppeak;ticks=x", "uppeak;size=3-1",
+				                         "uppeak;wait=geo:0.5", "uppeak;polite=2", "uppeak;colour=red"})
+			assertThrows(IllegalArgumentException.class, () -> new TrafficSpec(spec), spec);
+		assertThrows(IllegalArgumentException.class,
+				() -> new TrafficGenerator(new TrafficSpec("uppeak"), 1, new PassengerStore()));
+		assertThrows(IllegalArgumentException.class, () -> new SimConfig(FLOORS, 2, 10, 4, 2, 2, TEST).withTraffic("lunch;rate=-1"));
+	}
+}
@@ -0,0 +1,215 @@
+package building;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * The Class BankLayout. Divides the elevators into banks, each serving its own
+ * set of floors - zones, and express banks that run past the floors they do
+ * not serve. A trip that no bank serves end to end is split into legs, and the
+ * passengers change banks at a floor served by both, such as a sky lobby.
+ *
+ * A layout is written as the banks separated by ';', each bank being the
+ * number of elevators, ':' and the floors it serves, numbered from 1 as in the
+ * passenger files, separated by '+'. For example, a low zone of 2 elevators,
+ * and 2 express elevators from the lobby to a sky lobby on floor 20 and a high
+ * zone above it:
+ *
+ *     2:1-20;2:1+20-40
+ *
+ * Every floor must be served by some bank, and every bank must share a floor
+ * with another, so that any trip can be made. A layout is immutable.
+ */
+public class BankLayout {
+
+	/** The layout, as written. */
+	private final String spec;
+
+	/** The num floors. */
+	private final int numFloors;
+
+	/** The floors served by each bank. */
+	private final boolean[][] served;
+
+	/** The bank of each elevator. */
+	private final int[] bankOfCar;
+
+	/**
+	 * Parses a layout.
+	 *
+	 * @param spec the layout, as described above
+	 * @param numFloors the num floors
+	 * @throws IllegalArgumentException if the layout cannot be parsed, leaves a floor unserved,
+	 *         or has a bank that passengers cannot change to
+	 */
+	public BankLayout(String spec, int numFloors) {
+		this.spec = spec;
+		this.numFloors = numFloors;
+		String[] banks = spec.split(";");
+		served = new boolean[banks.length][numFloors];
+		int[] carsInBank = new int[banks.length];
+		int numCars = 0;
+		try {
+			for (int b = 0; b < banks.length; b++) {
+				String[] bank = banks[b].split(":");
+				if (bank.length != 2) throw new IllegalArgumentException("Bank "+banks[b]+" is not cars:floors");
+				carsInBank[b] = Integer.parseInt(bank[0].trim());
+				if (carsInBank[b] < 1) throw new IllegalArgumentException("Bank "+banks[b]+" has no elevators");
+				numCars += carsInBank[b];
+				for (String range : bank[1].split("\\+")) {
+					String[] ends = range.split("-");
+					int from = Integer.parseInt(ends[0].trim());
+					int to = Integer.parseInt(ends[ends.length - 1].trim());
+					if (ends.length > 2 || from < 1 || to > numFloors || from > to)
+						throw new IllegalArgumentException("Bank "+banks[b]+" has a bad floor range "+range);
+					Arrays.fill(served[b], from - 1, to, true);
+				}
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Bad bank layout "+spec, e);
+		}
+		bankOfCar = new int[numCars];
+		for (int b = 0, car = 0; b < banks.length; b++)
+			for (int i = 0; i < carsInBank[b]; i++) bankOfCar[car++] = b;
+		for (int floor = 0; floor < numFloors; floor++)
+			if (servingBanks(floor) == 0) throw new IllegalArgumentException("No bank serves floor "+(floor+1));
+		if (Arrays.stream(hops(0)).anyMatch(h -> h < 0))
+			throw new IllegalArgumentException("Passengers cannot change to every bank in "+spec);
+	}
+
+	/**
+	 * Gets the number of elevators in all of the banks.
+	 *
+	 * @return the num cars
+	 */
+	public int getNumCars() {
+		return bankOfCar.length;
+	}
+
+	/**
+	 * Gets the number of banks.
+	 *
+	 * @return the num banks
+	 */
+	public int getNumBanks() {
+		return served.length;
+	}
+
+	/**
+	 * Gets the bank of an elevator.
+	 *
+	 * @param car the index of the elevator
+	 * @return the bank
+	 */
+	public int getBank(int car) {
+		return bankOfCar[car];
+	}
+
+	/**
+	 * Checks if a bank serves a floor.
+	 *
+	 * @param bank the bank
+	 * @param floor the floor
+	 * @return true, if the bank serves the floor
+	 */
+	public boolean serves(int bank, int floor) {
+		return served[bank][floor];
+	}
+
+	/**
+	 * Gets the floors served by an elevator.
+	 *
+	 * @param car the index of the elevator
+	 * @return a copy of the floors served, indexed by floor
+	 */
+	boolean[] getServedFloors(int car) {
+		return served[bankOfCar[car]].clone();
+	}
+
+	/**
+	 * Gets the floor at which the next leg of a trip ends - the destination, if a
+	 * bank serves both floors, or else the floor to change banks at. The legs
+	 * change banks as few times as possible, and of the floors where the first
+	 * change could be made, the one nearest the straight trip is chosen.
+	 *
+	 * @param floor the floor the leg starts on
+	 * @param destFloor the destination of the trip
+	 * @return the floor the leg ends on
+	 */
+	public int nextStop(int floor, int destFloor) {
+		int[] hops = hops(destFloor);
+		int best = -1, bestHops = Integer.MAX_VALUE, bestDetour = Integer.MAX_VALUE;
+		for (int from = 0; from < served.length; from++) {
+			if (!served[from][floor] || hops[from] > bestHops) continue;
+			if (hops[from] == 0) return destFloor;
+			for (int to = 0; to < served.length; to++) {
+				if (hops[to] != hops[from] - 1) continue;
+				for (int x = 0; x < numFloors; x++) {
+					if (!served[from][x] || !served[to][x]) continue;
+					int detour = Math.abs(x - floor) + Math.abs(destFloor - x);
+					if (hops[from] < bestHops || detour < bestDetour) {
+						best = x;
+						bestHops = hops[from];
+						bestDetour = detour;
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Counts the banks that serve a floor.
+	 *
+	 * @param floor the floor
+	 * @return the number of banks
+	 */
+	private int servingBanks(int floor) {
+		int n = 0;
+		for (boolean[] bank : served) if (bank[floor]) n++;
+		return n;
+	}
+
+	/**
+	 * Gets the number of times passengers riding each bank must change banks
+	 * to reach a floor.
+	 *
+	 * @param destFloor the floor
+	 * @return the changes for each bank, -1 if the floor cannot be reached from it
+	 */
+	private int[] hops(int destFloor) {
+		int[] hops = new int[served.length];
+		Arrays.fill(hops, -1);
+		ArrayDeque<Integer> open = new ArrayDeque<Integer>();
+		for (int b = 0; b < served.length; b++) {
+			if (served[b][destFloor]) {
+				hops[b] = 0;
+				open.add(b);
+			}
+		}
+		while (!open.isEmpty()) {
+			int b = open.poll();
+			for (int next = 0; next < served.length; next++) {
+				if (hops[next] >= 0) continue;
+				for (int x = 0; x < numFloors; x++) {
+					if (served[b][x] && served[next][x]) {
+						hops[next] = hops[b] + 1;
+						open.add(next);
+						break;
+					}
+				}
+			}
+		}
+		return hops;
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the layout, as written
+	 */
+	@Override
+	public String toString() {
+		return spec;
+	}
+}
@@ -1,14 +1,18 @@
 package building;
 import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.logging.FileHandler;
-import java.util.logging.Level;
-import java.util.logging.Logger;
-import java.util.logging.SimpleFormatter;
 
+import eventlog.EventLog;
 import myfileio.MyFileIO;
+import passengers.PassengerStore;
 import passengers.Passengers;
 
 // Owner: Michael Xu
@@ -23,11 +27,8 @@ public class Building {
 	/** The Constant DOWN. */
 	private final static int DOWN = -1;
 	
-	/** The Constant LOGGER. */
-	private final static Logger LOGGER = Logger.getLogger(Building.class.getName());
-	
-	/**  The fh - used by LOGGER to write the log messages to a file. */
-	private FileHandler fh;
+	/**  The context of the simulation - its configuration, passenger store and event log. */
+	private final SimContext context;
 	
 	/**  The fio for writing necessary files for data analysis. */
 	private MyFileIO fio;
@@ -35,11 +36,10 @@ public class Building {
 	/**  File that will receive the information for data analysis. */
 	private File passDataFile;
 
-	/**  passSuccess holds all Passengers who arrived at their destination floor. */
-	private ArrayList<Passengers> passSuccess;
-	
-	/**  gaveUp holds all Passengers who gave up and did not use the elevator. */
-	private ArrayList<Passengers> gaveUp;
+	/**  passStore holds the data for all Passengers in the simulation, and records
+	 *   which groups arrived at their destination floor and which gave up. It is
+	 *   the context's store. */
+	private final PassengerStore passStore;
 	
 	/**  The number of floors - must be initialized in constructor. */
 	private final int NUM_FLOORS;
@@ -50,8 +50,21 @@ public class Building {
 	/** The floors. */
 	public Floor[] floors;
 	
-	/** The elevator. */
-	private Elevator elevator;
+	/** The elevators. */
+	private Elevator[] elevators;
+	
+	/** The dispatcher - decides which elevator answers each new call. */
+	private Dispatcher dispatcher;
+	
+	/** True if each elevator has its own queues on every floor, and a group is assigned an elevator
+	 *  when it calls - with destination dispatch or banks, which are chosen by the config. */
+	private final boolean carQueues;
+	
+	/** The banks of elevators that serve different floors, or null if every elevator serves every floor. */
+	private final BankLayout banks;
+	
+	/** The dispatch strategy - decides how each elevator works through the calls it answers. */
+	private DispatchStrategy strategy;
 	
 	/**  The Call Manager - it tracks calls for the elevator, analyzes them to answer questions and prioritize calls. */
 	private CallManager callMgr;
@@ -59,47 +72,179 @@ public class Building {
 	// Add any fields that you think you might need here...
 
 	/**
-	 * Instantiates a new building.
+	 * Instantiates a new building with a single elevator with the default
+	 * parameters, logging to the specified file.
 	 *
 	 * @param numFloors the num floors
 	 * @param logfile the logfile
 	 */
 	public Building(int numFloors, String logfile) {
-		NUM_FLOORS = numFloors;
-		passSuccess = new ArrayList<Passengers>();
-		gaveUp = new ArrayList<Passengers>();
-		initializeBuildingLogger(logfile);
+		this(new SimContext(new SimConfig(numFloors, logfile.replaceAll(".log", ".csv")), logfile));
+	}
+	
+	/**
+	 * Instantiates a new building, and its elevators, from the context of a
+	 * simulation. Everything the building logs, and every passenger group it
+	 * holds, belongs to the context.
+	 *
+	 * @param context the context
+	 */
+	public Building(SimContext context) {
+		this.context = context;
+		SimConfig config = context.getConfig();
+		NUM_FLOORS = config.getNumFloors();
+		passStore = context.getPassengerStore();
 		// passDataFile is where you will write all the results for those passengers who successfully
 		// arrived at their destination and those who gave up...
 		fio = new MyFileIO();
-		passDataFile = fio.getFileHandle(logfile.replaceAll(".log","PassData.csv"));
+		passDataFile = fio.getFileHandle(context.getLogfile().replaceAll(".log","PassData.csv"));
 		
 		// create the floors, call manager and the elevator arrays
-		// note that YOU will need to create and config each specific elevator...
 		floors = new Floor[NUM_FLOORS];
 		for (int i = 0; i < NUM_FLOORS; i++) {
 			floors[i]= new Floor(FLOOR_QSIZE); 
 		}
-		callMgr = new CallManager(floors,NUM_FLOORS);
-		//TODO: if you defined new fields, make sure to initialize them here
-		configElevator(NUM_FLOORS);
-		Passengers.resetStaticID();
+		callMgr = new CallManager(floors, context);
+		dispatcher = Dispatcher.forName(config.getDispatcher(), callMgr);
+		strategy = DispatchStrategy.forName(config.getStrategy());
+		banks = config.getBankLayout();
+		elevators = new Elevator[config.getNumElevators()];
+		for (int i = 0; i < elevators.length; i++) {
+			elevators[i] = new Elevator(context);
+			if (banks != null) elevators[i].setServedFloors(banks.getServedFloors(i));
+		}
+		carQueues = (dispatcher instanceof DestinationDispatcher) || banks != null;
+		if (carQueues) {
+			for (Floor floor : floors) floor.useCarQueues(elevators.length);
+		}
+		callMgr.setNumCars(elevators.length);
 	}
 	
 	// TODO: Place all of your code HERE - state methods and helpers...
 	
 	/**
-	 * Adds passengers from the queue to their respective floor queues.
+	 * Adds passengers from the queue to their respective floor queues. With
+	 * banks, a group whose trip no bank serves is first given the leg to the
+	 * floor where it will change elevators.
 	 *
 	 * @param passQ the passenger queue
 	 */
 	public void addPassengersToQueue(ArrayList<Passengers> passQ) {
 		while (passQ.size() > 0) {
 			Passengers p = passQ.remove(0);
-			floors[p.getOnFloor()].add(p);
-			logCalls(p.getTime(), p.getNumPass(), p.getOnFloor(), p.getDirection(), p.getId());
+			if (banks != null) 
+				passStore.setLeg(p.getId(), p.getOnFloor(), banks.nextStop(p.getOnFloor(), p.getDestFloor()));
+			callElevator(p, p.getTime());
+		}
+	}
+	
+	/**
+	 * Adds a passenger group to the queue on the floor its current leg starts
+	 * on. With destination dispatch or banks, the group is assigned an elevator
+	 * as it calls, and waits in that elevator's queue.
+	 *
+	 * @param p the passenger group
+	 * @param time the time of the call
+	 */
+	private void callElevator(Passengers p, int time) {
+		if (carQueues) {
+			floors[p.getOnFloor()].add(p, dispatcher.selectCar(elevators, p));
+			logCalls(time, p.getNumPass(), p.getOnFloor(), p.getDirection(), p.getId());
+			return;
+		}
+		boolean newCall = floors[p.getOnFloor()].empty(p.getDirection());
+		floors[p.getOnFloor()].add(p);
+		logCalls(time, p.getNumPass(), p.getOnFloor(), p.getDirection(), p.getId());
+		if (newCall) dispatchCall(p.getOnFloor(), p.getDirection());
+	}
+	
+	/**
+	 * Asks the dispatcher which elevator should answer the call on the floor
+	 * in the specified direction, and assigns the call to it.
+	 *
+	 * @param floor the floor of the call
+	 * @param dir the direction of the call
+	 */
+	private void dispatchCall(int floor, int dir) {
+		callMgr.assignCall(floor, dir, dispatcher.selectCar(elevators, floor, dir));
+	}
+	
+	/**
+	 * Gets the call manager.
+	 *
+	 * @return the call manager
+	 */
+	CallManager getCallManager() {
+		return callMgr;
+	}
+	
+	/**
+	 * Writes the state of the building - the call assignments, the floor queues
+	 * and the elevators - for a snapshot of the simulation. The passenger groups
+	 * are written as their ids; the passenger store is written separately.
+	 *
+	 * @param out the output
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public void writeState(DataOutput out) throws IOException {
+		out.writeInt(NUM_FLOORS);
+		out.writeInt(elevators.length);
+		callMgr.writeState(out);
+		for (Floor floor : floors) floor.writeState(out);
+		for (Elevator elevator : elevators) elevator.writeState(out);
+	}
+	
+	/**
+	 * Restores the state written by writeState() into a new building with the
+	 * same number of floors and elevators. The passenger store must already be
+	 * restored, as the passenger groups are looked up in it by id.
+	 *
+	 * @param in the input
+	 * @throws IOException Signals that the state is for a different building, or an I/O exception.
+	 */
+	public void readState(DataInput in) throws IOException {
+		int numFloors = in.readInt();
+		int numElevators = in.readInt();
+		if (numFloors != NUM_FLOORS || numElevators != elevators.length)
+			throw new IOException("Snapshot is for "+numFloors+" floors and "+numElevators+" elevators, not "+
+		                          NUM_FLOORS+" and "+elevators.length);
+		callMgr.readState(in);
+		for (Floor floor : floors) floor.readState(in, passStore);
+		for (Elevator elevator : elevators) elevator.readState(in, passStore);
+	}
+	
+	/**
+	 * Forks the building into a new building that is created from the supplied
+	 * context, whose passenger store must be a fork of this building's store. The
+	 * call assignments, floor queues and elevators are copied through writeState()
+	 * and readState(), which hands the fork its own Passengers for the same ids;
+	 * they only hold the groups inside the building, so they are small next to the
+	 * store, which is shared. The fork uses the dispatcher chosen by its context's
+	 * config, not this building's, so it can be given a different one.
+	 *
+	 * @param forkContext the context of the fork
+	 * @return the fork
+	 */
+	public Building fork(SimContext forkContext) {
+		Building fork = new Building(forkContext);
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			writeState(new DataOutputStream(bytes));
+			fork.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		} catch (IOException e) {
+			throw new IllegalStateException("Forking the building failed", e);
 		}
-		callMgr.updateCallStatus();
+		return fork;
+	}
+	
+	/**
+	 * Gets the passenger store. Passenger groups for this building must be
+	 * created with PassengerStore.add() on this store.
+	 *
+	 * @return the passenger store
+	 */
+	public PassengerStore getPassengerStore() {
+		return passStore;
 	}
 	
 	/** Returns the queue string of a floor queue for the controller to access.
@@ -112,97 +257,162 @@ public class Building {
 		return floors[floor].queueString(dir);
 	}
 	
-	/** Returns the direction of the elevator.
+	/** Returns the version of a floor queue, which changes whenever a group joins or leaves it.
+	 * 
+	 * @param floor the floor number
+	 * @param dir the direction
+	 * @return the version
+	 */
+	public int getFloorVersion(int floor, int dir) {
+		return floors[floor].getVersion(dir);
+	}
+	
+	/** Returns the direction of the first elevator.
 	 * 
 	 * @return the direction
 	 */
 	public int getDirection() {
-		return elevator.getDirection();
+		return elevators[0].getDirection();
 	}
 	
-	/** Returns the number of passengers in the elevator.
+	/** Returns the number of passengers in the first elevator.
 	 * 
 	 * @return number of passengers in the elevator
 	 */
 	public int getNumPassInElevator() {
-		return elevator.getNumPassInElevator();
+		return elevators[0].getNumPassInElevator();
 	}
 	
 	
 	/**
-	 * Configure the elevator with given parameters.
+	 * Sets the dispatcher used to decide which elevator answers each new call.
+	 * A destination dispatcher can only replace another one, as the floor queues
+	 * are laid out for it when the building is created.
 	 *
-	 * @param numFloors the number of floors
+	 * @param dispatcher the dispatcher
+	 * @throws IllegalArgumentException if the dispatcher would turn destination dispatch on or off
 	 */
-	public void configElevator(int numFloors) {
-		elevator = new Elevator(numFloors);
+	public void setDispatcher(Dispatcher dispatcher) {
+		if ((dispatcher instanceof DestinationDispatcher) != (this.dispatcher instanceof DestinationDispatcher))
+			throw new IllegalArgumentException("Destination dispatch can only be turned on or off in the config");
+		this.dispatcher = dispatcher;
 	}
 	
 	/**
-	 * Gets the elevator.
+	 * Sets the dispatch strategy that decides how each elevator works through
+	 * the calls it answers.
+	 *
+	 * @param strategy the strategy
+	 */
+	public void setDispatchStrategy(DispatchStrategy strategy) {
+		this.strategy = strategy;
+	}
+	
+	/**
+	 * Gets the number of floors travelled by all of the elevators - with
+	 * getNumStops(), a measure of the energy used.
+	 *
+	 * @return the floors travelled
+	 */
+	public int getFloorsTravelled() {
+		int floorsTravelled = 0;
+		for (Elevator elevator : elevators) floorsTravelled += elevator.getFloorsTravelled();
+		return floorsTravelled;
+	}
+	
+	/**
+	 * Gets the number of times any elevator has opened its doors.
+	 *
+	 * @return the number of stops
+	 */
+	public int getNumStops() {
+		int numStops = 0;
+		for (Elevator elevator : elevators) numStops += elevator.getNumStops();
+		return numStops;
+	}
+	
+	/**
+	 * Gets the number of elevators.
+	 *
+	 * @return the num elevators
+	 */
+	public int getNumElevators() {
+		return elevators.length;
+	}
+	
+	/**
+	 * Gets the first elevator.
 	 *
 	 * @return the elevator
 	 */
 	public Elevator getElevator() {
-		return elevator;
+		return elevators[0];
+	}
+	
+	/**
+	 * Gets the elevator.
+	 *
+	 * @param car the index of the elevator
+	 * @return the elevator
+	 */
+	public Elevator getElevator(int car) {
+		return elevators[car];
 	}
 	
 	/**
-	 * Gets the current state of the elevator.
+	 * Gets the current state of the first elevator.
 	 *
 	 * @return the elevator state
 	 */
 	public int getElevatorState() {
-		return elevator.getCurrState();
+		return elevators[0].getCurrState();
 	}
 	
 	/**
-	 * Gets the current floor of the elevator.
+	 * Gets the current floor of the first elevator.
 	 *
 	 * @return the elevator floor
 	 */
 	public int getElevatorFloor() {
-		return elevator.getCurrFloor();
+		return elevators[0].getCurrFloor();
 	}
 	
 	/**
-	 * Checks if is elevator in stop state.
+	 * Checks if every elevator is in the stop state.
 	 *
-	 * @return true, if is elevator in stop state
+	 * @return true, if all elevators are in stop state
 	 */
 	public boolean isElevatorInStopState() {
-		return (elevator.getCurrState() == Elevator.STOP);
+		for (Elevator elevator : elevators) {
+			if (elevator.getCurrState() != Elevator.STOP) return false;
+		}
+		return true;
 	}
 	
-	// DO NOT CHANGE ANYTHING BELOW THIS LINE:
 	/**
-	 * Initialize building logger. Sets formating, file to log to, and
-	 * turns the logger OFF by default
+	 * Checks if the building has nothing left to do - every elevator is in the
+	 * STOP state, and no passengers are waiting on any floor. An elevator can
+	 * stop with calls still to answer, and will leave the STOP state for them on
+	 * its next update.
 	 *
-	 * @param logfile the file to log information to
+	 * @return true, if idle
 	 */
-	void initializeBuildingLogger(String logfile) {
-		System.setProperty("java.util.logging.SimpleFormatter.format","%4$-7s %5$s%n");
-		LOGGER.setLevel(Level.OFF);
-		try {
-			fh = new FileHandler(logfile);
-			LOGGER.addHandler(fh);
-			SimpleFormatter formatter = new SimpleFormatter();
-			fh.setFormatter(formatter);
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-	}	
+	public boolean isIdle() {
+		return isElevatorInStopState() && !callMgr.callPending();
+	}
 	
 	/**
 	 * Handles the STOP state and transitions.
 	 *
 	 * @param time the time
+	 * @param car the index of the elevator
 	 * @return the next state
 	 */
-	private int currStateStop(int time) {
+	private int currStateStop(int time, int car) {
+		Elevator elevator = elevators[car];
 		int floorNum = elevator.getCurrFloor();
-		Passengers p = callMgr.prioritizePassengerCalls(floorNum);
+		elevator.setPrevFloor(floorNum);	// may have stopped straight from MV1FLR
+		Passengers p = strategy.selectCall(callMgr, elevator, car);
 		if (p == null) {
 			return Elevator.STOP;
 		} else if (floorNum == p.getOnFloor()) {
@@ -221,9 +431,11 @@ public class Building {
 	 * Handles the MVTOFLR state and transitions.
 	 *
 	 * @param time the time
+	 * @param car the index of the elevator
 	 * @return the next state
 	 */
-	private int currStateMvToFlr(int time) {
+	private int currStateMvToFlr(int time, int car) {
+		Elevator elevator = elevators[car];
 		elevator.moveElevator();
 		if (elevator.getCurrFloor() == elevator.getMoveToFloor()) {
 			elevator.setDirection(elevator.getPostMoveToFloorDir());
@@ -236,9 +448,11 @@ public class Building {
 	 * Handles the OPENDR state and transitions.
 	 *
 	 * @param time the time
+	 * @param car the index of the elevator
 	 * @return the next state
 	 */
-	private int currStateOpenDr(int time) {
+	private int currStateOpenDr(int time, int car) {
+		Elevator elevator = elevators[car];
 		elevator.closeOrOpenDoor();
 		if (elevator.getDoorState() == Elevator.DOOR_NOT_IN_MOTION) {
 			int floorNum = elevator.getCurrFloor();
@@ -248,31 +462,48 @@ public class Building {
 	}
 	
 	/**
-	 * Handles the OFFLD state and transitions.
+	 * Handles the OFFLD state and transitions. A group that is only changing
+	 * elevators here calls again, for the next leg of its trip, once it is off.
 	 *
 	 * @param time the time
+	 * @param car the index of the elevator
 	 * @return the next state
 	 */
-	private int currStateOffLd(int time) {
+	private int currStateOffLd(int time, int car) {
+		Elevator elevator = elevators[car];
 		elevator.incrementTimeInState();
 		int floorNum = elevator.getCurrFloor();
 		if (elevator.getPrevState() != Elevator.OFFLD) {
 			int numPass = 0;
+			ArrayList<Passengers> transfers = null;
 			for (int i = 0; i < elevator.getPassByFloor()[floorNum].size(); i++) {
 				Passengers p = elevator.getPassByFloor()[floorNum].get(i);
 				int pNumPass = p.getNumPass();
 				numPass += pNumPass;
-				p.setTimeArrived(time);
-				logArrival(time, pNumPass, floorNum, p.getId());
+				if (p.isLastLeg()) {
+					p.setTimeArrived(time);
+					logArrival(time, pNumPass, floorNum, p.getId(), car);
+				} else {
+					logTransfer(time, pNumPass, floorNum, p.getId(), car);
+					if (transfers == null) transfers = new ArrayList<Passengers>();
+					transfers.add(p);
+				}
 			}
-			elevator.getPassByFloor()[floorNum].clear();
+			elevator.clearPassengers(floorNum);
 			elevator.calculateOffloadDelay(numPass);
+			if (transfers != null) {
+				for (Passengers p : transfers) {
+					int destFloor = passStore.getDestFloor(p.getId());
+					passStore.setLeg(p.getId(), floorNum, banks.nextStop(floorNum, destFloor));
+					callElevator(p, time);
+				}
+			}
 		}
 		if (elevator.doneOffloading()) {
 			int dir = elevator.getDirection();
-			if (!floors[floorNum].empty(dir)) return Elevator.BOARD;
-			if (elevator.getNumPassInElevator() == 0 && !callMgr.callsInDir(floorNum, dir) && 
-					!floors[floorNum].empty(-dir)) {
+			if (!floors[floorNum].empty(dir, car)) return Elevator.BOARD;
+			if (elevator.getNumPassInElevator() == 0 && !strategy.keepGoing(callMgr, elevator, car) && 
+					!floors[floorNum].empty(-dir, car)) {
 				elevator.setDirection(-dir);
 				return Elevator.BOARD;
 			}
@@ -285,26 +516,42 @@ public class Building {
 	 * Handles the BOARD state and transitions.
 	 *
 	 * @param time the time
+	 * @param car the index of the elevator
 	 * @return the next state
 	 */
-	private int currStateBoard(int time) {
+	private int currStateBoard(int time, int car) {
+		Elevator elevator = elevators[car];
 		int floorNum = elevator.getCurrFloor(), dir = elevator.getDirection();
-		int eleNumPass = elevator.getNumPassInElevator();
-		while (!floors[floorNum].empty(dir) && eleNumPass < elevator.getCapacity() &&
-				!elevator.isCurrFull()) {
-			Passengers p = floors[floorNum].peek(dir);
+		while (!floors[floorNum].empty(dir, car)) {
+			Passengers p = floors[floorNum].peek(dir, car);
 			int pNumPass = p.getNumPass();
+			if (time > p.getTimeWillGiveUp()) {
+				// only the group at the head of the queue can give up, so a blocked group
+				// that gives up lets the car try the group behind it
+				floors[floorNum].poll(dir, car);
+				logGiveUp(time, pNumPass, floorNum, dir, p.getId(), car);
+				passStore.recordGaveUp(p.getId());
+				elevator.setCurrFull(false);
+				continue;
+			}
+			int eleNumPass = elevator.getNumPassInElevator();
+			if (eleNumPass >= elevator.getCapacity() || elevator.isCurrFull()) break;
 			if (eleNumPass + pNumPass > elevator.getCapacity()) {
-				logSkip(time, pNumPass, floorNum, dir, p.getId());
+				logSkip(time, pNumPass, floorNum, dir, p.getId(), car);
 				elevator.setCurrFull(true);
+				// this car is full, so let the dispatcher reconsider who answers the call - a
+				// group assigned an elevator when it called waits for this car to come back
+				if (!carQueues) dispatchCall(floorNum, dir);
 				break;
 			} else {
-				p.setBoardTime(time);
-				elevator.boardPassengers(floors[floorNum].poll(dir));
-				logBoard(time, pNumPass, floorNum, dir, p.getId());
+				// the wait to board, and the boarding order, are those of the first leg
+				boolean firstLeg = p.getBoardTime() < 0;
+				if (firstLeg) p.setBoardTime(time);
+				elevator.boardPassengers(floors[floorNum].poll(dir, car));
+				logBoard(time, pNumPass, floorNum, dir, p.getId(), car);
 				elevator.calculateBoardDelay(pNumPass);
 				elevator.setDirection(p.getDirection());
-				passSuccess.add(p);
+				if (firstLeg) passStore.recordSuccess(p.getId());
 			}
 		}
 		elevator.incrementTimeInState();
@@ -321,18 +568,19 @@ public class Building {
 	 * Handles the CLOSEDR state and transitions.
 	 *
 	 * @param time the time
+	 * @param car the index of the elevator
 	 * @return the next state
 	 */
-	private int currStateCloseDr(int time) {
+	private int currStateCloseDr(int time, int car) {
+		Elevator elevator = elevators[car];
 		elevator.closeOrOpenDoor();
 		if (elevator.getDoorState() == Elevator.DOOR_IN_MOTION) return Elevator.CLOSEDR;
 		int floorNum = elevator.getCurrFloor(), dir = elevator.getDirection();
 		if (elevator.getNumPassInElevator() == 0) {
-			callMgr.updateCallStatus();
-			if (!callMgr.callPending()) return Elevator.STOP;
-			if (callMgr.callsInDir(floorNum, dir)) return Elevator.MV1FLR;
-			if (!floors[floorNum].empty(dir)) return Elevator.OPENDR;
-			if (!floors[floorNum].empty(-dir)) {
+			if (!callMgr.callPending(car)) return Elevator.STOP;
+			if (strategy.keepGoing(callMgr, elevator, car)) return Elevator.MV1FLR;
+			if (!floors[floorNum].empty(dir, car)) return Elevator.OPENDR;
+			if (!floors[floorNum].empty(-dir, car)) {
 				elevator.setDirection(-dir);
 				return Elevator.OPENDR;
 			}
@@ -346,20 +594,25 @@ public class Building {
 	 * Handles the MV1FLR state and transitions.
 	 *
 	 * @param time the time
+	 * @param car the index of the elevator
 	 * @return the next state
 	 */
-	private int currStateMv1Flr(int time) {
+	private int currStateMv1Flr(int time, int car) {
+		Elevator elevator = elevators[car];
 		elevator.moveElevator();
 		int floorNum = elevator.getCurrFloor();
 		if (elevator.getTimeInState() % elevator.getTicksPerFloor() == 0) {
 			if (elevator.getPassByFloor()[floorNum].size() > 0) return Elevator.OPENDR;
 			int dir = elevator.getDirection();
-			if (!floors[floorNum].empty(dir)) return Elevator.OPENDR;
-			if (elevator.getNumPassInElevator() == 0 && !callMgr.callsInDir(floorNum, dir) &&
-					!floors[floorNum].empty(-dir)) {
+			if (!floors[floorNum].empty(dir, car)) return Elevator.OPENDR;
+			if (elevator.getNumPassInElevator() == 0 && !strategy.keepGoing(callMgr, elevator, car) &&
+					!floors[floorNum].empty(-dir, car)) {
 				elevator.setDirection(-dir);
 				return Elevator.OPENDR;
 			}
+			// the calls this elevator was heading for were answered by another elevator
+			if (elevator.getNumPassInElevator() == 0 && !strategy.keepGoing(callMgr, elevator, car))
+				return Elevator.STOP;
 		}
 		return Elevator.MV1FLR;
 	}
@@ -367,63 +620,149 @@ public class Building {
 	/**
 	 * Determines if the elevator state or floor changed.
 	 *
+	 * @param elevator the elevator
 	 * @return true, if the state or floor changed
 	 */
-	private boolean elevatorStateOrFloorChanged() {
+	private boolean elevatorStateOrFloorChanged(Elevator elevator) {
 		return (elevator.getPrevState() != elevator.getCurrState() || 
 				elevator.getPrevFloor() != elevator.getCurrFloor());
 	}
 	
+	/**
+	 * Gets the number of upcoming ticks in which the elevator can do nothing except
+	 * advance its time in state, assuming no new passengers arrive. These ticks can 
+	 * be skipped with skipTicks() without changing the log or the outcome of the
+	 * simulation. Returns 0 if the next tick must be stepped, and Integer.MAX_VALUE
+	 * if the elevator is idle in the STOP state with no calls pending.
+	 *
+	 * @return the number of idle ticks
+	 */
+	public int getIdleTicks() {
+		int idle = Integer.MAX_VALUE;
+		for (int car = 0; car < elevators.length && idle > 0; car++) {
+			idle = Math.min(idle, getIdleTicks(car));
+		}
+		return idle;
+	}
+	
+	/**
+	 * Gets the number of upcoming idle ticks for one elevator.
+	 *
+	 * @param car the index of the elevator
+	 * @return the number of idle ticks
+	 */
+	private int getIdleTicks(int car) {
+		Elevator elevator = elevators[car];
+		if (elevatorStateOrFloorChanged(elevator)) return 0;
+		int timeInState = elevator.getTimeInState();
+		int idle = 0;
+		switch (elevator.getCurrState()) {
+		case Elevator.STOP:
+			return (callMgr.callPending(car)) ? 0 : Integer.MAX_VALUE;
+		case Elevator.MVTOFLR:
+		case Elevator.MV1FLR:
+			// the floor only changes, and the floors are only checked, on a multiple of ticksPerFloor
+			idle = elevator.getTicksPerFloor() - 1 - (timeInState % elevator.getTicksPerFloor());
+			break;
+		case Elevator.OPENDR:
+		case Elevator.CLOSEDR:
+			idle = elevator.getTicksDoorOpenClose() - 1 - timeInState;
+			break;
+		case Elevator.OFFLD:
+			idle = elevator.getDelayTime() - 1 - timeInState;
+			break;
+		case Elevator.BOARD:
+			int floorNum = elevator.getCurrFloor(), dir = elevator.getDirection();
+			// the group at the head of the queue may give up on any tick
+			if (!floors[floorNum].empty(dir, car)) return 0;
+			idle = elevator.getDelayTime() - 1 - timeInState;
+			break;
+		}
+		return Math.max(idle, 0);
+	}
+	
+	/**
+	 * Skips the specified number of ticks. Must not exceed getIdleTicks().
+	 *
+	 * @param ticks the number of ticks to skip
+	 */
+	public void skipTicks(int ticks) {
+		for (Elevator elevator : elevators) {
+			if (elevator.getCurrState() != Elevator.STOP) 
+				elevator.skipTicks(ticks);
+		}
+	}
+	
 	/**
 	 * Update elevator - this is called AFTER time has been incremented.
 	 * -  Logs any state changes, if the have occurred,
 	 * -  Calls appropriate method based upon currState to perform
 	 *    any actions and calculate next state...
 	 *
+	 * Each elevator in the bank is updated in turn.
+	 *
 	 * @param time the time
 	 */
 	public void updateElevator(int time) {
-		if (elevatorStateOrFloorChanged())
-			logElevatorStateOrFloorChanged(time,elevator.getPrevState(),elevator.getCurrState(),
-                    elevator.getPrevFloor(),elevator.getCurrFloor());
-
-		switch (elevator.getCurrState()) {
-		case Elevator.STOP: elevator.updateCurrState(currStateStop(time)); break;
-		case Elevator.MVTOFLR: elevator.updateCurrState(currStateMvToFlr(time)); break;
-		case Elevator.OPENDR: elevator.updateCurrState(currStateOpenDr(time)); break;
-		case Elevator.OFFLD: elevator.updateCurrState(currStateOffLd(time)); break;
-		case Elevator.BOARD: elevator.updateCurrState(currStateBoard(time)); break;
-		case Elevator.CLOSEDR: elevator.updateCurrState(currStateCloseDr(time)); break;
-		case Elevator.MV1FLR: elevator.updateCurrState(currStateMv1Flr(time)); break;
+		for (int car = 0; car < elevators.length; car++) {
+			Elevator elevator = elevators[car];
+			if (elevatorStateOrFloorChanged(elevator))
+				logElevatorStateOrFloorChanged(time,elevator.getPrevState(),elevator.getCurrState(),
+	                    elevator.getPrevFloor(),elevator.getCurrFloor(), car);
+	
+			elevator.updateCurrState(runStateHandler(time, car));
 		}
-
+	}
+	
+	/**
+	 * Runs the handler for the current state of one elevator. The state
+	 * is not updated - that is left to the caller.
+	 *
+	 * @param time the time
+	 * @param car the index of the elevator
+	 * @return the next state
+	 */
+	int runStateHandler(int time, int car) {
+		switch (elevators[car].getCurrState()) {
+		case Elevator.STOP: return currStateStop(time, car);
+		case Elevator.MVTOFLR: return currStateMvToFlr(time, car);
+		case Elevator.OPENDR: return currStateOpenDr(time, car);
+		case Elevator.OFFLD: return currStateOffLd(time, car);
+		case Elevator.BOARD: return currStateBoard(time, car);
+		case Elevator.CLOSEDR: return currStateCloseDr(time, car);
+		case Elevator.MV1FLR: return currStateMv1Flr(time, car);
+		}
+		return elevators[car].getCurrState();
 	}
 	
 	/**
 	 * Disables logging.
 	 */
 	public void disableLogging() {
-		LOGGER.setLevel(Level.OFF);
+		context.disableLogging();
 	}
 
 	/**
 	 * Process passenger data. Do NOT change this - it simply dumps the 
-	 * collected passenger data for successful arrivals and give ups. These are
-	 * assumed to be ArrayLists...
+	 * collected passenger data for successful arrivals and give ups, in the
+	 * order they boarded or gave up, from the passenger store...
 	 */
 	public void processPassengerData() {
 		
 		try {
 			BufferedWriter out = fio.openBufferedWriter(passDataFile);
 			out.write("ID,Number,From,To,WaitToBoard,TotalTime\n");
-			for (Passengers p : passSuccess) {
-				String str = p.getId()+","+p.getNumPass()+","+(p.getOnFloor()+1)+","+(p.getDestFloor()+1)+","+
-				             (p.getBoardTime() - p.getTime())+","+(p.getTimeArrived() - p.getTime())+"\n";
+			for (int i = 0; i < passStore.getNumSuccess(); i++) {
+				int id = passStore.getSuccess(i);
+				int time = passStore.getTime(id);
+				String str = id+","+passStore.getNumPass(id)+","+(passStore.getOnFloor(id)+1)+","+(passStore.getDestFloor(id)+1)+","+
+				             (passStore.getBoardTime(id) - time)+","+(passStore.getTimeArrived(id) - time)+"\n";
 				out.write(str);
 			}
-			for (Passengers p : gaveUp) {
-				String str = p.getId()+","+p.getNumPass()+","+(p.getOnFloor()+1)+","+(p.getDestFloor()+1)+","+
-				             p.getWaitTime()+",-1\n";
+			for (int i = 0; i < passStore.getNumGaveUp(); i++) {
+				int id = passStore.getGaveUp(i);
+				String str = id+","+passStore.getNumPass(id)+","+(passStore.getOnFloor(id)+1)+","+(passStore.getDestFloor(id)+1)+","+
+				             passStore.getWaitTime(id)+",-1\n";
 				out.write(str);
 			}
 			fio.closeFile(out);
@@ -438,45 +777,32 @@ public class Building {
 	 * For testing, logging must be enabled BEFORE the run starts.
 	 */
 	public void enableLogging() {
-		LOGGER.setLevel(Level.INFO);
-			logElevatorConfig(elevator.getCapacity(),elevator.getTicksPerFloor(), elevator.getTicksDoorOpenClose(), 
-					          elevator.getPassPerTick(), elevator.getCurrState(),elevator.getCurrFloor());
-		
+		enableLogging(false);
 	}
 	
 	/**
-	 * Close logs, and pause the timeline in the GUI.
+	 * Enable logging in the text or binary format. Prints the initial configuration
+	 * message. The format is chosen the first time logging is enabled.
 	 *
-	 * @param time the time
+	 * @param binary true to write the binary event format instead of text
 	 */
-	public void closeLogs(int time) {
-		if (LOGGER.getLevel() == Level.INFO) {
-			logEndSimulation(time);
-			fh.flush();
-			fh.close();
+	public void enableLogging(boolean binary) {
+		if (context.enableLogging(binary)) {
+			Elevator elevator = elevators[0];
+			logElevatorConfig(elevator.getCapacity(),elevator.getTicksPerFloor(), elevator.getTicksDoorOpenClose(), 
+					          elevator.getPassPerTick(), elevator.getCurrState(),elevator.getCurrFloor());
 		}
 	}
 	
 	/**
-	 * Prints the state.
+	 * Close logs, and pause the timeline in the GUI. Waits until every
+	 * event has been written to the log file.
 	 *
-	 * @param state the state
-	 * @return the string
+	 * @param time the time
+	 * @throws java.io.UncheckedIOException if the log could not be written
 	 */
-	private String printState(int state) {
-		String str = "";
-		
-		switch (state) {
-			case Elevator.STOP: 		str =  "STOP   "; break;
-			case Elevator.MVTOFLR: 		str =  "MVTOFLR"; break;
-			case Elevator.OPENDR:   	str =  "OPENDR "; break;
-			case Elevator.CLOSEDR:		str =  "CLOSEDR"; break;
-			case Elevator.BOARD:		str =  "BOARD  "; break;
-			case Elevator.OFFLD:		str =  "OFFLD  "; break;
-			case Elevator.MV1FLR:		str =  "MV1FLR "; break;
-			default:					str =  "UNDEF  "; break;
-		}
-		return(str);
+	public void closeLogs(int time) {
+		context.closeLogs(time);
 	}
 	
 	/**
@@ -491,8 +817,7 @@ public class Building {
 	 */
 	private void logElevatorConfig(int capacity, int ticksPerFloor, int ticksDoorOpenClose, 
 			                       int passPerTick, int state, int floor) {
-		LOGGER.info("CONFIG:   Capacity="+capacity+"   Ticks-Floor="+ticksPerFloor+"   Ticks-Door="+ticksDoorOpenClose+
-				    "   Ticks-Passengers="+passPerTick+"   CurrState=" + (printState(state))+"   CurrFloor="+(floor+1));
+		if (context.isLogging()) context.getEventLog().config(0, capacity, ticksPerFloor, ticksDoorOpenClose, passPerTick, state, floor, elevators.length);
 	}
 		
 	/**
@@ -503,10 +828,10 @@ public class Building {
 	 * @param currState the curr state
 	 * @param prevFloor the prev floor
 	 * @param currFloor the curr floor
+	 * @param car the index of the elevator
 	 */
-	private void logElevatorStateOrFloorChanged(int time, int prevState, int currState, int prevFloor, int currFloor) {
-		LOGGER.info("Time="+time+"   Prev State: " + printState(prevState) + "   Curr State: "+printState(currState)
-		            +"   PrevFloor: "+(prevFloor+1) + "   CurrFloor: " + (currFloor+1));
+	private void logElevatorStateOrFloorChanged(int time, int prevState, int currState, int prevFloor, int currFloor, int car) {
+		if (context.isLogging()) context.getEventLog().stateChanged(time, prevState, currState, prevFloor, currFloor, car);
 	}
 	
 	/**
@@ -516,10 +841,23 @@ public class Building {
 	 * @param numPass the num pass
 	 * @param floor the floor
 	 * @param id the id
+	 * @param car the index of the elevator
 	 */
-	private void logArrival(int time, int numPass, int floor,int id) {
-		LOGGER.info("Time="+time+"   Arrived="+numPass+" Floor="+ (floor+1)
-		            +" passID=" + id);						
+	private void logArrival(int time, int numPass, int floor,int id, int car) {
+		if (context.isLogging()) context.getEventLog().arrival(time, numPass, floor, id, car);
+	}
+	
+	/**
+	 * Log transfer.
+	 *
+	 * @param time the time
+	 * @param numPass the num pass
+	 * @param floor the floor
+	 * @param id the id
+	 * @param car the index of the elevator
+	 */
+	private void logTransfer(int time, int numPass, int floor, int id, int car) {
+		if (context.isLogging()) context.getEventLog().transfer(time, numPass, floor, id, car);
 	}
 	
 	/**
@@ -532,8 +870,7 @@ public class Building {
 	 * @param id the id
 	 */
 	private void logCalls(int time, int numPass, int floor, int dir, int id) {
-		LOGGER.info("Time="+time+"   Called="+numPass+" Floor="+ (floor +1)
-			 	    +" Dir="+((dir>0)?"Up":"Down")+"   passID=" + id);
+		if (context.isLogging()) context.getEventLog().call(time, numPass, floor, dir, id);
 	}
 	
 	/**
@@ -544,10 +881,10 @@ public class Building {
 	 * @param floor the floor
 	 * @param dir the dir
 	 * @param id the id
+	 * @param car the index of the elevator
 	 */
-	private void logGiveUp(int time, int numPass, int floor, int dir, int id) {
-		LOGGER.info("Time="+time+"   GaveUp="+numPass+" Floor="+ (floor+1) 
-				    +" Dir="+((dir>0)?"Up":"Down")+"   passID=" + id);				
+	private void logGiveUp(int time, int numPass, int floor, int dir, int id, int car) {
+		if (context.isLogging()) context.getEventLog().passengers(EventLog.GIVEUP, time, numPass, floor, dir, id, car);
 	}
 
 	/**
@@ -558,10 +895,10 @@ public class Building {
 	 * @param floor the floor
 	 * @param dir the dir
 	 * @param id the id
+	 * @param car the index of the elevator
 	 */
-	private void logSkip(int time, int numPass, int floor, int dir, int id) {
-		LOGGER.info("Time="+time+"   Skip="+numPass+" Floor="+ (floor+1) 
-			   	    +" Dir="+((dir>0)?"Up":"Down")+"   passID=" + id);				
+	private void logSkip(int time, int numPass, int floor, int dir, int id, int car) {
+		if (context.isLogging()) context.getEventLog().passengers(EventLog.SKIP, time, numPass, floor, dir, id, car);
 	}
 	
 	/**
@@ -572,18 +909,10 @@ public class Building {
 	 * @param floor the floor
 	 * @param dir the dir
 	 * @param id the id
+	 * @param car the index of the elevator
 	 */
-	private void logBoard(int time, int numPass, int floor, int dir, int id) {
-		LOGGER.info("Time="+time+"   Board="+numPass+" Floor="+ (floor+1) 
-				    +" Dir="+((dir>0)?"Up":"Down")+"   passID=" + id);				
-	}
-	
-	/**
-	 * Log end simulation.
-	 *
-	 * @param time the time
-	 */
-	private void logEndSimulation(int time) {
-		LOGGER.info("Time="+time+"   Detected End of Simulation");
+	private void logBoard(int time, int numPass, int floor, int dir, int id, int car) {
+		if (context.isLogging()) context.getEventLog().passengers(EventLog.BOARD, time, numPass, floor, dir, id, car);
 	}
+
 }
\ No newline at end of file
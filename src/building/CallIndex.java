@@ -0,0 +1,175 @@
+package building;
+
+import java.util.BitSet;
+
+/**
+ * The Class CallIndex. Tracks which floors have up and/or down calls, and is
+ * updated one floor at a time as the calls change rather than by rescanning
+ * every floor. Answers the questions the CallManager asks - how many calls,
+ * the lowest or highest call, and how many floors with calls are above or
+ * below a floor - without walking the floors. The floors with any call are
+ * counted in a Fenwick (binary indexed) tree so the range counts are O(log floors).
+ */
+class CallIndex {
+
+	/** The Constant UP. */
+	private final static int UP = 1;
+
+	/** The floors with up calls. */
+	private BitSet upCalls;
+
+	/** The floors with down calls. */
+	private BitSet downCalls;
+
+	/** The Fenwick tree counting the floors that have an up or down call. */
+	private int[] tree;
+
+	/** The number of up calls. */
+	private int numUp;
+
+	/** The number of down calls. */
+	private int numDown;
+
+	/** The number of floors with an up or down call. */
+	private int numAny;
+
+	/**
+	 * Instantiates a new call index with no calls.
+	 *
+	 * @param numFloors the num floors
+	 */
+	CallIndex(int numFloors) {
+		upCalls = new BitSet(numFloors);
+		downCalls = new BitSet(numFloors);
+		tree = new int[numFloors + 1];
+	}
+
+	/**
+	 * Records whether there is a call on the floor in the specified direction.
+	 *
+	 * @param floor the floor
+	 * @param dir the direction
+	 * @param call true if there is a call
+	 */
+	void set(int floor, int dir, boolean call) {
+		BitSet calls = (dir == UP) ? upCalls : downCalls;
+		if (calls.get(floor) == call) return;
+		boolean anyBefore = hasCall(floor);
+		calls.set(floor, call);
+		int delta = call ? 1 : -1;
+		if (dir == UP) numUp += delta;
+		else numDown += delta;
+		if (anyBefore != hasCall(floor)) {
+			numAny += delta;
+			for (int i = floor + 1; i < tree.length; i += i & -i)
+				tree[i] += delta;
+		}
+	}
+
+	/**
+	 * Checks if there is a call on the floor in the specified direction.
+	 *
+	 * @param floor the floor
+	 * @param dir the direction
+	 * @return true if there is a call
+	 */
+	boolean hasCall(int floor, int dir) {
+		return (dir == UP) ? upCalls.get(floor) : downCalls.get(floor);
+	}
+
+	/**
+	 * Checks if there is an up or down call on the floor.
+	 *
+	 * @param floor the floor
+	 * @return true if there is a call
+	 */
+	boolean hasCall(int floor) {
+		return upCalls.get(floor) || downCalls.get(floor);
+	}
+
+	/**
+	 * Checks if there are any calls.
+	 *
+	 * @return true if there are calls
+	 */
+	boolean any() {
+		return numAny > 0;
+	}
+
+	/**
+	 * Gets the number of calls in the specified direction.
+	 *
+	 * @param dir the direction
+	 * @return the number of calls
+	 */
+	int count(int dir) {
+		return (dir == UP) ? numUp : numDown;
+	}
+
+	/**
+	 * Gets the lowest floor with a call in the specified direction.
+	 *
+	 * @param dir the direction
+	 * @return the floor, -1 if there are no calls
+	 */
+	int lowest(int dir) {
+		return ((dir == UP) ? upCalls : downCalls).nextSetBit(0);
+	}
+
+	/**
+	 * Gets the highest floor with a call in the specified direction.
+	 *
+	 * @param dir the direction
+	 * @return the floor, -1 if there are no calls
+	 */
+	int highest(int dir) {
+		return ((dir == UP) ? upCalls : downCalls).previousSetBit(tree.length - 2);
+	}
+
+	/**
+	 * Gets the lowest floor at or above the specified floor with a call in the
+	 * specified direction.
+	 *
+	 * @param floor the floor, may be past the top floor
+	 * @param dir the direction
+	 * @return the floor, -1 if there are no calls at or above it
+	 */
+	int nextAtOrAbove(int floor, int dir) {
+		return ((dir == UP) ? upCalls : downCalls).nextSetBit(Math.max(floor, 0));
+	}
+
+	/**
+	 * Gets the highest floor at or below the specified floor with a call in the
+	 * specified direction.
+	 *
+	 * @param floor the floor, may be -1
+	 * @param dir the direction
+	 * @return the floor, -1 if there are no calls at or below it
+	 */
+	int nextAtOrBelow(int floor, int dir) {
+		return ((dir == UP) ? upCalls : downCalls).previousSetBit(Math.max(floor, -1));
+	}
+
+	/**
+	 * Counts the floors at or below the specified floor that have a call.
+	 *
+	 * @param floor the floor, may be -1
+	 * @return the number of floors with calls
+	 */
+	int countAtOrBelow(int floor) {
+		int count = 0;
+		for (int i = Math.min(floor + 1, tree.length - 1); i > 0; i -= i & -i)
+			count += tree[i];
+		return count;
+	}
+
+	/**
+	 * Counts the floors at or above the specified floor that have a call.
+	 *
+	 * @param floor the floor, may be past the top floor
+	 * @return the number of floors with calls
+	 */
+	int countAtOrAbove(int floor) {
+		return numAny - countAtOrBelow(floor - 1);
+	}
+}
@@ -1,5 +1,10 @@
 package building;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
 import passengers.Passengers;
 
 
@@ -23,23 +28,34 @@ public class CallManager {
 	/** The Constant DOWN. */
 	public final static int DOWN = -1;
 
-	/** The up calls array indicates whether or not there is a up call on each floor. */
-	private boolean[] upCalls;
+	/** The index of all calls on every floor. */
+	private CallIndex allCalls;
 
-	/** The down calls array indicates whether or not there is a down call on each floor. */
-	private boolean[] downCalls;
+	/** The index of the calls assigned to each elevator. */
+	private CallIndex[] carCalls;
 
-	/** The up call pending - true if any up calls exist */
-	private boolean upCallPending;
+	/** The elevator assigned to answer the up call on each floor, -1 if none. 
+	 *  Only meaningful while there is an up call on the floor. */
+	private int[] upAssigned;
 
-	/** The down call pending - true if any down calls exit */
-	private boolean downCallPending;
+	/** The elevator assigned to answer the down call on each floor, -1 if none.
+	 *  Only meaningful while there is a down call on the floor. */
+	private int[] downAssigned;
 
-	//TODO: Add any additional fields here..
 
+	/**
+	 * Instantiates a new call manager for the floors of a simulation.
+	 *
+	 * @param floors the floors
+	 * @param context the context of the simulation
+	 */
+	public CallManager(Floor[] floors, SimContext context) {
+		this(floors, context.getConfig().getNumFloors());
+	}
 
 	/**
-	 * Instantiates a new call manager.
+	 * Instantiates a new call manager. Each floor notifies the call manager when
+	 * its queues change, so the calls are tracked incrementally.
 	 *
 	 * @param floors the floors
 	 * @param numFloors the num floors
@@ -47,86 +63,139 @@ public class CallManager {
 	public CallManager(Floor[] floors, int numFloors) {
 		this.floors = floors;
 		NUM_FLOORS = numFloors;
-		upCalls = new boolean[NUM_FLOORS];
-		downCalls = new boolean[NUM_FLOORS];
-		upCallPending = false;
-		downCallPending = false;
+		allCalls = new CallIndex(NUM_FLOORS);
+		upAssigned = new int[NUM_FLOORS];
+		downAssigned = new int[NUM_FLOORS];
+		Arrays.fill(upAssigned, -1);
+		Arrays.fill(downAssigned, -1);
+		setNumCars(1);
+		for (int i = 0; i < NUM_FLOORS; i++) {
+			floors[i].setCallManager(this, i);
+		}
+		updateCallStatus();
+	}
 
-		//TODO: Initialize any added fields here
+	/**
+	 * Sets the number of elevators that calls can be assigned to, and rebuilds
+	 * the index of calls assigned to each elevator.
+	 *
+	 * @param numCars the number of elevators
+	 */
+	void setNumCars(int numCars) {
+		carCalls = new CallIndex[numCars];
+		for (int car = 0; car < numCars; car++) {
+			carCalls[car] = new CallIndex(NUM_FLOORS);
+		}
+		for (int i = 0; i < NUM_FLOORS; i++) {
+			if (allCalls.hasCall(i, UP) && upAssigned[i] >= 0 && upAssigned[i] < numCars) 
+				carCalls[upAssigned[i]].set(i, UP, true);
+			if (allCalls.hasCall(i, DOWN) && downAssigned[i] >= 0 && downAssigned[i] < numCars) 
+				carCalls[downAssigned[i]].set(i, DOWN, true);
+			if (floors[i].hasCarQueues()) {
+				for (int car = 0; car < numCars; car++) {
+					carCalls[car].set(i, UP, !floors[i].empty(UP, car));
+					carCalls[car].set(i, DOWN, !floors[i].empty(DOWN, car));
+				}
+			}
+		}
 	}
 
 	/**
-	 * Update call status. This is an optional method that could be used to compute
-	 * the values of all up and down call fields statically once per tick (to be
-	 * more efficient, could only update when there has been a change to the floor queues -
-	 * either passengers being added or being removed. The alternative is to dynamically
-	 * recalculate the values of specific fields when needed.
+	 * Update call status. Recomputes the calls on every floor from the floor queues.
+	 * This is normally not needed, as each floor reports changes to its queues
+	 * through updateCallStatus(floor, dir).
 	 */
 	void updateCallStatus() {
-		upCallPending = false;
-		downCallPending = false;
-		int i = 0;
-		for(Floor floor: floors) {
-			if(!floor.empty(UP)) {
-				upCalls[i] = true;
-				upCallPending = true;
-			} else 
-				upCalls[i] = false; 
-
-			if(!floor.empty(DOWN)) {
-				downCalls[i] = true;
-				downCallPending = true;
-			} else 
-				downCalls[i] = false;
-			i++;
+		for (int i = 0; i < NUM_FLOORS; i++) {
+			updateCallStatus(i, UP);
+			updateCallStatus(i, DOWN);
+		}
+	}
+
+	/**
+	 * Update call status for one floor and direction. Called by the floor whenever
+	 * a passenger group is added to or removed from one of its queues. With
+	 * destination dispatch or elevator banks, each elevator has a call wherever
+	 * a group assigned to it is waiting.
+	 *
+	 * @param floor the floor
+	 * @param dir the direction
+	 */
+	void updateCallStatus(int floor, int dir) {
+		boolean call = !floors[floor].empty(dir);
+		if (floors[floor].hasCarQueues()) {
+			allCalls.set(floor, dir, call);
+			for (int car = 0; car < carCalls.length; car++)
+				carCalls[car].set(floor, dir, !floors[floor].empty(dir, car));
+			return;
 		}
+		if (allCalls.hasCall(floor, dir) == call) return;
+		allCalls.set(floor, dir, call);
+		int car = getAssignedCar(floor, dir);
+		if (car >= 0 && car < carCalls.length) carCalls[car].set(floor, dir, call);
 	}
 
 
 	/**
-	 * Used by building to determine based on current floor
+	 * Assigns the call on the floor in the specified direction to an elevator.
 	 * 
-	 * 
-	 * @param floor
-	 * @return
+	 * @param floor the floor of the call
+	 * @param dir the direction of the call
+	 * @param car the index of the elevator that will answer the call
 	 */
-	public int direction(int currFloor) {
-		int upDirection = 0;
-		for (int i = 0; i <= currFloor; i++) {
-			if (upCalls[i] || downCalls[i]) upDirection--;
-		}
-		for (int i = currFloor; i < NUM_FLOORS; i++) {
-			if (upCalls[i] || downCalls[i]) upDirection++;
+	void assignCall(int floor, int dir, int car) {
+		int prevCar = getAssignedCar(floor, dir);
+		if (allCalls.hasCall(floor, dir) && prevCar != car) {
+			if (prevCar >= 0 && prevCar < carCalls.length) carCalls[prevCar].set(floor, dir, false);
+			carCalls[car].set(floor, dir, true);
 		}
+		if (dir == UP) upAssigned[floor] = car;
+		else downAssigned[floor] = car;
+	}
+
+	/**
+	 * Gets the elevator assigned to the call on the floor in the specified direction.
+	 * 
+	 * @param floor the floor of the call
+	 * @param dir the direction of the call
+	 * @return the index of the elevator, -1 if no call has been assigned
+	 */
+	public int getAssignedCar(int floor, int dir) {
+		return (dir == UP) ? upAssigned[floor] : downAssigned[floor];
+	}
+
+	/**
+	 * Used by building to determine based on current floor which direction has
+	 * more calls assigned to the elevator
+	 * 
+	 * @param currFloor the current floor
+	 * @param car the index of the elevator
+	 * @return UP or DOWN
+	 */
+	public int direction(int currFloor, int car) {
+		CallIndex calls = carCalls[car];
+		int upDirection = calls.countAtOrAbove(currFloor) - calls.countAtOrBelow(currFloor);
 		return (upDirection >= 0) ? UP : DOWN;
 	}
 
 	/**
+	 * Gets the number of up calls assigned to the elevator
 	 * 
-	 * @param currFloor
-	 * @return
-	 */
-	public int getUpCalls() {
-		int numCalls = 0;
-		for(int i = 0; i < NUM_FLOORS; i++) {
-			if(upCalls[i])
-				numCalls++;
-		}
-		return numCalls;
+	 * @param car the index of the elevator
+	 * @return the number of up calls
+	 */
+	public int getUpCalls(int car) {
+		return carCalls[car].count(UP);
 	}
 
 	/**
+	 * Gets the number of down calls assigned to the elevator
 	 * 
-	 * @param currFloor
-	 * @return
-	 */
-	public int getDownCalls() {
-		int numCalls = 0;
-		for(int i = 0; i < NUM_FLOORS; i++) {
-			if(downCalls[i])
-				numCalls++;
-		}
-		return numCalls;
+	 * @param car the index of the elevator
+	 * @return the number of down calls
+	 */
+	public int getDownCalls(int car) {
+		return carCalls[car].count(DOWN);
 	}
 
 	/**
@@ -135,54 +204,51 @@ public class CallManager {
 	 * difBwHighupAndFlr - difference between the highest down call and the current floor
 	 * 
 	 *
-	 * @param current floor
+	 * Only the calls assigned to the elevator are considered.
+	 *
+	 * @param floor the current floor
+	 * @param car the index of the elevator
 	 * @return the passengers
 	 */
-	Passengers prioritizePassengerCalls(int floor) {
-		updateCallStatus();
-		int dir = direction(floor);
-		if(upCalls[floor] || downCalls[floor]) {
-			Passengers upCallOnFlr = floors[floor].peek(UP), downCallOnFlr = floors[floor].peek(DOWN);
-			if(!upCalls[floor]) return downCallOnFlr;
-			if(!downCalls[floor]) return upCallOnFlr;
-			if(upCalls[floor] && downCalls[floor]) {
-				return (dir == UP) ? upCallOnFlr : downCallOnFlr;
-			}
+	Passengers prioritizePassengerCalls(int floor, int car) {
+		int dir = direction(floor, car);
+		boolean upCallOnFloor = carCalls[car].hasCall(floor, UP), downCallOnFloor = carCalls[car].hasCall(floor, DOWN);
+		if(upCallOnFloor || downCallOnFloor) {
+			Passengers upCallOnFlr = floors[floor].peek(UP, car), downCallOnFlr = floors[floor].peek(DOWN, car);
+			if(!upCallOnFloor) return downCallOnFlr;
+			if(!downCallOnFloor) return upCallOnFlr;
+			return (dir == UP) ? upCallOnFlr : downCallOnFlr;
 		} else {
-			Passengers lowUpPas = lowestUpCall(), highDownPas = highestDownCall();
+			Passengers lowUpPas = lowestUpCall(car), highDownPas = highestDownCall(car);
 			if (lowUpPas == null && highDownPas == null) return null;
 			if (lowUpPas == null) return highDownPas;
 			if (highDownPas == null) return lowUpPas;
 			int diffLow = floor - lowUpPas.getOnFloor(), 
 					diffHigh = highDownPas.getOnFloor() - floor;
-			int numUp = getUpCalls(), numDown = getDownCalls();
+			int numUp = getUpCalls(car), numDown = getDownCalls(car);
 			if(numUp > numDown) return lowUpPas;
 			if(numDown > numUp) return highDownPas;
 			return (diffLow <= diffHigh) ? lowUpPas : highDownPas;
 		}
-	//	System.out.println("No call1");
-		return null;
 	}
 
-
-	//TODO: Write any additional methods here. Things that you might consider:
-	//      1. pending calls - are there any? only up? only down?
-	//      2. is there a call on the current floor in the current direction
-	//      3. How many up calls are pending? how many down calls are pending? 
-	//      4. How many calls are pending in the direction that the elevator is going
-	//      5. Should the elevator change direction?
-	//
-	//      These are an example - you may find you don't need some of these, or you may need more...
-
 	/**
 	 * Checks if there is any call during the current tick
 	 * 
 	 * @return true if calls pending
 	 */
 	public boolean callPending() {
-		if(upCallPending || downCallPending)
-			return true;
-		return false;
+		return allCalls.any();
+	}
+
+	/**
+	 * Checks if there is any call assigned to the elevator during the current tick
+	 * 
+	 * @param car the index of the elevator
+	 * @return true if calls pending for the elevator
+	 */
+	public boolean callPending(int car) {
+		return carCalls[car].any();
 	}
 	
 
@@ -190,44 +256,130 @@ public class CallManager {
 	/** When the elevator is going down, finds the lowest floor to arrive on.
 	 *  Will continue going until it reaches that floor (Newton's law of elevators)
 	 * 
+	 * @param car the index of the elevator
 	 * @return pass on lowest call going up, null if there are no calls present
 	 */
-	public Passengers lowestUpCall() {
-		for (int i = 0; i < NUM_FLOORS; i++) {
-			if (upCalls[i]) return floors[i].peek(UP);
-		}
-		return null;
+	public Passengers lowestUpCall(int car) {
+		int floor = carCalls[car].lowest(UP);
+		return (floor >= 0) ? floors[floor].peek(UP, car) : null;
 	}
 
 	/**
 	 * When the elevator is going up, finds the highest floor to arrive on.
 	 * Will continue going until it reaches that floor (Newton's law of elevators)
 	 *  
+	 * @param car the index of the elevator
 	 * @return pass on highest call going down, null if there are no calls present
-
 	 */
-	public Passengers highestDownCall() {
-		for (int i = NUM_FLOORS - 1; i >= 0; i--) {
-			if (downCalls[i]) return floors[i].peek(DOWN);
-		}
-		return null;
+	public Passengers highestDownCall(int car) {
+		int floor = carCalls[car].highest(DOWN);
+		return (floor >= 0) ? floors[floor].peek(DOWN, car) : null;
 	}
 	
 	/**
-	 * Checks if there are calls going in the direction the elevator is going 
-	 * to go
+	 * Checks if there are calls assigned to the elevator in the direction the 
+	 * elevator is going to go
 	 * 
-	 * @param currFloor
-	 * @param dir
+	 * @param currFloor the current floor
+	 * @param dir the direction
+	 * @param car the index of the elevator
 	 * @return if any call in direction
 	 */
-	public boolean callsInDir(int currFloor, int dir) {
-		updateCallStatus();
-		for (int i = currFloor + dir; i < NUM_FLOORS && i >= 0; i += dir) {
-			if (upCalls[i] || downCalls[i]) return true;
-		}
-		return false;
+	public boolean callsInDir(int currFloor, int dir, int car) {
+		if (dir == UP) return carCalls[car].countAtOrAbove(currFloor + 1) > 0;
+		return carCalls[car].countAtOrBelow(currFloor - 1) > 0;
+	}
+
+	/**
+	 * Checks if the call on the floor in the specified direction is assigned to
+	 * the elevator.
+	 *
+	 * @param floor the floor
+	 * @param dir the direction
+	 * @param car the index of the elevator
+	 * @return true if the elevator has the call
+	 */
+	public boolean hasCall(int floor, int dir, int car) {
+		return carCalls[car].hasCall(floor, dir);
+	}
+
+	/**
+	 * Finds the lowest floor at or above the specified floor with a call in the
+	 * specified direction assigned to the elevator.
+	 *
+	 * @param floor the floor, may be past the top floor
+	 * @param dir the direction of the call
+	 * @param car the index of the elevator
+	 * @return the floor, -1 if there is none
+	 */
+	public int callAtOrAbove(int floor, int dir, int car) {
+		return carCalls[car].nextAtOrAbove(floor, dir);
+	}
+
+	/**
+	 * Finds the highest floor at or below the specified floor with a call in the
+	 * specified direction assigned to the elevator.
+	 *
+	 * @param floor the floor, may be -1
+	 * @param dir the direction of the call
+	 * @param car the index of the elevator
+	 * @return the floor, -1 if there is none
+	 */
+	public int callAtOrBelow(int floor, int dir, int car) {
+		return carCalls[car].nextAtOrBelow(floor, dir);
+	}
+
+	/**
+	 * Gets the passenger group at the head of the queue that the elevator
+	 * boards from for the call.
+	 *
+	 * @param floor the floor
+	 * @param dir the direction
+	 * @param car the index of the elevator
+	 * @return the passengers, null if there is no call
+	 */
+	public Passengers getCall(int floor, int dir, int car) {
+		return floors[floor].peek(dir, car);
 	}
 
+	/**
+	 * Gets a floor, so a dispatch strategy can look past the head of its queues.
+	 *
+	 * @param floor the floor
+	 * @return the floor
+	 */
+	Floor getFloor(int floor) {
+		return floors[floor];
+	}
 
+	/**
+	 * Writes the elevator assigned to each floor's calls, for a snapshot of the
+	 * simulation. The calls themselves are not written - they follow from the
+	 * floor queues.
+	 *
+	 * @param out the output
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	void writeState(DataOutput out) throws IOException {
+		for (int i = 0; i < NUM_FLOORS; i++) {
+			out.writeInt(upAssigned[i]);
+			out.writeInt(downAssigned[i]);
+		}
+	}
+
+	/**
+	 * Reads the assignments written by writeState(). Must be called before the
+	 * floor queues are restored, so the calls they report are indexed for the
+	 * assigned elevators.
+	 *
+	 * @param in the input
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	void readState(DataInput in) throws IOException {
+		for (int i = 0; i < NUM_FLOORS; i++) {
+			upAssigned[i] = in.readInt();
+			downAssigned[i] = in.readInt();
+		}
+		setNumCars(carCalls.length);
+	}
 }
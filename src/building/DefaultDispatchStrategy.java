@@ -0,0 +1,39 @@
+package building;
+
+import passengers.Passengers;
+
+/**
+ * The Class DefaultDispatchStrategy. The original behavior of the simulation.
+ * From the STOP state, a call on the current floor is answered first; otherwise
+ * the elevator goes to the lowest up call or the highest down call, whichever
+ * direction has more calls, or whichever is closer if they have the same number.
+ * An empty elevator keeps going while it has calls further on in its direction.
+ */
+public class DefaultDispatchStrategy implements DispatchStrategy {
+
+	/**
+	 * Selects the call that an elevator in the STOP state answers next.
+	 *
+	 * @param callMgr the call manager
+	 * @param elevator the elevator
+	 * @param car the index of the elevator
+	 * @return the passenger group, or null to stay stopped
+	 */
+	@Override
+	public Passengers selectCall(CallManager callMgr, Elevator elevator, int car) {
+		return callMgr.prioritizePassengerCalls(elevator.getCurrFloor(), car);
+	}
+
+	/**
+	 * Keeps going while there are calls further on in the elevator's direction.
+	 *
+	 * @param callMgr the call manager
+	 * @param elevator the elevator
+	 * @param car the index of the elevator
+	 * @return true to keep going
+	 */
+	@Override
+	public boolean keepGoing(CallManager callMgr, Elevator elevator, int car) {
+		return callMgr.callsInDir(elevator.getCurrFloor(), elevator.getDirection(), car);
+	}
+}
@@ -0,0 +1,100 @@
+package building;
+
+import passengers.Passengers;
+
+/**
+ * The Class DestinationDispatcher. Destination dispatch: each passenger group
+ * is assigned to an elevator as soon as it calls, using the floor it is going
+ * to, and waits in that elevator's own queue on its floor. The group goes to
+ * the elevator that would pick it up soonest - predicted as by the
+ * EtaDispatcher - plus the time of each stop the group would add: none if the
+ * elevator already has groups to pick up on the floor going the same way, and
+ * none if it already has passengers on board, or groups waiting, going to the
+ * same floor. So groups for the same floor are gathered into the same elevator,
+ * and each elevator makes fewer stops. An elevator whose queue on the floor
+ * would be more than it can carry is penalized by a trip to the top and back.
+ * Ties go to the lowest numbered elevator.
+ */
+public class DestinationDispatcher implements Dispatcher {
+
+	/** The call manager of the building. */
+	private final CallManager callMgr;
+
+	/** Predicts when each elevator would arrive for a group. */
+	private final EtaDispatcher eta;
+
+	/**
+	 * Instantiates a new destination dispatcher.
+	 *
+	 * @param callMgr the call manager of the building
+	 */
+	public DestinationDispatcher(CallManager callMgr) {
+		this.callMgr = callMgr;
+		eta = new EtaDispatcher(callMgr);
+	}
+
+	/**
+	 * Selects the elevator to answer a call. Destination dispatch assigns
+	 * groups rather than calls, so this is only used for a call as a whole, and
+	 * picks the elevator that would arrive first.
+	 *
+	 * @param elevators the elevators in the building
+	 * @param floor the floor of the call
+	 * @param dir the direction of the call
+	 * @return the index of the selected elevator
+	 */
+	@Override
+	public int selectCar(Elevator[] elevators, int floor, int dir) {
+		return eta.selectCar(elevators, floor, dir);
+	}
+
+	/**
+	 * Selects the elevator that a passenger group that has just called will
+	 * wait for, from those that serve both ends of its current leg.
+	 *
+	 * @param elevators the elevators in the building
+	 * @param p the passenger group
+	 * @return the index of the selected elevator
+	 */
+	@Override
+	public int selectCar(Elevator[] elevators, Passengers p) {
+		int floor = p.getOnFloor(), dir = p.getDirection();
+		int bestCar = -1;
+		int bestCost = Integer.MAX_VALUE;
+		for (int car = 0; car < elevators.length; car++) {
+			Elevator elevator = elevators[car];
+			if (!elevator.canCarry(p)) continue;
+			int stop = 2 * elevator.getTicksDoorOpenClose() + elevator.getTicksPerFloor();
+			int cost = eta.eta(elevator, car, floor, dir);
+			if (!callMgr.hasCall(floor, dir, car)) cost += stop;
+			if (!stopsAt(elevator, car, p.getDestFloor())) cost += stop;
+			if (callMgr.getFloor(floor).numWaiting(dir, car) + p.getNumPass() > elevator.getCapacity())
+				cost += 2 * (elevator.getNumFloors() - 1) * elevator.getTicksPerFloor();
+			if (cost < bestCost) {
+				bestCost = cost;
+				bestCar = car;
+			}
+		}
+		if (bestCar < 0) throw new IllegalStateException("No elevator can carry passID="+p.getId());
+		return bestCar;
+	}
+
+	/**
+	 * Checks if the elevator will already stop at a floor to let passengers off -
+	 * either passengers on board, or groups waiting for it, are going there.
+	 *
+	 * @param elevator the elevator
+	 * @param car the index of the elevator
+	 * @param destFloor the floor
+	 * @return true, if the elevator will stop there
+	 */
+	private boolean stopsAt(Elevator elevator, int car, int destFloor) {
+		if (elevator.getAlighting(destFloor) > 0) return true;
+		for (int floor = 0; floor < elevator.getNumFloors(); floor++) {
+			if ((callMgr.hasCall(floor, 1, car) || callMgr.hasCall(floor, -1, car)) &&
+					callMgr.getFloor(floor).hasDestination(destFloor, car))
+				return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,46 @@
+package building;
+
+import passengers.Passengers;
+
+/**
+ * The Class DestinationGroupingStrategy. From the STOP state, the elevator goes
+ * to the call whose queue holds the most passengers going to one floor, so that
+ * a trip carries as many passengers as possible to the same destination; a tie
+ * goes to the nearer call. An empty elevator keeps going while it has calls
+ * further on in its direction, as in the default strategy.
+ */
+public class DestinationGroupingStrategy extends DefaultDispatchStrategy {
+
+	/** The Constant UP. */
+	private static final int UP = 1;
+
+	/** The Constant DOWN. */
+	private static final int DOWN = -1;
+
+	/**
+	 * Selects the call with the largest group of passengers for one floor.
+	 *
+	 * @param callMgr the call manager
+	 * @param elevator the elevator
+	 * @param car the index of the elevator
+	 * @return the passenger group, or null to stay stopped
+	 */
+	@Override
+	public Passengers selectCall(CallManager callMgr, Elevator elevator, int car) {
+		int floor = elevator.getCurrFloor();
+		int bestFloor = -1, bestDir = UP, bestGroup = 0, bestDistance = Integer.MAX_VALUE;
+		for (int dir = UP; dir >= DOWN; dir -= 2) {
+			for (int f = callMgr.callAtOrAbove(0, dir, car); f >= 0; f = callMgr.callAtOrAbove(f + 1, dir, car)) {
+				int group = callMgr.getFloor(f).largestDestinationGroup(dir, car);
+				int distance = Math.abs(f - floor);
+				if (group > bestGroup || (group == bestGroup && distance < bestDistance)) {
+					bestFloor = f;
+					bestDir = dir;
+					bestGroup = group;
+					bestDistance = distance;
+				}
+			}
+		}
+		return (bestFloor < 0) ? null : callMgr.getCall(bestFloor, bestDir, car);
+	}
+}
@@ -0,0 +1,61 @@
+package building;
+
+import java.util.Locale;
+
+import passengers.Passengers;
+
+/**
+ * The Interface DispatchStrategy. Once the Dispatcher has decided which elevator
+ * answers each call, the strategy decides how the elevator works through its
+ * calls: which call it goes to from the STOP state, and whether an empty
+ * elevator keeps going in its direction or turns round. The Building consults it
+ * from the STOP, OFFLD, CLOSEDR and MV1FLR states, so every strategy runs on the
+ * same state machine and the strategies can be compared head to head. The
+ * strategy is chosen by name in the config file.
+ */
+public interface DispatchStrategy {
+
+	/** The name of the default strategy. */
+	String DEFAULT = "default";
+
+	/**
+	 * Selects the call that an elevator in the STOP state answers next.
+	 *
+	 * @param callMgr the call manager
+	 * @param elevator the elevator
+	 * @param car the index of the elevator
+	 * @return the passenger group at the head of the call's queue, or null to stay stopped
+	 */
+	Passengers selectCall(CallManager callMgr, Elevator elevator, int car);
+
+	/**
+	 * Decides whether an empty elevator keeps going in its direction from its
+	 * current floor. If not, it answers a call on the floor in the other
+	 * direction, or turns round, or stops.
+	 *
+	 * @param callMgr the call manager
+	 * @param elevator the elevator
+	 * @param car the index of the elevator
+	 * @return true to keep going
+	 */
+	boolean keepGoing(CallManager callMgr, Elevator elevator, int car);
+
+	/**
+	 * Creates the strategy with the name used in the config file - default,
+	 * nearest, look, scan or grouping.
+	 *
+	 * @param name the name
+	 * @return the strategy
+	 * @throws IllegalArgumentException if there is no strategy with the name
+	 */
+	static DispatchStrategy forName(String name) {
+		switch (name.toLowerCase(Locale.ROOT)) {
+		case DEFAULT: return new DefaultDispatchStrategy();
+		case "nearest": return new NearestCallStrategy();
+		case "look": return new LookStrategy();
+		case "scan": return new ScanStrategy();
+		case "grouping": return new DestinationGroupingStrategy();
+		default: throw new IllegalArgumentException("Unknown dispatch strategy "+name);
+		}
+	}
+}
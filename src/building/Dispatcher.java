@@ -0,0 +1,69 @@
+package building;
+
+import java.util.Locale;
+
+import passengers.Passengers;
+
+/**
+ * The Interface Dispatcher. When a new call is made on a floor, the Building
+ * asks the dispatcher which elevator in the bank should answer it. The 
+ * selected elevator will consider the call when it is in the STOP state or
+ * deciding whether to keep moving; other elevators may still stop for the 
+ * call if they pass the floor traveling in the direction of the call.
+ */
+public interface Dispatcher {
+
+	/**
+	 * Selects the elevator to answer a call.
+	 *
+	 * @param elevators the elevators in the building
+	 * @param floor the floor of the call
+	 * @param dir the direction of the call
+	 * @return the index of the selected elevator
+	 */
+	int selectCar(Elevator[] elevators, int floor, int dir);
+
+	/**
+	 * Selects the elevator that a passenger group that has just called will
+	 * wait for, when each elevator has its own queues on every floor. Only an
+	 * elevator that serves both ends of the group's current leg can be selected.
+	 * By default, the call is dispatched as a call on the floor among those
+	 * elevators alone.
+	 *
+	 * @param elevators the elevators in the building
+	 * @param p the passenger group
+	 * @return the index of the selected elevator
+	 * @throws IllegalStateException if no elevator can carry the group
+	 */
+	default int selectCar(Elevator[] elevators, Passengers p) {
+		int[] cars = new int[elevators.length];
+		int n = 0;
+		for (int car = 0; car < elevators.length; car++)
+			if (elevators[car].canCarry(p)) cars[n++] = car;
+		if (n == 0) throw new IllegalStateException("No elevator can carry passID="+p.getId());
+		Elevator[] able = new Elevator[n];
+		for (int i = 0; i < n; i++) able[i] = elevators[cars[i]];
+		return cars[selectCar(able, p.getOnFloor(), p.getDirection())];
+	}
+
+	/** The name of the default dispatcher. */
+	String DEFAULT = "nearest";
+
+	/**
+	 * Creates the dispatcher with the name used in the config file - nearest,
+	 * eta or destination.
+	 *
+	 * @param name the name
+	 * @param callMgr the call manager of the building the dispatcher is for
+	 * @return the dispatcher
+	 * @throws IllegalArgumentException if there is no dispatcher with the name
+	 */
+	static Dispatcher forName(String name, CallManager callMgr) {
+		switch (name.toLowerCase(Locale.ROOT)) {
+		case DEFAULT: return new NearestCarDispatcher();
+		case "eta": return new EtaDispatcher(callMgr);
+		case "destination": return new DestinationDispatcher(callMgr);
+		default: throw new IllegalArgumentException("Unknown dispatcher "+name);
+		}
+	}
+}
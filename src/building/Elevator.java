@@ -1,6 +1,10 @@
 package building;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 
+import passengers.PassengerStore;
 import passengers.Passengers;
 
 // Owner: Yash Panwar
@@ -86,6 +90,9 @@ public class Elevator {
 
 	/** The pass by floor. */
 	private ArrayList<Passengers>[] passByFloor;  // Passengers to exit on the corresponding floor
+	
+	/** The number of people who will exit on each floor - kept up to date as groups board and exit */
+	private int[] alighting;
 
 	/** The move to floor. */
 	private int moveToFloor;	// When exiting the STOP state, this is the floor to move to without
@@ -104,6 +111,15 @@ public class Elevator {
 	/** Records if the elevator is currently full */
 	private boolean currFull;
 	
+	/** The number of floors the elevator has moved */
+	private int floorsTravelled;
+	
+	/** The number of times the elevator has started to open its doors */
+	private int numStops;
+	
+	/** The floors the elevator stops at, or null if it serves every floor */
+	private boolean[] served;
+	
 	/**
 	 * Instantiates a new elevator.
 	 *
@@ -120,17 +136,31 @@ public class Elevator {
 		this.timeInState = 0;
 		this.currFloor = 0;
 		passByFloor = new ArrayList[numFloors];
+		alighting = new int[numFloors];
 
 		for (int i = 0; i < numFloors; i++) 
 			passByFloor[i] = new ArrayList<Passengers>(); 
 
-		//TODO: Finish this constructor, adding configuration initialiation and
-		//      initialization of any other private fields, etc.
+		this.capacity = capacity;
+		this.ticksPerFloor = floorTicks;
+		this.ticksDoorOpenClose = doorTicks;
+		this.passPerTick = passPerTick;
 		delayTime = 0;
 		numBoarded = 0;
 		currFull = false;
 	}
 
+	/**
+	 * Instantiates a new elevator with the characteristics in the configuration
+	 * of a simulation.
+	 *
+	 * @param context the context of the simulation
+	 */
+	public Elevator(SimContext context) {
+		this(context.getConfig().getNumFloors(), context.getConfig().getCapacity(), context.getConfig().getFloorTicks(),
+			 context.getConfig().getDoorTicks(), context.getConfig().getPassPerTick());
+	}
+
 	/**
 	 * Instantiates a new elevator
 	 * 
@@ -142,6 +172,7 @@ public class Elevator {
 		this.timeInState = 0;
 		this.currFloor = 0;
 		passByFloor = new ArrayList[numFloors];
+		alighting = new int[numFloors];
 
 		for (int i = 0; i < numFloors; i++) 
 			passByFloor[i] = new ArrayList<Passengers>(); 
@@ -196,7 +227,7 @@ public class Elevator {
 	 *
 	 * @return the curr state
 	 */
-	int getCurrState() {
+	public int getCurrState() {
 		return this.currState;
 	}
 
@@ -223,10 +254,19 @@ public class Elevator {
 	 *
 	 * @return the curr floor
 	 */
-	int getCurrFloor() {
+	public int getCurrFloor() {
 		return this.currFloor;
 	}
 
+	/**
+	 * Gets the number of floors served by the elevator.
+	 *
+	 * @return the num floors
+	 */
+	public int getNumFloors() {
+		return passByFloor.length;
+	}
+
 	/**
 	 * Sets the direction
 	 * 
@@ -244,8 +284,10 @@ public class Elevator {
 	void updateCurrState(int currState) {
 		this.prevState = this.currState;
 		this.currState = currState;
-		if(this.prevState != this.currState) 
+		if(this.prevState != this.currState) {
 			timeInState = 0;
+			if (currState == OPENDR) numStops++;
+		}
 
 	}
 
@@ -258,10 +300,29 @@ public class Elevator {
 		prevFloor = currFloor;
 		if((timeInState % ticksPerFloor) == 0) {
 			currFloor += direction;
+			floorsTravelled++;
 		}
 	}
 
 
+	/**
+	 * Gets the number of floors the elevator has moved.
+	 *
+	 * @return the floors travelled
+	 */
+	public int getFloorsTravelled() {
+		return floorsTravelled;
+	}
+
+	/**
+	 * Gets the number of times the elevator has started to open its doors.
+	 *
+	 * @return the number of stops
+	 */
+	public int getNumStops() {
+		return numStops;
+	}
+
 	/**
 	 * Returns passByFloor
 	 * 
@@ -344,9 +405,84 @@ public class Elevator {
 	 */
 	public void boardPassengers(Passengers p) {
 		passByFloor[p.getDestFloor()].add(p);
+		alighting[p.getDestFloor()] += p.getNumPass();
 		numPassengers += p.getNumPass();
 	}
 
+	/**
+	 * Removes the passenger groups that exit on the floor. The number of people
+	 * in the elevator is updated by calculateOffloadDelay().
+	 *
+	 * @param floor the floor
+	 */
+	void clearPassengers(int floor) {
+		passByFloor[floor].clear();
+		alighting[floor] = 0;
+	}
+
+	/**
+	 * Gets the number of people who will exit on the floor.
+	 *
+	 * @param floor the floor
+	 * @return the number of people
+	 */
+	int getAlighting(int floor) {
+		return alighting[floor];
+	}
+
+	/**
+	 * Sets the floors the elevator serves, for an elevator in a bank - it runs
+	 * past the other floors without stopping.
+	 *
+	 * @param served the floors served, indexed by floor
+	 */
+	void setServedFloors(boolean[] served) {
+		this.served = served;
+	}
+
+	/**
+	 * Checks if the elevator stops at the floor.
+	 *
+	 * @param floor the floor
+	 * @return true, if the elevator serves the floor
+	 */
+	boolean serves(int floor) {
+		return served == null || served[floor];
+	}
+
+	/**
+	 * Checks if the elevator serves both ends of the current leg of a passenger
+	 * group's trip.
+	 *
+	 * @param p the passenger group
+	 * @return true, if the group can ride this elevator
+	 */
+	boolean canCarry(Passengers p) {
+		return serves(p.getOnFloor()) && serves(p.getDestFloor());
+	}
+
+	/**
+	 * Gets the lowest floor the elevator serves.
+	 *
+	 * @return the lowest floor
+	 */
+	int getLowestFloor() {
+		int floor = 0;
+		while (!serves(floor)) floor++;
+		return floor;
+	}
+
+	/**
+	 * Gets the highest floor the elevator serves.
+	 *
+	 * @return the highest floor
+	 */
+	int getHighestFloor() {
+		int floor = passByFloor.length - 1;
+		while (!serves(floor)) floor--;
+		return floor;
+	}
+
 	/**
 	 * Increments time in state, updates door state accordingly
 	 */
@@ -394,6 +530,25 @@ public class Elevator {
 		timeInState++;
 	}
 	
+	/**
+	 * Advances the time in state by the specified number of ticks. Used to 
+	 * jump over ticks in which the elevator would only be counting time.
+	 * 
+	 * @param ticks the number of ticks to skip
+	 */
+	void skipTicks(int ticks) {
+		timeInState += ticks;
+	}
+	
+	/**
+	 * Gets the delay time for the current boarding or offloading
+	 * 
+	 * @return the delay time
+	 */
+	int getDelayTime() {
+		return delayTime;
+	}
+	
 	/**
 	 * Sets the previous state
 	 * 
@@ -403,6 +558,15 @@ public class Elevator {
 		this.prevState = prevState;
 	}
 	
+	/**
+	 * Sets the previous floor
+	 * 
+	 * @param prevFloor the previous floor
+	 */
+	public void setPrevFloor(int prevFloor) {
+		this.prevFloor = prevFloor;
+	}
+	
 	/**
 	 * Gets the number of passengers currently boarded in this state
 	 * 
@@ -457,4 +621,75 @@ public class Elevator {
 		this.postMoveToFloorDir = postMoveToFloorDir;
 	}
 
+	/**
+	 * Writes the state of the elevator for a snapshot of the simulation. The
+	 * passengers in the elevator are written as their ids, in the order they
+	 * will be offloaded on each floor.
+	 *
+	 * @param out the output
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	void writeState(DataOutput out) throws IOException {
+		out.writeInt(capacity);
+		out.writeInt(ticksPerFloor);
+		out.writeInt(ticksDoorOpenClose);
+		out.writeInt(passPerTick);
+		out.writeInt(currState);
+		out.writeInt(prevState);
+		out.writeInt(prevFloor);
+		out.writeInt(currFloor);
+		out.writeInt(direction);
+		out.writeInt(timeInState);
+		out.writeInt(doorState);
+		out.writeInt(numPassengers);
+		out.writeInt(moveToFloor);
+		out.writeInt(postMoveToFloorDir);
+		out.writeInt(delayTime);
+		out.writeInt(numBoarded);
+		out.writeBoolean(currFull);
+		out.writeInt(floorsTravelled);
+		out.writeInt(numStops);
+		for (ArrayList<Passengers> floor : passByFloor) {
+			out.writeInt(floor.size());
+			for (Passengers p : floor) out.writeInt(p.getId());
+		}
+	}
+
+	/**
+	 * Replaces the state of the elevator with the state written by writeState().
+	 *
+	 * @param in the input
+	 * @param store the store holding the passengers in the elevator
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	void readState(DataInput in, PassengerStore store) throws IOException {
+		capacity = in.readInt();
+		ticksPerFloor = in.readInt();
+		ticksDoorOpenClose = in.readInt();
+		passPerTick = in.readInt();
+		currState = in.readInt();
+		prevState = in.readInt();
+		prevFloor = in.readInt();
+		currFloor = in.readInt();
+		direction = in.readInt();
+		timeInState = in.readInt();
+		doorState = in.readInt();
+		numPassengers = in.readInt();
+		moveToFloor = in.readInt();
+		postMoveToFloorDir = in.readInt();
+		delayTime = in.readInt();
+		numBoarded = in.readInt();
+		currFull = in.readBoolean();
+		floorsTravelled = in.readInt();
+		numStops = in.readInt();
+		for (int floor = 0; floor < passByFloor.length; floor++) {
+			clearPassengers(floor);
+			int n = in.readInt();
+			for (int i = 0; i < n; i++) {
+				Passengers p = store.get(in.readInt());
+				passByFloor[floor].add(p);
+				alighting[floor] += p.getNumPass();
+			}
+		}
+	}
 }
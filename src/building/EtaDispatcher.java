@@ -0,0 +1,187 @@
+package building;
+
+import passengers.Passengers;
+
+/**
+ * The Class EtaDispatcher. Assigns each call to the elevator that is predicted
+ * to arrive at it first. The prediction follows the elevator through the rest
+ * of its current state and then along its sweep: it stops wherever passengers
+ * will get off and wherever it has been assigned a call in the direction it is
+ * going, and turns round at its last stop, until it reaches the call going the
+ * right way. Every floor travelled costs ticksPerFloor; every stop costs the
+ * doors opening and closing plus the ticks to let the passengers off and the
+ * group at the head of the queue on, at passPerTick. An elevator that would be
+ * too full to take the group is penalized by a trip to the top and back.
+ *
+ * The stops come from the schedules that are already kept up to date as the
+ * simulation runs - the number of people getting off at each floor is counted
+ * by each Elevator as groups board and exit, and the calls assigned to each
+ * elevator are indexed by the CallManager - so no state is rebuilt for a call.
+ * Ties go to the lowest numbered elevator.
+ */
+public class EtaDispatcher implements Dispatcher {
+
+	/** The Constant UP. */
+	private static final int UP = 1;
+
+	/** The Constant DOWN. */
+	private static final int DOWN = -1;
+
+	/** The call manager of the building. */
+	private final CallManager callMgr;
+
+	/**
+	 * Instantiates a new ETA dispatcher.
+	 *
+	 * @param callMgr the call manager of the building
+	 */
+	public EtaDispatcher(CallManager callMgr) {
+		this.callMgr = callMgr;
+	}
+
+	/**
+	 * Selects the elevator with the earliest predicted arrival at the call.
+	 *
+	 * @param elevators the elevators in the building
+	 * @param floor the floor of the call
+	 * @param dir the direction of the call
+	 * @return the index of the selected elevator
+	 */
+	@Override
+	public int selectCar(Elevator[] elevators, int floor, int dir) {
+		int bestCar = 0;
+		int bestEta = Integer.MAX_VALUE;
+		for (int car = 0; car < elevators.length; car++) {
+			int eta = eta(elevators[car], car, floor, dir);
+			if (eta < bestEta) {
+				bestEta = eta;
+				bestCar = car;
+			}
+		}
+		return bestCar;
+	}
+
+	/**
+	 * Selects the elevator with the earliest predicted arrival for a passenger
+	 * group, from those that serve both ends of its current leg.
+	 *
+	 * @param elevators the elevators in the building
+	 * @param p the passenger group
+	 * @return the index of the selected elevator
+	 */
+	@Override
+	public int selectCar(Elevator[] elevators, Passengers p) {
+		int bestCar = -1;
+		int bestEta = Integer.MAX_VALUE;
+		for (int car = 0; car < elevators.length; car++) {
+			if (!elevators[car].canCarry(p)) continue;
+			int eta = eta(elevators[car], car, p.getOnFloor(), p.getDirection());
+			if (eta < bestEta) {
+				bestEta = eta;
+				bestCar = car;
+			}
+		}
+		if (bestCar < 0) throw new IllegalStateException("No elevator can carry passID="+p.getId());
+		return bestCar;
+	}
+
+	/**
+	 * Predicts the number of ticks until the elevator opens its doors for the call.
+	 *
+	 * @param elevator the elevator
+	 * @param car the index of the elevator
+	 * @param floor the floor of the call
+	 * @param dir the direction of the call
+	 * @return the ticks
+	 */
+	int eta(Elevator elevator, int car, int floor, int dir) {
+		int floorTicks = elevator.getTicksPerFloor(), doorTicks = elevator.getTicksDoorOpenClose();
+		int at = elevator.getCurrFloor();
+		int d = (elevator.getDirection() == DOWN) ? DOWN : UP;
+		int inState = elevator.getTimeInState();
+		int time;
+		switch (elevator.getCurrState()) {
+		case Elevator.STOP:
+			time = 0;
+			d = callMgr.callPending(car) ? callMgr.direction(at, car) : ((floor >= at) ? UP : DOWN);
+			break;
+		case Elevator.MVTOFLR:
+			int moveTo = elevator.getMoveToFloor();
+			time = Math.abs(moveTo - at) * floorTicks - inState % floorTicks;
+			at = moveTo;
+			d = (elevator.getPostMoveToFloorDir() == DOWN) ? DOWN : UP;
+			time += 2 * doorTicks + dwell(elevator, 0, boarding(at, d, car));
+			break;
+		case Elevator.MV1FLR:
+			time = floorTicks - inState % floorTicks;
+			at = Math.max(0, Math.min(elevator.getNumFloors() - 1, at + d));
+			break;
+		case Elevator.OPENDR:
+			time = Math.max(0, doorTicks - inState) + dwell(elevator, elevator.getAlighting(at), boarding(at, d, car)) + doorTicks;
+			break;
+		case Elevator.OFFLD:
+			time = Math.max(0, elevator.getDelayTime() - inState) + dwell(elevator, 0, boarding(at, d, car)) + doorTicks;
+			break;
+		case Elevator.BOARD:
+			time = Math.max(0, elevator.getDelayTime() - inState) + doorTicks;
+			break;
+		default:	// CLOSEDR
+			time = Math.max(0, doorTicks - inState);
+			break;
+		}
+		int load = elevator.getNumPassInElevator();
+		for (int leg = 0; leg < 3; leg++) {
+			boolean ahead = (floor - at) * d >= 0;
+			int end = ahead ? floor : at;
+			for (int g = at + d; g >= 0 && g < elevator.getNumFloors(); g += d) {
+				if (elevator.getAlighting(g) > 0 || callMgr.hasCall(g, UP, car) || callMgr.hasCall(g, DOWN, car)) end = g;
+			}
+			int stopAt = (ahead && dir == d) ? floor : end;
+			for (int g = at + d; g != stopAt + d; g += d) {
+				time += floorTicks;
+				if (g == floor && dir == d) break;
+				int off = elevator.getAlighting(g);
+				int on = boarding(g, d, car) + ((g == end) ? boarding(g, -d, car) : 0);
+				if (off + on > 0) {
+					time += 2 * doorTicks + dwell(elevator, off, on);
+					load += on - off;
+				}
+			}
+			if (ahead && dir == d) {
+				Passengers p = callMgr.getCall(floor, dir, car);
+				if (p != null && load + p.getNumPass() > elevator.getCapacity())
+					time += 2 * (elevator.getNumFloors() - 1) * floorTicks;
+				return time + doorTicks;
+			}
+			at = end;
+			d = -d;
+		}
+		return time;
+	}
+
+	/**
+	 * Gets the number of people in the group at the head of an assigned call -
+	 * the group that will board if the elevator stops for the call.
+	 *
+	 * @param floor the floor
+	 * @param dir the direction of the call
+	 * @param car the index of the elevator
+	 * @return the number of people, 0 if the elevator has no call on the floor in the direction
+	 */
+	private int boarding(int floor, int dir, int car) {
+		return callMgr.hasCall(floor, dir, car) ? callMgr.getCall(floor, dir, car).getNumPass() : 0;
+	}
+
+	/**
+	 * Gets the ticks to let people off and on at a stop.
+	 *
+	 * @param elevator the elevator
+	 * @param off the number of people getting off
+	 * @param on the number of people getting on
+	 * @return the ticks
+	 */
+	private int dwell(Elevator elevator, int off, int on) {
+		int passPerTick = elevator.getPassPerTick();
+		return (off + passPerTick - 1) / passPerTick + (on + passPerTick - 1) / passPerTick;
+	}
+}
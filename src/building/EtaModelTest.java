@@ -0,0 +1,108 @@
+package building;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import passengers.PassengerStore;
+import passengers.Passengers;
+
+/**
+ * Checks EtaDispatcher.eta() against the travel-cost model worked out by hand:
+ * FLOOR_TICKS for every floor travelled, two door operations for every stop
+ * on the way, the ticks to let people off and the head group on at
+ * PASS_PER_TICK, and a trip to the top and back if the car would be too full
+ * to take the group.
+ */
+class EtaModelTest {
+	private static final int NUM_FLOORS = 10;
+	private static final int CAPACITY = 10;
+	private static final int FLOOR_TICKS = 4;
+	private static final int DOOR_TICKS = 2;
+	private static final int PASS_PER_TICK = 2;
+	private static final int UP = 1;
+	private static final int DOWN = -1;
+
+	private final PassengerStore store = new PassengerStore();
+	private final Floor[] floors = new Floor[NUM_FLOORS];
+	private final CallManager callMgr;
+	private final EtaDispatcher dispatcher;
+
+	EtaModelTest() {
+		for (int i = 0; i < NUM_FLOORS; i++) floors[i] = new Floor(10);
+		callMgr = new CallManager(floors, NUM_FLOORS);
+		dispatcher = new EtaDispatcher(callMgr);
+	}
+
+	/**
+	 * Makes an elevator that has moved up from the ground floor to a floor, and
+	 * has then just entered a state.
+	 */
+	private Elevator car(int floor, int state, int dir) {
+		Elevator e = new Elevator(NUM_FLOORS, CAPACITY, FLOOR_TICKS, DOOR_TICKS, PASS_PER_TICK);
+		e.setDirection(UP);
+		e.updateCurrState(Elevator.MV1FLR);
+		while (e.getCurrFloor() < floor) e.moveElevator();
+		e.setDirection(dir);
+		e.updateCurrState(state);
+		return e;
+	}
+
+	/** Adds a group of people to an elevator; floors start at 1, as in the passenger files. */
+	private void ride(Elevator e, int numPass, int dest) {
+		e.boardPassengers(store.add(0, numPass, 1, dest, true, 1000));
+	}
+
+	/** Adds a group waiting on a floor, assigned to car 0 if assigned. */
+	private Passengers wait(int numPass, int on, int dest, boolean assigned) {
+		Passengers p = store.add(0, numPass, on, dest, true, 1000);
+		floors[on - 1].add(p);
+		if (assigned) callMgr.assignCall(on - 1, p.getDirection(), 0);
+		return p;
+	}
+
+	@Test
+	void testIdleCar() {
+		wait(1, 5, 8, false);
+		assertEquals(4 * FLOOR_TICKS + DOOR_TICKS, dispatcher.eta(car(0, Elevator.STOP, UP), 0, 4, UP));
+
+		wait(1, 2, 1, false);
+		assertEquals(4 * FLOOR_TICKS + DOOR_TICKS, dispatcher.eta(car(5, Elevator.STOP, UP), 0, 1, DOWN));
+	}
+
+	@Test
+	void testMidSweepWithPendingStops() {
+		Elevator e = car(1, Elevator.MV1FLR, UP);
+		e.moveElevator();
+		e.moveElevator();	// half way from floor 2 to floor 3
+		ride(e, 3, 4);
+		wait(2, 5, 9, true);
+		wait(1, 7, 10, false);
+		int stopAt4 = 2 * DOOR_TICKS + 2;	// 3 people off
+		int stopAt5 = 2 * DOOR_TICKS + 1;	// 2 people on
+		assertEquals(FLOOR_TICKS / 2 + 4 * FLOOR_TICKS + stopAt4 + stopAt5 + DOOR_TICKS, dispatcher.eta(e, 0, 6, UP));
+	}
+
+	@Test
+	void testReversesToReachCall() {
+		Elevator e = car(3, Elevator.CLOSEDR, UP);
+		ride(e, 2, 6);
+		wait(1, 2, 1, false);
+		int stopAt6 = 2 * DOOR_TICKS + 1;	// 2 people off
+		assertEquals(DOOR_TICKS + 2 * FLOOR_TICKS + stopAt6 + 4 * FLOOR_TICKS + DOOR_TICKS, dispatcher.eta(e, 0, 1, DOWN));
+	}
+
+	@Test
+	void testWillBeFull() {
+		wait(3, 5, 9, false);
+		int eta = DOOR_TICKS + 4 * FLOOR_TICKS + DOOR_TICKS;
+
+		Elevator room = car(0, Elevator.CLOSEDR, UP);
+		ride(room, 7, 8);
+		assertEquals(eta, dispatcher.eta(room, 0, 4, UP));
+
+		Elevator full = car(0, Elevator.CLOSEDR, UP);
+		ride(full, 8, 8);
+		assertEquals(eta + 2 * (NUM_FLOORS - 1) * FLOOR_TICKS, dispatcher.eta(full, 0, 4, UP));
+	}
+}
@@ -1,15 +1,20 @@
 package building;
 // ListIterater can be used to look at the contents of the floor queues for 
 // debug/display purposes...
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ListIterator;
 
 import genericqueue.GenericQueue;
+import passengers.PassengerStore;
 import passengers.Passengers;
 
 // Owner: Michael Xu
 /**
  * The Class Floor. This class provides the up/down queues to hold
- * Passengers as they wait for the Elevator.
+ * Passengers as they wait for the Elevator. With destination dispatch or
+ * elevator banks, each Elevator has its own up/down queues.
  */
 public class Floor {
 	/**  Constant for representing direction. */
@@ -18,10 +23,42 @@ public class Floor {
 	/** The Constant DOWN. */
 	private static final int DOWN = -1;
 
-	/**  The queues to represent Passengers going UP or DOWN. */	
-	private GenericQueue<Passengers> down;
+	/**  The queues to represent Passengers going UP or DOWN - one of each, shared by
+	 *   every elevator, or one of each per elevator for destination dispatch or
+	 *   elevator banks. */	
+	private GenericQueue<Passengers>[] down;
 	
-	private GenericQueue<Passengers> up;
+	private GenericQueue<Passengers>[] up;
+	
+	/** True if each elevator has its own queues on this floor. */
+	private boolean carQueues;
+	
+	/** The size of each queue. */
+	private final int qSize;
+	
+	/** The call manager to notify when the queues change. */
+	private CallManager callMgr;
+	
+	/** The floor number. */
+	private int floorNum;
+	
+	/** The version of the up queues - bumped whenever a group is added to or removed from them. */
+	private int upVersion;
+	
+	/** The version of the down queues - bumped whenever a group is added to or removed from them. */
+	private int downVersion;
+	
+	/** The queue string of the up queues, as of upStringVersion. */
+	private String upString = "";
+	
+	/** The version of the up queues that upString was rendered from. */
+	private int upStringVersion;
+	
+	/** The queue string of the down queues, as of downStringVersion. */
+	private String downString = "";
+	
+	/** The version of the down queues that downString was rendered from. */
+	private int downStringVersion;
 
 	/**
 	 * Instantiates a new floor.
@@ -29,22 +66,127 @@ public class Floor {
 	 * @param qSize the q size
 	 */
 	public Floor(int qSize) {
-		down = new GenericQueue<Passengers>(qSize);
-		up = new GenericQueue<Passengers>(qSize);
+		this.qSize = qSize;
+		makeQueues(1);
+	}
+	
+	/**
+	 * Makes empty queues.
+	 *
+	 * @param n the number of up queues and of down queues
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private void makeQueues(int n) {
+		down = new GenericQueue[n];
+		up = new GenericQueue[n];
+		for (int i = 0; i < n; i++) {
+			down[i] = new GenericQueue<Passengers>(qSize);
+			up[i] = new GenericQueue<Passengers>(qSize);
+		}
 	}
 	
-	// TODO: Write the helper methods needed for this class. 
-	// You probably will only be accessing one queue at any
-	// given time based upon direction - you could choose to 
+	/**
+	 * Gives each elevator its own up and down queues on this floor, for
+	 * destination dispatch or elevator banks - each passenger group waits for
+	 * the elevator it was assigned when it called, and only that elevator
+	 * boards it. Must be called before any passengers are added.
+	 *
+	 * @param numCars the number of elevators
+	 */
+	void useCarQueues(int numCars) {
+		makeQueues(numCars);
+		carQueues = true;
+	}
+	
+	/**
+	 * Checks if each elevator has its own queues on this floor.
+	 *
+	 * @return true, if destination dispatch or elevator banks
+	 */
+	boolean hasCarQueues() {
+		return carQueues;
+	}
+	
+	/**
+	 * Gets the queue that an elevator boards from.
+	 *
+	 * @param dir the direction
+	 * @param car the index of the elevator
+	 * @return the queue
+	 */
+	private GenericQueue<Passengers> queue(int dir, int car) {
+		int i = carQueues ? car : 0;
+		return (dir == UP) ? up[i] : down[i];
+	}
 	
 	/**
-	 * Returns true if the queue is empty
+	 * Gets the first queue in the direction that has passengers waiting.
+	 *
+	 * @param dir the direction
+	 * @return the queue, or the first queue if they are all empty
+	 */
+	private GenericQueue<Passengers> firstWaiting(int dir) {
+		GenericQueue<Passengers>[] queues = (dir == UP) ? up : down;
+		for (GenericQueue<Passengers> q : queues)
+			if (!q.isEmpty()) return q;
+		return queues[0];
+	}
+	
+	/**
+	 * Sets the call manager that is notified whenever a queue on this floor changes,
+	 * so that it can keep its call index up to date.
+	 *
+	 * @param callMgr the call manager
+	 * @param floorNum the number of this floor
+	 */
+	void setCallManager(CallManager callMgr, int floorNum) {
+		this.callMgr = callMgr;
+		this.floorNum = floorNum;
+	}
+	
+	/**
+	 * Bumps the version of the queues in the direction, and notifies the call
+	 * manager that they changed.
+	 *
+	 * @param dir the direction
+	 */
+	private void queueChanged(int dir) {
+		if (dir == UP) upVersion++;
+		else downVersion++;
+		if (callMgr != null) callMgr.updateCallStatus(floorNum, dir);
+	}
+	
+	/**
+	 * Gets the version of the queues in the direction. It changes whenever a
+	 * group is added to or removed from them, so the GUI only needs to draw
+	 * a floor again when the version differs from the one it last drew.
+	 *
+	 * @param dir the direction
+	 * @return the version
+	 */
+	int getVersion(int dir) {
+		return (dir == UP) ? upVersion : downVersion;
+	}
+	
+	/**
+	 * Returns true if no passengers are waiting in the direction
 	 *
 	 * @param dir the direction
 	 * @return true, if queue is empty
 	 */
 	public boolean empty(int dir) {
-		return (dir == UP) ? up.isEmpty() : down.isEmpty();
+		return firstWaiting(dir).isEmpty();
+	}
+	
+	/**
+	 * Returns true if no passengers are waiting in the direction for the elevator
+	 *
+	 * @param dir the direction
+	 * @param car the index of the elevator
+	 * @return true, if the elevator's queue is empty
+	 */
+	public boolean empty(int dir, int car) {
+		return queue(dir, car).isEmpty();
 	}
 	
 	/**
@@ -53,8 +195,18 @@ public class Floor {
 	 * @param p the passenger group to add
 	 */
 	public void add(Passengers p) {
-		if (p.getDirection() == UP) up.add(p);
-		else down.add(p);
+		add(p, 0);
+	}
+	
+	/**
+	 * Adds the passenger group to the queue of the elevator assigned to it
+	 *
+	 * @param p the passenger group to add
+	 * @param car the index of the elevator
+	 */
+	public void add(Passengers p, int car) {
+		queue(p.getDirection(), car).add(p);
+		queueChanged(p.getDirection());
 	}
 	
 	/**
@@ -64,7 +216,18 @@ public class Floor {
 	 * @return the passenger group
 	 */
 	public Passengers peek(int dir) {
-		return (dir == UP) ? up.peek() : down.peek();
+		return firstWaiting(dir).peek();
+	}
+	
+	/**
+	 * Gets the first element of the elevator's queue
+	 *
+	 * @param dir the direction
+	 * @param car the index of the elevator
+	 * @return the passenger group
+	 */
+	public Passengers peek(int dir, int car) {
+		return queue(dir, car).peek();
 	}
 	
 	/**
@@ -74,30 +237,165 @@ public class Floor {
 	 * @return the passenger group 
 	 */
 	public Passengers poll(int dir) {
-		return (dir == UP) ? up.poll() : down.poll();
+		Passengers p = firstWaiting(dir).poll();
+		if (p != null) queueChanged(dir);
+		return p;
+	}
+	
+	/**
+	 * Gets and removes the first element of the elevator's queue
+	 *
+	 * @param dir the direction
+	 * @param car the index of the elevator
+	 * @return the passenger group 
+	 */
+	public Passengers poll(int dir, int car) {
+		Passengers p = queue(dir, car).poll();
+		if (p != null) queueChanged(dir);
+		return p;
+	}
+	
+	/**
+	 * Counts the passengers in the largest set of groups in the elevator's
+	 * queue that are going to the same floor.
+	 *
+	 * @param dir the direction
+	 * @param car the index of the elevator
+	 * @return the number of passengers, 0 if the queue is empty
+	 */
+	int largestDestinationGroup(int dir, int car) {
+		GenericQueue<Passengers> queue = queue(dir, car);
+		int largest = 0;
+		ListIterator<Passengers> groups = queue.getListIterator();
+		while (groups.hasNext()) {
+			int destFloor = groups.next().getDestFloor();
+			int numPass = 0;
+			ListIterator<Passengers> others = queue.getListIterator();
+			while (others.hasNext()) {
+				Passengers p = others.next();
+				if (p.getDestFloor() == destFloor) numPass += p.getNumPass();
+			}
+			largest = Math.max(largest, numPass);
+		}
+		return largest;
+	}
+	
+	/**
+	 * Checks if any group waiting for the elevator, in either direction, is
+	 * going to the floor.
+	 *
+	 * @param destFloor the floor
+	 * @param car the index of the elevator
+	 * @return true, if a group is going to the floor
+	 */
+	boolean hasDestination(int destFloor, int car) {
+		for (int dir = UP; dir >= DOWN; dir -= 2) {
+			ListIterator<Passengers> groups = queue(dir, car).getListIterator();
+			while (groups.hasNext())
+				if (groups.next().getDestFloor() == destFloor) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Counts the passengers waiting in the elevator's queue.
+	 *
+	 * @param dir the direction
+	 * @param car the index of the elevator
+	 * @return the number of passengers
+	 */
+	int numWaiting(int dir, int car) {
+		int numPass = 0;
+		ListIterator<Passengers> groups = queue(dir, car).getListIterator();
+		while (groups.hasNext()) numPass += groups.next().getNumPass();
+		return numPass;
 	}
 	
 	/**
 	 * Queue string. This method provides visibility into the queue
 	 * contents as a string. What exactly you would want to visualize 
-	 * is up to you
+	 * is up to you. The string is only rendered again when the queues
+	 * have changed since it was last asked for.
 	 *
 	 * @param dir determines which queue to look at
 	 * @return the string of queue contents
 	 */
 	String queueString(int dir) {
-		String str = "";
-		ListIterator<Passengers> list;
-		list = (dir == UP) ?up.getListIterator() : down.getListIterator();
-		if (list != null) {
+		if (dir == UP) {
+			if (upStringVersion != upVersion) {
+				upString = renderQueues(up);
+				upStringVersion = upVersion;
+			}
+			return upString;
+		}
+		if (downStringVersion != downVersion) {
+			downString = renderQueues(down);
+			downStringVersion = downVersion;
+		}
+		return downString;
+	}
+	
+	/**
+	 * Renders the groups waiting in the queues as a string.
+	 *
+	 * @param queues the queues
+	 * @return the string of queue contents
+	 */
+	private static String renderQueues(GenericQueue<Passengers>[] queues) {
+		StringBuilder str = new StringBuilder();
+		for (GenericQueue<Passengers> q : queues) {
+			ListIterator<Passengers> list = q.getListIterator();
 			while (list.hasNext()) {
 				// choose what you to add to the str here.
-				str += "(" + list.next().getNumPass() + ")";
-				if (list.hasNext()) str += " ";
+				if (str.length() > 0) str.append(' ');
+				str.append('(').append(list.next().getNumPass()).append(')');
 			}
 		}
-		return str;	
+		return str.toString();
 	}
 	
+	/**
+	 * Writes the ids of the passenger groups waiting in each queue, in order,
+	 * for a snapshot of the simulation.
+	 *
+	 * @param out the output
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	void writeState(DataOutput out) throws IOException {
+		for (int i = 0; i < up.length; i++) {
+			writeQueue(out, up[i]);
+			writeQueue(out, down[i]);
+		}
+	}
+
+	/**
+	 * Writes the ids of the passenger groups in a queue, in order.
+	 *
+	 * @param out the output
+	 * @param q the queue
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static void writeQueue(DataOutput out, GenericQueue<Passengers> q) throws IOException {
+		out.writeInt(q.size());
+		ListIterator<Passengers> list = q.getListIterator();
+		while (list.hasNext()) out.writeInt(list.next().getId());
+	}
+
+	/**
+	 * Adds the passenger groups written by writeState() to the empty queues
+	 * of a new floor.
+	 *
+	 * @param in the input
+	 * @param store the store holding the passenger groups
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	void readState(DataInput in, PassengerStore store) throws IOException {
+		for (int car = 0; car < up.length; car++) {
+			for (int q = 0; q < 2; q++) {
+				int n = in.readInt();
+				for (int i = 0; i < n; i++) add(store.get(in.readInt()), car);
+			}
+		}
+	}
 	
 }
@@ -0,0 +1,56 @@
+package building;
+
+import passengers.Passengers;
+
+/**
+ * The Class LookStrategy. The elevator sweeps in one direction as far as its
+ * furthest call, and then turns round. From the STOP state, it carries on in the
+ * direction it was last going: to the nearest call ahead going the same way, or
+ * failing that to the furthest call ahead going the other way, where the sweep
+ * turns. Only when there is nothing ahead does it look behind. An empty
+ * elevator keeps going while it has calls further on in its direction.
+ */
+public class LookStrategy extends DefaultDispatchStrategy {
+
+	/** The Constant UP. */
+	private static final int UP = 1;
+
+	/** The Constant DOWN. */
+	private static final int DOWN = -1;
+
+	/**
+	 * Selects the next call of the sweep.
+	 *
+	 * @param callMgr the call manager
+	 * @param elevator the elevator
+	 * @param car the index of the elevator
+	 * @return the passenger group, or null to stay stopped
+	 */
+	@Override
+	public Passengers selectCall(CallManager callMgr, Elevator elevator, int car) {
+		int floor = elevator.getCurrFloor();
+		int dir = (elevator.getDirection() == DOWN) ? DOWN : UP;
+		if (callMgr.hasCall(floor, dir, car)) return callMgr.getCall(floor, dir, car);
+		Passengers p = ahead(callMgr, floor, dir, car);
+		if (p != null) return p;
+		if (callMgr.hasCall(floor, -dir, car)) return callMgr.getCall(floor, -dir, car);
+		return ahead(callMgr, floor, -dir, car);
+	}
+
+	/**
+	 * Finds the next call beyond the floor in a direction: the nearest one going
+	 * the same way, or else the furthest one going the other way.
+	 *
+	 * @param callMgr the call manager
+	 * @param floor the floor
+	 * @param dir the direction
+	 * @param car the index of the elevator
+	 * @return the passenger group, or null if there are no calls beyond the floor
+	 */
+	private Passengers ahead(CallManager callMgr, int floor, int dir, int car) {
+		int next = (dir == UP) ? callMgr.callAtOrAbove(floor + 1, UP, car) : callMgr.callAtOrBelow(floor - 1, DOWN, car);
+		if (next >= 0) return callMgr.getCall(next, dir, car);
+		Passengers turn = (dir == UP) ? callMgr.highestDownCall(car) : callMgr.lowestUpCall(car);
+		return (turn != null && (turn.getOnFloor() - floor) * dir > 0) ? turn : null;
+	}
+}
@@ -0,0 +1,56 @@
+package building;
+
+import passengers.Passengers;
+
+/**
+ * The Class NearestCallStrategy. From the STOP state, the elevator goes to the
+ * nearest floor with a call, in either direction; a tie goes to the floor in
+ * the elevator's direction. On that floor, it answers the call going the way it
+ * travelled to get there, if there is one. An empty elevator keeps going while
+ * it has calls further on in its direction, as in the default strategy.
+ */
+public class NearestCallStrategy extends DefaultDispatchStrategy {
+
+	/** The Constant UP. */
+	private static final int UP = 1;
+
+	/** The Constant DOWN. */
+	private static final int DOWN = -1;
+
+	/**
+	 * Selects the nearest call.
+	 *
+	 * @param callMgr the call manager
+	 * @param elevator the elevator
+	 * @param car the index of the elevator
+	 * @return the passenger group, or null to stay stopped
+	 */
+	@Override
+	public Passengers selectCall(CallManager callMgr, Elevator elevator, int car) {
+		int floor = elevator.getCurrFloor();
+		int dir = (elevator.getDirection() == DOWN) ? DOWN : UP;
+		int above = nearest(callMgr.callAtOrAbove(floor, UP, car), callMgr.callAtOrAbove(floor, DOWN, car));
+		int below = Math.max(callMgr.callAtOrBelow(floor, UP, car), callMgr.callAtOrBelow(floor, DOWN, car));
+		if (above < 0 && below < 0) return null;
+		int target;
+		if (below < 0) target = above;
+		else if (above < 0) target = below;
+		else if (above - floor != floor - below) target = (above - floor < floor - below) ? above : below;
+		else target = (dir == UP) ? above : below;
+		int callDir = (target == floor) ? dir : Integer.signum(target - floor);
+		return callMgr.getCall(target, callMgr.hasCall(target, callDir, car) ? callDir : -callDir, car);
+	}
+
+	/**
+	 * Gets the lower of two floors, either of which may be -1 for none.
+	 *
+	 * @param a a floor
+	 * @param b another floor
+	 * @return the lower floor, -1 if both are -1
+	 */
+	private static int nearest(int a, int b) {
+		if (a < 0) return b;
+		if (b < 0) return a;
+		return Math.min(a, b);
+	}
+}
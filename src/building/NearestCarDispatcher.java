@@ -0,0 +1,61 @@
+package building;
+
+/**
+ * The Class NearestCarDispatcher. The default dispatcher - assigns each call to 
+ * the nearest elevator that is either idle in the STOP state, already stopped 
+ * at the floor going the same way, or on its way towards the floor in the 
+ * direction of the call. Elevators moving away from the call, or going the 
+ * other way, are penalized by the height of the building. Ties go to the 
+ * lowest numbered elevator, so a single elevator always answers every call.
+ */
+public class NearestCarDispatcher implements Dispatcher {
+
+	/**
+	 * Selects the elevator to answer a call.
+	 *
+	 * @param elevators the elevators in the building
+	 * @param floor the floor of the call
+	 * @param dir the direction of the call
+	 * @return the index of the selected elevator
+	 */
+	@Override
+	public int selectCar(Elevator[] elevators, int floor, int dir) {
+		int bestCar = 0;
+		int bestCost = Integer.MAX_VALUE;
+		for (int car = 0; car < elevators.length; car++) {
+			int cost = cost(elevators[car], floor, dir);
+			if (cost < bestCost) {
+				bestCost = cost;
+				bestCar = car;
+			}
+		}
+		return bestCar;
+	}
+
+	/**
+	 * Calculates the cost of sending the elevator to the call, in floors.
+	 *
+	 * @param elevator the elevator
+	 * @param floor the floor of the call
+	 * @param dir the direction of the call
+	 * @return the cost
+	 */
+	private int cost(Elevator elevator, int floor, int dir) {
+		int currFloor = elevator.getCurrFloor();
+		int distance = Math.abs(floor - currFloor);
+		switch (elevator.getCurrState()) {
+		case Elevator.STOP:
+			return distance;
+		case Elevator.OPENDR:
+		case Elevator.OFFLD:
+		case Elevator.BOARD:
+			if (distance == 0 && elevator.getDirection() == dir) return 0;
+			break;
+		default:
+			int toCall = Integer.signum(floor - currFloor);
+			if (elevator.getDirection() == dir && toCall == dir) return distance;
+			break;
+		}
+		return distance + 2 * elevator.getNumFloors();
+	}
+}
@@ -0,0 +1,24 @@
+package building;
+
+/**
+ * The Class ScanStrategy. Like LOOK, except that a sweep always runs to the top
+ * or bottom floor it serves before turning round, rather than turning at the
+ * last call: an empty elevator keeps going while it has any calls and there is
+ * a floor it serves further on. From the STOP state, the call is selected as in LOOK.
+ */
+public class ScanStrategy extends LookStrategy {
+
+	/**
+	 * Keeps going to the end of the floors it serves while the elevator has calls.
+	 *
+	 * @param callMgr the call manager
+	 * @param elevator the elevator
+	 * @param car the index of the elevator
+	 * @return true to keep going
+	 */
+	@Override
+	public boolean keepGoing(CallManager callMgr, Elevator elevator, int car) {
+		int next = elevator.getCurrFloor() + elevator.getDirection();
+		return callMgr.callPending(car) && next >= elevator.getLowestFloor() && next <= elevator.getHighestFloor();
+	}
+}
@@ -0,0 +1,499 @@
+package building;
+
+import java.io.BufferedReader;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+
+import myfileio.MyFileIO;
+import passengers.TrafficSpec;
+
+/**
+ * The Class SimConfig. The configuration of one simulation - the building, the
+ * elevator characteristics and the passenger file, or synthetic traffic, to
+ * run. It can be read from a configuration file, or built directly so that many
+ * simulations can be configured in one process without sharing a configuration
+ * file. A SimConfig is immutable; the with... methods return a copy with one
+ * value changed.
+ */
+public class SimConfig {
+
+	/** The default number of elevators. */
+	public static final int DEFAULT_NUM_ELEVATORS = 1;
+
+	/** The default capacity. */
+	public static final int DEFAULT_CAPACITY = 15;
+
+	/** The default ticks to move one floor. */
+	public static final int DEFAULT_FLOOR_TICKS = 5;
+
+	/** The default ticks to open or close the doors. */
+	public static final int DEFAULT_DOOR_TICKS = 2;
+
+	/** The default passengers that board or offload per tick. */
+	public static final int DEFAULT_PASS_PER_TICK = 3;
+
+	/** The num floors. */
+	private final int numFloors;
+
+	/** The num elevators. */
+	private final int numElevators;
+
+	/** The capacity. */
+	private final int capacity;
+
+	/** The floor ticks. */
+	private final int floorTicks;
+
+	/** The door ticks. */
+	private final int doorTicks;
+
+	/** The pass per tick. */
+	private final int passPerTick;
+
+	/** The passenger file. */
+	private final String passCSV;
+
+	/** The name of the dispatch strategy. */
+	private final String strategy;
+
+	/** The name of the dispatcher. */
+	private final String dispatcher;
+
+	/** The bank layout, as written - empty if every elevator serves every floor. */
+	private final String banks;
+
+	/** The bank layout, or null if every elevator serves every floor. */
+	private final BankLayout bankLayout;
+
+	/** The synthetic traffic, as written - empty if the passengers are read from the passenger file. */
+	private final String traffic;
+
+	/** The synthetic traffic, or null if the passengers are read from the passenger file. */
+	private final TrafficSpec trafficSpec;
+
+	/**
+	 * Instantiates a new sim config.
+	 *
+	 * @param numFloors the num floors
+	 * @param numElevators the num elevators
+	 * @param capacity the capacity
+	 * @param floorTicks the floor ticks
+	 * @param doorTicks the door ticks
+	 * @param passPerTick the pass per tick
+	 * @param passCSV the passenger file
+	 */
+	public SimConfig(int numFloors, int numElevators, int capacity, int floorTicks, int doorTicks,
+			         int passPerTick, String passCSV) {
+		this(numFloors, numElevators, capacity, floorTicks, doorTicks, passPerTick, passCSV, DispatchStrategy.DEFAULT);
+	}
+
+	/**
+	 * Instantiates a new sim config with a dispatch strategy.
+	 *
+	 * @param numFloors the num floors
+	 * @param numElevators the num elevators
+	 * @param capacity the capacity
+	 * @param floorTicks the floor ticks
+	 * @param doorTicks the door ticks
+	 * @param passPerTick the pass per tick
+	 * @param passCSV the passenger file
+	 * @param strategy the name of the dispatch strategy
+	 */
+	public SimConfig(int numFloors, int numElevators, int capacity, int floorTicks, int doorTicks,
+			         int passPerTick, String passCSV, String strategy) {
+		this(numFloors, numElevators, capacity, floorTicks, doorTicks, passPerTick, passCSV, strategy, Dispatcher.DEFAULT);
+	}
+
+	/**
+	 * Instantiates a new sim config with a dispatch strategy and a dispatcher.
+	 *
+	 * @param numFloors the num floors
+	 * @param numElevators the num elevators
+	 * @param capacity the capacity
+	 * @param floorTicks the floor ticks
+	 * @param doorTicks the door ticks
+	 * @param passPerTick the pass per tick
+	 * @param passCSV the passenger file
+	 * @param strategy the name of the dispatch strategy
+	 * @param dispatcher the name of the dispatcher
+	 */
+	public SimConfig(int numFloors, int numElevators, int capacity, int floorTicks, int doorTicks,
+			         int passPerTick, String passCSV, String strategy, String dispatcher) {
+		this(numFloors, numElevators, capacity, floorTicks, doorTicks, passPerTick, passCSV, strategy, dispatcher, "");
+	}
+
+	/**
+	 * Instantiates a new sim config with a dispatch strategy, a dispatcher and
+	 * banks of elevators that serve different floors.
+	 *
+	 * @param numFloors the num floors
+	 * @param numElevators the num elevators - the total of the banks, if there are any
+	 * @param capacity the capacity
+	 * @param floorTicks the floor ticks
+	 * @param doorTicks the door ticks
+	 * @param passPerTick the pass per tick
+	 * @param passCSV the passenger file
+	 * @param strategy the name of the dispatch strategy
+	 * @param dispatcher the name of the dispatcher
+	 * @param banks the bank layout, as described in BankLayout - empty if every elevator serves every floor
+	 * @throws IllegalArgumentException if the bank layout is bad, or has a different number of elevators
+	 */
+	public SimConfig(int numFloors, int numElevators, int capacity, int floorTicks, int doorTicks,
+			         int passPerTick, String passCSV, String strategy, String dispatcher, String banks) {
+		this(numFloors, numElevators, capacity, floorTicks, doorTicks, passPerTick, passCSV, strategy, dispatcher, banks, "");
+	}
+
+	/**
+	 * Instantiates a new sim config with every setting.
+	 *
+	 * @param numFloors the num floors
+	 * @param numElevators the num elevators - the total of the banks, if there are any
+	 * @param capacity the capacity
+	 * @param floorTicks the floor ticks
+	 * @param doorTicks the door ticks
+	 * @param passPerTick the pass per tick
+	 * @param passCSV the passenger file - also names the log files when there is synthetic traffic
+	 * @param strategy the name of the dispatch strategy
+	 * @param dispatcher the name of the dispatcher
+	 * @param banks the bank layout, as described in BankLayout - empty if every elevator serves every floor
+	 * @param traffic the synthetic traffic, as described in TrafficSpec - empty to read the passenger file
+	 * @throws IllegalArgumentException if the bank layout or traffic is bad, or the banks have a different
+	 *         number of elevators
+	 */
+	private SimConfig(int numFloors, int numElevators, int capacity, int floorTicks, int doorTicks,
+			          int passPerTick, String passCSV, String strategy, String dispatcher, String banks, String traffic) {
+		bankLayout = banks.isEmpty() ? null : new BankLayout(banks, numFloors);
+		trafficSpec = traffic.isEmpty() ? null : new TrafficSpec(traffic);
+		if (bankLayout != null && bankLayout.getNumCars() != numElevators)
+			throw new IllegalArgumentException("The banks "+banks+" have "+bankLayout.getNumCars()+" elevators, not "+numElevators);
+		this.numFloors = numFloors;
+		this.numElevators = numElevators;
+		this.capacity = capacity;
+		this.floorTicks = floorTicks;
+		this.doorTicks = doorTicks;
+		this.passPerTick = passPerTick;
+		this.passCSV = passCSV;
+		this.strategy = strategy;
+		this.dispatcher = dispatcher;
+		this.banks = banks;
+		this.traffic = traffic;
+	}
+
+	/**
+	 * Instantiates a new sim config with the default elevator characteristics.
+	 *
+	 * @param numFloors the num floors
+	 * @param passCSV the passenger file
+	 */
+	public SimConfig(int numFloors, String passCSV) {
+		this(numFloors, DEFAULT_NUM_ELEVATORS, DEFAULT_CAPACITY, DEFAULT_FLOOR_TICKS, DEFAULT_DOOR_TICKS,
+			 DEFAULT_PASS_PER_TICK, passCSV);
+	}
+
+	/**
+	 * Reads a simulation config file. Each line is a name and a value; the
+	 * elevator characteristics that are missing keep their defaults. With a
+	 * banks line, the number of elevators is the total of the banks. With a
+	 * traffic line, the passengers are generated instead of read from passCSV.
+	 *
+	 * @param filename the filename
+	 * @return the sim config
+	 */
+	public static SimConfig read(String filename) {
+		int numFloors = 0;
+		int numElevators = DEFAULT_NUM_ELEVATORS;
+		int capacity = DEFAULT_CAPACITY;
+		int floorTicks = DEFAULT_FLOOR_TICKS;
+		int doorTicks = DEFAULT_DOOR_TICKS;
+		int passPerTick = DEFAULT_PASS_PER_TICK;
+		String passCSV = null;
+		String strategy = DispatchStrategy.DEFAULT;
+		String dispatcher = Dispatcher.DEFAULT;
+		String banks = "";
+		String traffic = "";
+		MyFileIO fio = new MyFileIO();
+		File configFile = fio.getFileHandle(filename);
+		try ( BufferedReader br = fio.openBufferedReader(configFile)) {
+			String line;
+			while ((line = br.readLine())!= null) {
+				String[] values = line.split(",");
+				if (values[0].equals("numFloors")) {
+					numFloors = Integer.parseInt(values[1]);
+				} else if (values[0].equals("numElevators")) {
+					numElevators = Integer.parseInt(values[1]);
+				} else if (values[0].equals("passCSV")) {
+					passCSV = values[1];
+				} else if (values[0].equals("capacity")) {
+					capacity = Integer.parseInt(values[1]);
+				} else if (values[0].equals("floorTicks")) {
+					floorTicks = Integer.parseInt(values[1]);
+				} else if (values[0].equals("doorTicks")) {
+					doorTicks = Integer.parseInt(values[1]);
+				} else if (values[0].equals("passPerTick")) {
+					passPerTick = Integer.parseInt(values[1]);
+				} else if (values[0].equals("strategy")) {
+					strategy = values[1].trim();
+				} else if (values[0].equals("dispatcher")) {
+					dispatcher = values[1].trim();
+				} else if (values[0].equals("banks")) {
+					banks = values[1].trim();
+				} else if (values[0].equals("traffic")) {
+					traffic = values[1].trim();
+				}
+			}
+			fio.closeFile(br);
+		} catch (IOException e) {
+			System.err.println("Error in reading file: "+filename);
+			e.printStackTrace();
+		}
+		if (!banks.isEmpty()) numElevators = new BankLayout(banks, numFloors).getNumCars();
+		return new SimConfig(numFloors, numElevators, capacity, floorTicks, doorTicks, passPerTick, passCSV, strategy, dispatcher,
+				             banks, traffic);
+	}
+
+	/**
+	 * Writes the config, for a snapshot of the simulation.
+	 *
+	 * @param out the output
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public void writeState(DataOutput out) throws IOException {
+		out.writeInt(numFloors);
+		out.writeInt(numElevators);
+		out.writeInt(capacity);
+		out.writeInt(floorTicks);
+		out.writeInt(doorTicks);
+		out.writeInt(passPerTick);
+		out.writeUTF(passCSV);
+		out.writeUTF(strategy);
+		out.writeUTF(dispatcher);
+		out.writeUTF(banks);
+		out.writeUTF(traffic);
+	}
+
+	/**
+	 * Reads a config written by writeState().
+	 *
+	 * @param in the input
+	 * @return the sim config
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static SimConfig readState(DataInput in) throws IOException {
+		return new SimConfig(in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+				             in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF());
+	}
+
+	/**
+	 * Gets the num floors.
+	 *
+	 * @return the num floors
+	 */
+	public int getNumFloors() {
+		return numFloors;
+	}
+
+	/**
+	 * Gets the num elevators.
+	 *
+	 * @return the num elevators
+	 */
+	public int getNumElevators() {
+		return numElevators;
+	}
+
+	/**
+	 * Gets the capacity.
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Gets the floor ticks.
+	 *
+	 * @return the floor ticks
+	 */
+	public int getFloorTicks() {
+		return floorTicks;
+	}
+
+	/**
+	 * Gets the door ticks.
+	 *
+	 * @return the door ticks
+	 */
+	public int getDoorTicks() {
+		return doorTicks;
+	}
+
+	/**
+	 * Gets the pass per tick.
+	 *
+	 * @return the pass per tick
+	 */
+	public int getPassPerTick() {
+		return passPerTick;
+	}
+
+	/**
+	 * Gets the passenger file.
+	 *
+	 * @return the passenger file
+	 */
+	public String getPassCSV() {
+		return passCSV;
+	}
+
+	/**
+	 * Gets the name of the dispatch strategy.
+	 *
+	 * @return the strategy
+	 */
+	public String getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * Gets the name of the dispatcher.
+	 *
+	 * @return the dispatcher
+	 */
+	public String getDispatcher() {
+		return dispatcher;
+	}
+
+	/**
+	 * Gets the bank layout, as written.
+	 *
+	 * @return the banks - empty if every elevator serves every floor
+	 */
+	public String getBanks() {
+		return banks;
+	}
+
+	/**
+	 * Gets the bank layout.
+	 *
+	 * @return the bank layout, or null if every elevator serves every floor
+	 */
+	public BankLayout getBankLayout() {
+		return bankLayout;
+	}
+
+	/**
+	 * Gets the synthetic traffic, as written.
+	 *
+	 * @return the traffic - empty if the passengers are read from the passenger file
+	 */
+	public String getTraffic() {
+		return traffic;
+	}
+
+	/**
+	 * Gets the synthetic traffic.
+	 *
+	 * @return the traffic, or null if the passengers are read from the passenger file
+	 */
+	public TrafficSpec getTrafficSpec() {
+		return trafficSpec;
+	}
+
+	/**
+	 * Gets the name of the test - the passenger file without .csv, or .trc for
+	 * a binary trace.
+	 *
+	 * @return the test name
+	 */
+	public String getTestName() {
+		return passCSV.replaceAll(".csv", "").replaceAll("\\.trc$", "");
+	}
+
+	/**
+	 * Returns a copy with a different number of elevators.
+	 *
+	 * @param numElevators the num elevators
+	 * @return the sim config
+	 * @throws IllegalArgumentException if there are banks, with a different number of elevators
+	 */
+	public SimConfig withNumElevators(int numElevators) {
+		return new SimConfig(numFloors, numElevators, capacity, floorTicks, doorTicks, passPerTick, passCSV, strategy, dispatcher, banks, traffic);
+	}
+
+	/**
+	 * Returns a copy with a different capacity.
+	 *
+	 * @param capacity the capacity
+	 * @return the sim config
+	 */
+	public SimConfig withCapacity(int capacity) {
+		return new SimConfig(numFloors, numElevators, capacity, floorTicks, doorTicks, passPerTick, passCSV, strategy, dispatcher, banks, traffic);
+	}
+
+	/**
+	 * Returns a copy with a different passenger file.
+	 *
+	 * @param passCSV the passenger file
+	 * @return the sim config
+	 */
+	public SimConfig withPassCSV(String passCSV) {
+		return new SimConfig(numFloors, numElevators, capacity, floorTicks, doorTicks, passPerTick, passCSV, strategy, dispatcher, banks, traffic);
+	}
+
+	/**
+	 * Returns a copy with a different dispatch strategy.
+	 *
+	 * @param strategy the name of the dispatch strategy
+	 * @return the sim config
+	 */
+	public SimConfig withStrategy(String strategy) {
+		return new SimConfig(numFloors, numElevators, capacity, floorTicks, doorTicks, passPerTick, passCSV, strategy, dispatcher, banks, traffic);
+	}
+
+	/**
+	 * Returns a copy with a different dispatcher.
+	 *
+	 * @param dispatcher the name of the dispatcher
+	 * @return the sim config
+	 */
+	public SimConfig withDispatcher(String dispatcher) {
+		return new SimConfig(numFloors, numElevators, capacity, floorTicks, doorTicks, passPerTick, passCSV, strategy, dispatcher, banks, traffic);
+	}
+
+	/**
+	 * Returns a copy with a different bank layout, and the number of elevators
+	 * in it.
+	 *
+	 * @param banks the bank layout - empty if every elevator serves every floor
+	 * @return the sim config
+	 */
+	public SimConfig withBanks(String banks) {
+		int cars = banks.isEmpty() ? numElevators : new BankLayout(banks, numFloors).getNumCars();
+		return new SimConfig(numFloors, cars, capacity, floorTicks, doorTicks, passPerTick, passCSV, strategy, dispatcher, banks, traffic);
+	}
+
+	/**
+	 * Returns a copy with different synthetic traffic.
+	 *
+	 * @param traffic the traffic - empty to read the passenger file
+	 * @return the sim config
+	 */
+	public SimConfig withTraffic(String traffic) {
+		return new SimConfig(numFloors, numElevators, capacity, floorTicks, doorTicks, passPerTick, passCSV, strategy, dispatcher, banks, traffic);
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 */
+	@Override
+	public String toString() {
+		return "numFloors="+numFloors+" numElevators="+numElevators+" capacity="+capacity+" floorTicks="+floorTicks+
+			   " doorTicks="+doorTicks+" passPerTick="+passPerTick+" passCSV="+passCSV+" strategy="+strategy+
+			   " dispatcher="+dispatcher+(banks.isEmpty() ? "" : " banks="+banks)+(traffic.isEmpty() ? "" : " traffic="+traffic);
+	}
+}
@@ -0,0 +1,200 @@
+package building;
+
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import eventlog.BinaryEventSink;
+import eventlog.EventLog;
+import eventlog.EventSink;
+import eventlog.TextEventSink;
+import passengers.PassengerStore;
+
+/**
+ * The Class SimContext. Everything that belongs to one simulation rather than to
+ * the process: its configuration, the passenger store that allocates the ids of
+ * its passenger groups, and the event log its events are written to. The Building,
+ * its Elevators and its CallManager are all created from one context, and
+ * nothing in them is static, so any number of simulations can run in one JVM
+ * without sharing ids, logs or configuration.
+ */
+public class SimContext {
+
+	/** The configuration. */
+	private final SimConfig config;
+
+	/** The passenger store - allocates the ids of the passenger groups and holds their data. */
+	private final PassengerStore passStore;
+
+	/** The file to log to, when logging to a file. */
+	private final String logfile;
+
+	/** The event log. Created when logging is first enabled, or when a sink is supplied. */
+	private EventLog eventLog;
+
+	/** True while logging is enabled. */
+	private boolean logging;
+
+	/**
+	 * Instantiates a new sim context that logs to the passenger file name with
+	 * .csv, or .trc for a binary trace, replaced by .log.
+	 *
+	 * @param config the config
+	 */
+	public SimContext(SimConfig config) {
+		this(config, config.getPassCSV().replaceAll(".csv", ".log").replaceAll("\\.trc$", ".log"));
+	}
+
+	/**
+	 * Instantiates a new sim context.
+	 *
+	 * @param config the config
+	 * @param logfile the file to log to, when logging is enabled
+	 */
+	public SimContext(SimConfig config, String logfile) {
+		this(config, logfile, new PassengerStore());
+	}
+
+	/**
+	 * Instantiates a new sim context with the supplied passenger store.
+	 *
+	 * @param config the config
+	 * @param logfile the file to log to, when logging is enabled
+	 * @param passStore the passenger store
+	 */
+	private SimContext(SimConfig config, String logfile, PassengerStore passStore) {
+		this.config = config;
+		this.logfile = logfile;
+		this.passStore = passStore;
+	}
+
+	/**
+	 * Creates the context for a fork of the simulation: the same config and log
+	 * file, and a fork of the first rows of the passenger store. Logging starts
+	 * off in the fork, and it has no event log until one is opened or supplied.
+	 *
+	 * @param rows the number of rows of the passenger store to fork
+	 * @return the context of the fork
+	 */
+	public SimContext fork(int rows) {
+		return new SimContext(config, logfile, passStore.fork(rows));
+	}
+
+	/**
+	 * Gets the config.
+	 *
+	 * @return the config
+	 */
+	public SimConfig getConfig() {
+		return config;
+	}
+
+	/**
+	 * Gets the passenger store.
+	 *
+	 * @return the passenger store
+	 */
+	public PassengerStore getPassengerStore() {
+		return passStore;
+	}
+
+	/**
+	 * Gets the file to log to.
+	 *
+	 * @return the logfile
+	 */
+	public String getLogfile() {
+		return logfile;
+	}
+
+	/**
+	 * Sends the events to the supplied sink instead of a log file. Must be called
+	 * before logging is enabled. Without a drain thread, the events are written on
+	 * the simulation thread each time the ring fills, which suits a process that
+	 * runs many simulations at once and does not want a thread per log.
+	 *
+	 * @param sink the sink
+	 * @param drainThread true to write the events on a background thread
+	 * @throws IllegalStateException if the event log is already open - close the logs first
+	 */
+	public void setEventSink(EventSink sink, boolean drainThread) {
+		if (eventLog != null) throw new IllegalStateException("The event log is already open");
+		eventLog = new EventLog(sink);
+		if (drainThread) eventLog.start();
+	}
+
+	/**
+	 * Opens the log file and starts the event log. A binary log is written
+	 * to the log file name with .log replaced by .bin.
+	 *
+	 * @param binary true to write the binary event format instead of text
+	 */
+	private void openEventLog(boolean binary) {
+		try {
+			EventSink sink = binary ? new BinaryEventSink(new FileOutputStream(logfile.replaceAll(".log", ".bin")))
+					                : new TextEventSink(new FileWriter(logfile));
+			setEventSink(sink, true);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Enables logging, opening the log file the first time.
+	 *
+	 * @param binary true to write the binary event format instead of text
+	 * @return true, if logging is enabled
+	 */
+	boolean enableLogging(boolean binary) {
+		if (eventLog == null) openEventLog(binary);
+		logging = (eventLog != null);
+		return logging;
+	}
+
+	/**
+	 * Disables logging.
+	 */
+	void disableLogging() {
+		logging = false;
+	}
+
+	/**
+	 * Checks if logging is enabled.
+	 *
+	 * @return true, if logging
+	 */
+	boolean isLogging() {
+		return logging;
+	}
+
+	/**
+	 * Gets the event log.
+	 *
+	 * @return the event log, or null if it has not been opened
+	 */
+	EventLog getEventLog() {
+		return eventLog;
+	}
+
+	/**
+	 * Records the end of the simulation if logging, then writes out every event
+	 * and closes the event log.
+	 *
+	 * @param time the time
+	 * @throws UncheckedIOException if the log could not be written
+	 */
+	void closeLogs(int time) {
+		if (eventLog == null) return;
+		EventLog log = eventLog;
+		eventLog = null;
+		try {
+			if (logging) log.end(time);
+		} finally {
+			logging = false;
+			log.close();
+		}
+		if (log.getError() != null)
+			throw new UncheckedIOException("The event log could not be written", log.getError());
+	}
+}
@@ -0,0 +1,93 @@
+package eventlog;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The Class BinaryEventReader. Reads a log written by BinaryEventSink and
+ * replays the events into another sink. The main method converts a binary
+ * log to the text format, so it can be checked with ElevatorLogCompare.
+ */
+public class BinaryEventReader {
+
+	/** The input. */
+	private final DataInputStream in;
+
+	/** The event being read. */
+	private final int[] event = new int[EventLog.SLOT_SIZE];
+
+	/**
+	 * Instantiates a new binary event reader, and checks the header.
+	 *
+	 * @param in the input
+	 * @throws IOException Signals that the input is not a binary event log.
+	 */
+	public BinaryEventReader(InputStream in) throws IOException {
+		this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+		if (this.in.readInt() != BinaryEventSink.MAGIC)
+			throw new IOException("Not a binary event log");
+		int version = this.in.readInt();
+		if (version < 1 || version > BinaryEventSink.VERSION)
+			throw new IOException("Unsupported binary event log version "+version);
+	}
+
+	/**
+	 * Reads the next event.
+	 *
+	 * @return the event - valid until the next call - or null at the end of the log
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public int[] next() throws IOException {
+		int type = in.read();
+		if (type < 0) return null;
+		try {
+			event[EventLog.TYPE] = type;
+			event[EventLog.TIME] = in.readInt();
+			int numArgs = BinaryEventSink.numArgs(type);
+			for (int a = 0; a < EventLog.SLOT_SIZE - EventLog.ARGS; a++)
+				event[EventLog.ARGS + a] = (a < numArgs) ? in.readInt() : 0;
+		} catch (EOFException e) {
+			throw new IOException("Truncated binary event log", e);
+		}
+		return event;
+	}
+
+	/**
+	 * Writes every remaining event to the sink, then closes the input and the sink.
+	 *
+	 * @param sink the sink
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public void replay(EventSink sink) throws IOException {
+		try {
+			for (int[] e = next(); e != null; e = next())
+				sink.write(e, 0);
+		} finally {
+			in.close();
+			sink.close();
+		}
+	}
+
+	/**
+	 * The main method. Converts a binary log to text:
+	 *    java eventlog.BinaryEventReader binaryLog textLog
+	 *
+	 * @param args the arguments
+	 */
+	public static void main(String[] args) {
+		if (args.length != 2) {
+			System.out.println("Usage: java eventlog.BinaryEventReader binaryLog textLog");
+			return;
+		}
+		try {
+			new BinaryEventReader(new FileInputStream(args[0])).replay(new TextEventSink(new FileWriter(args[1])));
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+}
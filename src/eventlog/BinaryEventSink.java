@@ -0,0 +1,92 @@
+package eventlog;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The Class BinaryEventSink. Writes the events in a compact binary format:
+ * a header of MAGIC and VERSION, then for each event a type byte, the time,
+ * and only the arguments used by that type, as big-endian ints. Use
+ * BinaryEventReader to read the log back, or to convert it to text.
+ */
+public class BinaryEventSink implements EventSink {
+
+	/** The magic number at the start of a binary event log - "ELEV". */
+	public static final int MAGIC = 0x454c4556;
+
+	/** The version of the format - version 2 added TRANSFER events. */
+	public static final int VERSION = 2;
+
+	/** The output. */
+	private final DataOutputStream out;
+
+	/**
+	 * Instantiates a new binary event sink, and writes the header.
+	 *
+	 * @param out the output
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public BinaryEventSink(OutputStream out) throws IOException {
+		this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+		this.out.writeInt(MAGIC);
+		this.out.writeInt(VERSION);
+	}
+
+	/**
+	 * Gets the number of arguments written for an event type.
+	 *
+	 * @param type the type
+	 * @return the number of arguments
+	 */
+	static int numArgs(int type) {
+		switch (type) {
+		case EventLog.CONFIG: return 7;
+		case EventLog.STATE: return 5;
+		case EventLog.CALL: return 4;
+		case EventLog.ARRIVAL:
+		case EventLog.TRANSFER: return 4;
+		case EventLog.BOARD:
+		case EventLog.SKIP:
+		case EventLog.GIVEUP: return 5;
+		default: return 0;
+		}
+	}
+
+	/**
+	 * Writes one event.
+	 *
+	 * @param e the array holding the event
+	 * @param i the offset of the event in the array
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Override
+	public void write(int[] e, int i) throws IOException {
+		int type = e[i + EventLog.TYPE];
+		out.writeByte(type);
+		out.writeInt(e[i + EventLog.TIME]);
+		for (int a = 0; a < numArgs(type); a++)
+			out.writeInt(e[i + EventLog.ARGS + a]);
+	}
+
+	/**
+	 * Flushes the output.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	/**
+	 * Closes the output.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+}
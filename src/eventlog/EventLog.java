@@ -0,0 +1,366 @@
+package eventlog;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The Class EventLog. Records the simulation events as typed records in a
+ * preallocated ring buffer, and writes them to an EventSink on a background
+ * drain thread. Recording an event copies a few ints into the ring - nothing
+ * is formatted or allocated on the simulation thread.
+ *
+ * There is one producer (the simulation thread) and one consumer (the drain
+ * thread). The drain thread takes every event published since its last pass
+ * as one batch. If the ring fills, the producer waits for the drain thread,
+ * so no events are ever dropped. If start() is never called there is no drain
+ * thread, and the producer writes the batch itself whenever the ring fills,
+ * and when the log is flushed or closed.
+ */
+public class EventLog {
+
+	/** The elevator configuration: capacity, ticksPerFloor, ticksDoor, passPerTick, state, floor, numCars. */
+	public static final int CONFIG = 0;
+
+	/** An elevator state or floor change: prevState, currState, prevFloor, currFloor, car. */
+	public static final int STATE = 1;
+
+	/** A call: numPass, floor, dir, id. */
+	public static final int CALL = 2;
+
+	/** An arrival: numPass, floor, id, car. */
+	public static final int ARRIVAL = 3;
+
+	/** A board: numPass, floor, dir, id, car. */
+	public static final int BOARD = 4;
+
+	/** A skip: numPass, floor, dir, id, car. */
+	public static final int SKIP = 5;
+
+	/** A give up: numPass, floor, dir, id, car. */
+	public static final int GIVEUP = 6;
+
+	/** The end of the simulation: no arguments. */
+	public static final int END = 7;
+
+	/** A group getting off to change elevators: numPass, floor, id, car. */
+	public static final int TRANSFER = 8;
+
+	/** The number of ints in an event - the type, the time and up to 7 arguments. */
+	public static final int SLOT_SIZE = 9;
+
+	/** The offset of the type in an event. */
+	public static final int TYPE = 0;
+
+	/** The offset of the time in an event. */
+	public static final int TIME = 1;
+
+	/** The offset of the first argument in an event. */
+	public static final int ARGS = 2;
+
+	/** The default number of events in the ring. */
+	public static final int DEFAULT_CAPACITY = 1 << 14;
+
+	/** How long the drain thread parks when the ring is empty. */
+	private static final long PARK_NANOS = 100_000;
+
+	/** The sink the events are written to. */
+	private final EventSink sink;
+
+	/** The ring buffer - SLOT_SIZE ints per event. */
+	private final int[] ring;
+
+	/** The mask that maps a sequence number to its slot. */
+	private final int mask;
+
+	/** The sequence number of the next event to publish. Only written by the producer. */
+	private final AtomicLong tail = new AtomicLong();
+
+	/** The sequence number of the next event to drain. Only written by the drain thread. */
+	private final AtomicLong head = new AtomicLong();
+
+	/** The producer's copy of head, so it only reads head when the ring looks full. */
+	private long cachedHead;
+
+	/** Set when the log is closed - the drain thread exits once the ring is empty. */
+	private volatile boolean closed;
+
+	/** The drain thread. */
+	private Thread drainThread;
+
+	/** The first error from the sink, if any. */
+	private volatile IOException error;
+
+	/**
+	 * Instantiates a new event log with the default capacity. The drain thread
+	 * is not started until start() is called.
+	 *
+	 * @param sink the sink
+	 */
+	public EventLog(EventSink sink) {
+		this(sink, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Instantiates a new event log.
+	 *
+	 * @param sink the sink
+	 * @param capacity the number of events in the ring - must be a power of 2
+	 */
+	public EventLog(EventSink sink, int capacity) {
+		if (Integer.bitCount(capacity) != 1)
+			throw new IllegalArgumentException("EventLog capacity must be a power of 2: "+capacity);
+		this.sink = sink;
+		ring = new int[capacity * SLOT_SIZE];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Starts the drain thread.
+	 */
+	public void start() {
+		drainThread = new Thread(this::drain, "EventLog-drain");
+		drainThread.setDaemon(true);
+		drainThread.start();
+	}
+
+	/**
+	 * Records the elevator configuration.
+	 *
+	 * @param time the time
+	 * @param capacity the capacity
+	 * @param ticksPerFloor the ticks per floor
+	 * @param ticksDoorOpenClose the ticks to open or close the doors
+	 * @param passPerTick the passengers per tick
+	 * @param state the state
+	 * @param floor the floor
+	 * @param numCars the number of elevators
+	 */
+	public void config(int time, int capacity, int ticksPerFloor, int ticksDoorOpenClose, int passPerTick,
+			           int state, int floor, int numCars) {
+		publish(CONFIG, time, capacity, ticksPerFloor, ticksDoorOpenClose, passPerTick, state, floor, numCars);
+	}
+
+	/**
+	 * Records an elevator state or floor change.
+	 *
+	 * @param time the time
+	 * @param prevState the prev state
+	 * @param currState the curr state
+	 * @param prevFloor the prev floor
+	 * @param currFloor the curr floor
+	 * @param car the index of the elevator
+	 */
+	public void stateChanged(int time, int prevState, int currState, int prevFloor, int currFloor, int car) {
+		publish(STATE, time, prevState, currState, prevFloor, currFloor, car, 0, 0);
+	}
+
+	/**
+	 * Records a call.
+	 *
+	 * @param time the time
+	 * @param numPass the num pass
+	 * @param floor the floor
+	 * @param dir the dir
+	 * @param id the id
+	 */
+	public void call(int time, int numPass, int floor, int dir, int id) {
+		publish(CALL, time, numPass, floor, dir, id, 0, 0, 0);
+	}
+
+	/**
+	 * Records an arrival.
+	 *
+	 * @param time the time
+	 * @param numPass the num pass
+	 * @param floor the floor
+	 * @param id the id
+	 * @param car the index of the elevator
+	 */
+	public void arrival(int time, int numPass, int floor, int id, int car) {
+		publish(ARRIVAL, time, numPass, floor, id, car, 0, 0, 0);
+	}
+
+	/**
+	 * Records a group getting off to change elevators.
+	 *
+	 * @param time the time
+	 * @param numPass the num pass
+	 * @param floor the floor
+	 * @param id the id
+	 * @param car the index of the elevator
+	 */
+	public void transfer(int time, int numPass, int floor, int id, int car) {
+		publish(TRANSFER, time, numPass, floor, id, car, 0, 0, 0);
+	}
+
+	/**
+	 * Records a board, skip or give up.
+	 *
+	 * @param type BOARD, SKIP or GIVEUP
+	 * @param time the time
+	 * @param numPass the num pass
+	 * @param floor the floor
+	 * @param dir the dir
+	 * @param id the id
+	 * @param car the index of the elevator
+	 */
+	public void passengers(int type, int time, int numPass, int floor, int dir, int id, int car) {
+		publish(type, time, numPass, floor, dir, id, car, 0, 0);
+	}
+
+	/**
+	 * Records the end of the simulation.
+	 *
+	 * @param time the time
+	 */
+	public void end(int time) {
+		publish(END, time, 0, 0, 0, 0, 0, 0, 0);
+	}
+
+	/**
+	 * Copies an event into the next slot of the ring and publishes it to the
+	 * drain thread, waiting for space if the ring is full.
+	 *
+	 * @param type the type
+	 * @param time the time
+	 * @param a0 the first argument
+	 * @param a1 the second argument
+	 * @param a2 the third argument
+	 * @param a3 the fourth argument
+	 * @param a4 the fifth argument
+	 * @param a5 the sixth argument
+	 * @param a6 the seventh argument
+	 */
+	private void publish(int type, int time, int a0, int a1, int a2, int a3, int a4, int a5, int a6) {
+		long seq = tail.get();
+		if (seq - cachedHead > mask) {
+			if (drainThread == null) drainBatch();
+			cachedHead = head.get();
+			while (seq - cachedHead > mask) {
+				awaitDrain();
+				cachedHead = head.get();
+			}
+		}
+		int i = (int) (seq & mask) * SLOT_SIZE;
+		ring[i] = type;
+		ring[i+1] = time;
+		ring[i+2] = a0;
+		ring[i+3] = a1;
+		ring[i+4] = a2;
+		ring[i+5] = a3;
+		ring[i+6] = a4;
+		ring[i+7] = a5;
+		ring[i+8] = a6;
+		tail.lazySet(seq + 1);
+	}
+
+	/**
+	 * Wakes the drain thread and gives it a chance to run, while the producer
+	 * waits for it.
+	 *
+	 * @throws IllegalStateException if the drain thread has died, so the wait would never end
+	 */
+	private void awaitDrain() {
+		if (!drainThread.isAlive())
+			throw new IllegalStateException("The event log drain thread has stopped", error);
+		LockSupport.unpark(drainThread);
+		Thread.yield();
+	}
+
+	/**
+	 * Waits until every event recorded so far has been written to the sink,
+	 * then flushes the sink.
+	 *
+	 * @throws IllegalStateException if the drain thread has died
+	 */
+	public void flush() {
+		if (drainThread == null) drainBatch();
+		long seq = tail.get();
+		while (head.get() < seq) awaitDrain();
+		try {
+			sink.flush();
+		} catch (IOException | RuntimeException e) {
+			failed(e);
+		}
+	}
+
+	/**
+	 * Writes out every event recorded so far, stops the drain thread and
+	 * closes the sink.
+	 */
+	public void close() {
+		closed = true;
+		if (drainThread != null) {
+			LockSupport.unpark(drainThread);
+			try {
+				drainThread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		} else {
+			drainBatch();
+		}
+		try {
+			sink.close();
+		} catch (IOException | RuntimeException e) {
+			failed(e);
+		}
+	}
+
+	/**
+	 * Records an error from the sink, if it is the first.
+	 *
+	 * @param e the error
+	 */
+	private void failed(Exception e) {
+		e.printStackTrace();
+		if (error == null) error = (e instanceof IOException) ? (IOException) e : new IOException("Event sink failed", e);
+	}
+
+	/**
+	 * Gets the first error reported by the sink - an IOException it threw, or
+	 * one wrapping a RuntimeException it threw.
+	 *
+	 * @return the error, or null if there was none
+	 */
+	public IOException getError() {
+		return error;
+	}
+
+	/**
+	 * The drain thread. Writes each batch of published events to the sink,
+	 * then parks until more arrive. Exits when the log is closed and empty.
+	 */
+	private void drain() {
+		while (true) {
+			boolean done = closed;
+			if (!drainBatch()) {
+				if (done) return;
+				LockSupport.parkNanos(PARK_NANOS);
+			}
+		}
+	}
+
+	/**
+	 * Writes every event published so far to the sink. Only called by the drain
+	 * thread, or by the producer when there is no drain thread.
+	 *
+	 * @return true, if there were any events to write
+	 */
+	private boolean drainBatch() {
+		long next = head.get();
+		long end = tail.get();
+		if (next == end) return false;
+		for (; next < end; next++) {
+			if (error != null) continue;	// keep draining so the producer is never blocked
+			try {
+				sink.write(ring, (int) (next & mask) * SLOT_SIZE);
+			} catch (IOException | RuntimeException e) {
+				failed(e);
+			}
+		}
+		head.set(next);
+		return true;
+	}
+}
@@ -0,0 +1,37 @@
+package eventlog;
+
+import java.io.IOException;
+
+/**
+ * The Interface EventSink. Receives the events drained from an EventLog and
+ * writes them out. An event is a slot of EventLog.SLOT_SIZE ints - the type,
+ * the time and the arguments for the type - read straight from the ring
+ * buffer, so a sink must not keep a reference to the array.
+ *
+ * The sink is only called from the drain thread of its EventLog.
+ */
+public interface EventSink {
+
+	/**
+	 * Writes one event.
+	 *
+	 * @param event the array holding the event
+	 * @param offset the offset of the event in the array
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	void write(int[] event, int offset) throws IOException;
+
+	/**
+	 * Flushes any buffered output.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	void flush() throws IOException;
+
+	/**
+	 * Flushes and closes the output.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	void close() throws IOException;
+}
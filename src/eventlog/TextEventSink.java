@@ -0,0 +1,170 @@
+package eventlog;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import building.Elevator;
+
+/**
+ * The Class TextEventSink. Writes the events in the text format of the
+ * original java.util.logging log - "INFO    " followed by the message - so
+ * the logs can still be checked with ElevatorLogCompare. The messages are
+ * built in one reused StringBuilder.
+ */
+public class TextEventSink implements EventSink {
+
+	/** The prefix that SimpleFormatter wrote for the INFO level. */
+	private static final String PREFIX = "INFO    ";
+
+	/** The line separator. */
+	private static final String NEWLINE = System.lineSeparator();
+
+	/** The output. */
+	private final Writer out;
+
+	/** The line being built. */
+	private final StringBuilder line = new StringBuilder(128);
+
+	/** The number of elevators, from the last CONFIG event. The elevator is only printed when there is more than one. */
+	private int numCars = 1;
+
+	/**
+	 * Instantiates a new text event sink.
+	 *
+	 * @param out the output
+	 */
+	public TextEventSink(Writer out) {
+		this.out = (out instanceof BufferedWriter) ? out : new BufferedWriter(out, 1 << 16);
+	}
+
+	/**
+	 * Writes one event as a line of text.
+	 *
+	 * @param e the array holding the event
+	 * @param i the offset of the event in the array
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Override
+	public void write(int[] e, int i) throws IOException {
+		int time = e[i + EventLog.TIME];
+		int a = i + EventLog.ARGS;
+		line.setLength(0);
+		line.append(PREFIX);
+		switch (e[i + EventLog.TYPE]) {
+		case EventLog.CONFIG:
+			numCars = e[a+6];
+			line.append("CONFIG:   Capacity=").append(e[a]).append("   Ticks-Floor=").append(e[a+1])
+			    .append("   Ticks-Door=").append(e[a+2]).append("   Ticks-Passengers=").append(e[a+3])
+			    .append("   CurrState=").append(printState(e[a+4])).append("   CurrFloor=").append(e[a+5]+1);
+			break;
+		case EventLog.STATE:
+			line.append("Time=").append(time).append("   Prev State: ").append(printState(e[a]))
+			    .append("   Curr State: ").append(printState(e[a+1])).append("   PrevFloor: ").append(e[a+2]+1)
+			    .append("   CurrFloor: ").append(e[a+3]+1);
+			printCar(e[a+4]);
+			break;
+		case EventLog.CALL:
+			line.append("Time=").append(time).append("   Called=").append(e[a]).append(" Floor=").append(e[a+1]+1)
+			    .append(" Dir=").append(printDir(e[a+2])).append("   passID=").append(e[a+3]);
+			break;
+		case EventLog.ARRIVAL:
+			line.append("Time=").append(time).append("   Arrived=").append(e[a]).append(" Floor=").append(e[a+1]+1)
+			    .append(" passID=").append(e[a+2]);
+			printCar(e[a+3]);
+			break;
+		case EventLog.TRANSFER:
+			line.append("Time=").append(time).append("   Transfer=").append(e[a]).append(" Floor=").append(e[a+1]+1)
+			    .append(" passID=").append(e[a+2]);
+			printCar(e[a+3]);
+			break;
+		case EventLog.BOARD:
+		case EventLog.SKIP:
+		case EventLog.GIVEUP:
+			line.append("Time=").append(time).append("   ").append(printPassengerEvent(e[i + EventLog.TYPE]))
+			    .append('=').append(e[a]).append(" Floor=").append(e[a+1]+1)
+			    .append(" Dir=").append(printDir(e[a+2])).append("   passID=").append(e[a+3]);
+			printCar(e[a+4]);
+			break;
+		case EventLog.END:
+			line.append("Time=").append(time).append("   Detected End of Simulation");
+			break;
+		default:
+			return;
+		}
+		line.append(NEWLINE);
+		out.append(line);
+	}
+
+	/**
+	 * Flushes the output.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Override
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	/**
+	 * Closes the output.
+	 *
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+	/**
+	 * Prints the elevator, when there is more than one.
+	 *
+	 * @param car the index of the elevator
+	 */
+	private void printCar(int car) {
+		if (numCars > 1) line.append("   Car=").append(car+1);
+	}
+
+	/**
+	 * Prints the direction.
+	 *
+	 * @param dir the dir
+	 * @return the string
+	 */
+	private static String printDir(int dir) {
+		return (dir > 0) ? "Up" : "Down";
+	}
+
+	/**
+	 * Prints the name of a board, skip or give up event.
+	 *
+	 * @param type the type
+	 * @return the string
+	 */
+	private static String printPassengerEvent(int type) {
+		switch (type) {
+		case EventLog.BOARD: return "Board";
+		case EventLog.SKIP: return "Skip";
+		default: return "GaveUp";
+		}
+	}
+
+	/**
+	 * Prints the state.
+	 *
+	 * @param state the state
+	 * @return the string
+	 */
+	private static String printState(int state) {
+		switch (state) {
+			case Elevator.STOP: 		return "STOP   ";
+			case Elevator.MVTOFLR: 		return "MVTOFLR";
+			case Elevator.OPENDR:   	return "OPENDR ";
+			case Elevator.CLOSEDR:		return "CLOSEDR";
+			case Elevator.BOARD:		return "BOARD  ";
+			case Elevator.OFFLD:		return "OFFLD  ";
+			case Elevator.MV1FLR:		return "MV1FLR ";
+			default:					return "UNDEF  ";
+		}
+	}
+}
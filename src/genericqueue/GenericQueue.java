@@ -1,10 +1,11 @@
 package genericqueue;
-import java.util.LinkedList;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
 
 /**
- * The Class GenericQueue.
+ * The Class GenericQueue. A bounded FIFO queue backed by an array that is 
+ * used as a ring buffer. The array is allocated once, at the maximum size,
+ * so adding and removing elements does not create any garbage.
  *
  * @param <E> the element type
  */
@@ -17,13 +18,20 @@ public class GenericQueue<E> {
 	private final int DEFAULT_QUEUE_SIZE=20;
 	
 	/** The queue. */
-	private LinkedList<E> queue = new LinkedList<>();
+	private Object[] queue;
+	
+	/** The index of the head of the queue. */
+	private int head;
+	
+	/** The number of entries currently in the queue. */
+	private int size;
 
 	/**
 	 * Instantiates a new generic queue with a default size of 20
 	 */
 	public GenericQueue() {	
 		MAX_QUEUE_SIZE=DEFAULT_QUEUE_SIZE;
+		queue = new Object[MAX_QUEUE_SIZE];
 	}
 
 	/**
@@ -33,6 +41,43 @@ public class GenericQueue<E> {
 	 */
 	public GenericQueue(int queueSize) {	
 		MAX_QUEUE_SIZE=queueSize;
+		queue = new Object[MAX_QUEUE_SIZE];
+	}
+	
+	/**
+	 * Gets the element at the specified position from the head of the queue.
+	 *
+	 * @param index the position from the head
+	 * @return the element
+	 */
+	@SuppressWarnings("unchecked")
+	private E get(int index) {
+		return (E) queue[(head + index) % MAX_QUEUE_SIZE];
+	}
+	
+	/**
+	 * Adds the element at the tail of the queue. The caller has checked
+	 * that the queue is not full.
+	 *
+	 * @param o the element to add
+	 */
+	private void addLast(E o) {
+		queue[(head + size) % MAX_QUEUE_SIZE] = o;
+		size++;
+	}
+	
+	/**
+	 * Removes the element at the head of the queue. The caller has checked
+	 * that the queue is not empty.
+	 *
+	 * @return the element
+	 */
+	private E removeFirst() {
+		E o = get(0);
+		queue[head] = null;
+		head = (head + 1) % MAX_QUEUE_SIZE;
+		size--;
+		return o;
 	}
 
 	/**
@@ -43,9 +88,9 @@ public class GenericQueue<E> {
 	 * @throws IllegalStateException the illegal state exception
 	 */
 	public boolean add (E o) throws IllegalStateException {
-		if (queue.size() == MAX_QUEUE_SIZE) 
+		if (size == MAX_QUEUE_SIZE) 
 			throw new IllegalStateException("Add failed - Queue is full");
-		queue.addLast(o);
+		addLast(o);
 		return true;
 	}
 	
@@ -58,7 +103,7 @@ public class GenericQueue<E> {
 	public E remove() throws NoSuchElementException {
 		if (isEmpty())
 			throw new NoSuchElementException("No Element to be removed - Queue is empty");
-		return(queue.removeFirst());
+		return(removeFirst());
 	}
 
 	/**
@@ -71,7 +116,7 @@ public class GenericQueue<E> {
 	public E element() throws NoSuchElementException {	
 		if (isEmpty())
 			throw new NoSuchElementException("No Element to be removed - Queue is empty");
-		return(queue.getFirst());
+		return(get(0));
 	}
 	
 	/**
@@ -81,9 +126,9 @@ public class GenericQueue<E> {
 	 * @return true, if successful
 	 */
 	public boolean offer (E o) {
-		if (queue.size() == MAX_QUEUE_SIZE)
+		if (size == MAX_QUEUE_SIZE)
 			return false;
-		queue.addLast(o);
+		addLast(o);
 		return true;
 	}
 	
@@ -95,7 +140,7 @@ public class GenericQueue<E> {
 	public E poll() {
 		if (isEmpty()) 
 			return null;
-		return(queue.removeFirst());
+		return(removeFirst());
 	}
 
 	/**
@@ -107,7 +152,7 @@ public class GenericQueue<E> {
 	public E peek() {	
 		if (isEmpty()) 
 			return null;
-		return(queue.getFirst());
+		return(get(0));
 	}
 	
 	/**
@@ -116,7 +161,7 @@ public class GenericQueue<E> {
 	 * @return true, if is empty
 	 */
 	public boolean isEmpty() {
-		return (queue.isEmpty());
+		return (size == 0);
 	}
 	
 	/**
@@ -125,7 +170,7 @@ public class GenericQueue<E> {
 	 * @return the int
 	 */
 	public int size() {
-		return (queue.size());
+		return (size);
 	}
 	
 	/**
@@ -135,7 +180,7 @@ public class GenericQueue<E> {
 	 * @return the list iterator
 	 */
 	public ListIterator<E> getListIterator() {
-		return queue.listIterator(0);
+		return new QueueIterator();
 	}
 	
 	/**
@@ -146,7 +191,7 @@ public class GenericQueue<E> {
 	@Override
 	public String toString() {
 		String str = "queue: [";
-		ListIterator<E> list = queue.listIterator(0);
+		ListIterator<E> list = getListIterator();
 		if (list != null) {
 			while (list.hasNext()) {
 				str += list.next();
@@ -157,4 +202,63 @@ public class GenericQueue<E> {
 		return str;
 	}
 
+	/**
+	 * The Class QueueIterator. A read-only list iterator over the queue,
+	 * from head to tail.
+	 */
+	private class QueueIterator implements ListIterator<E> {
+		
+		/** The position of the next element to return. */
+		private int cursor = 0;
+
+		@Override
+		public boolean hasNext() {
+			return cursor < size;
+		}
+
+		@Override
+		public E next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			return get(cursor++);
+		}
+
+		@Override
+		public boolean hasPrevious() {
+			return cursor > 0;
+		}
+
+		@Override
+		public E previous() {
+			if (!hasPrevious())
+				throw new NoSuchElementException();
+			return get(--cursor);
+		}
+
+		@Override
+		public int nextIndex() {
+			return cursor;
+		}
+
+		@Override
+		public int previousIndex() {
+			return cursor - 1;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException("Queue contents can not be changed through the iterator");
+		}
+
+		@Override
+		public void set(E e) {
+			throw new UnsupportedOperationException("Queue contents can not be changed through the iterator");
+		}
+
+		@Override
+		public void add(E e) {
+			throw new UnsupportedOperationException("Queue contents can not be changed through the iterator");
+		}
+	}
+
 }
@@ -0,0 +1,272 @@
+package passengers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import myfileio.MyFileIO;
+
+/**
+ * The Class BinaryTrace. A passenger trace stored as fixed-width binary rows,
+ * and replayed straight from a read-only mapping of the file, so a trace is
+ * opened without parsing and any number of simulations share one copy of it.
+ * Because every row is ROW_BYTES long, any row can be read directly, and the
+ * rows being in time order makes them their own time index: seek() finds the
+ * first group at or after a time with a binary search of the mapping.
+ *
+ * The file is a header of MAGIC, VERSION, the number of rows and ROW_BYTES,
+ * then for each row the time, the wait time, the number of passengers, the
+ * floor and the destination floor, starting at 1 as in the passenger CSV, and
+ * polite. Binary traces are made from CSV files by convert().
+ */
+public class BinaryTrace implements Trace {
+
+	/** The magic number at the start of a binary trace - "ETRC". */
+	public static final int MAGIC = 0x45545243;
+
+	/** The version of the binary trace format. */
+	public static final int VERSION = 1;
+
+	/** The extension of binary trace files. */
+	public static final String EXTENSION = ".trc";
+
+	/** The size of the header. */
+	static final int HEADER_BYTES = 16;
+
+	/** The size of a row: time and wait ints, numPass, onFloor and destFloor shorts, and a polite byte. */
+	static final int ROW_BYTES = 16;
+
+	/** The rows in each mapping - so no mapping is larger than a ByteBuffer can hold. */
+	private static final int ROWS_PER_MAP = 1 << 26;
+
+	/** The name of the trace file. */
+	private final String filename;
+
+	/** The number of passenger groups. */
+	private final int size;
+
+	/** The mappings of the rows, ROWS_PER_MAP rows in each. */
+	private final MappedByteBuffer[] maps;
+
+	/**
+	 * Checks if a passenger file is a binary trace, by its extension.
+	 *
+	 * @param filename the filename
+	 * @return true, if a binary trace
+	 */
+	public static boolean isBinaryTrace(String filename) {
+		return filename.endsWith(EXTENSION);
+	}
+
+	/**
+	 * Maps a binary trace file.
+	 *
+	 * @param filename the filename
+	 * @throws IOException Signals that the file is not a binary trace, or an I/O exception.
+	 */
+	public BinaryTrace(String filename) throws IOException {
+		this.filename = filename;
+		try (FileChannel channel = FileChannel.open(new MyFileIO().getFileHandle(filename).toPath(), StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+			while (header.hasRemaining() && channel.read(header) >= 0);
+			header.flip();
+			if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC)
+				throw new IOException("Not a binary trace: "+filename);
+			int version = header.getInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported binary trace version "+version);
+			size = header.getInt();
+			int rowBytes = header.getInt();
+			if (size < 0 || rowBytes != ROW_BYTES || channel.size() != HEADER_BYTES + (long) size * ROW_BYTES)
+				throw new IOException("Binary trace "+filename+" is truncated or corrupt");
+			maps = new MappedByteBuffer[(size + ROWS_PER_MAP - 1) / ROWS_PER_MAP];
+			for (int i = 0; i < maps.length; i++) {
+				long rows = Math.min(ROWS_PER_MAP, size - (long) i * ROWS_PER_MAP);
+				maps[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + (long) i * ROWS_PER_MAP * ROW_BYTES,
+									  rows * ROW_BYTES);
+			}
+		}
+	}
+
+	/**
+	 * Converts a passenger CSV file to a binary trace. The rows are parsed by
+	 * CsvTraceReader, so the defaults for missing columns are the same as when
+	 * the CSV file is read.
+	 *
+	 * @param csvFile the passenger CSV file
+	 * @param traceFile the binary trace file to write
+	 * @return the number of rows
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws IllegalArgumentException if the rows are not in time order, or a
+	 *         number of passengers or floor does not fit in the row
+	 */
+	public static int convert(String csvFile, String traceFile) throws IOException {
+		MyFileIO fio = new MyFileIO();
+		CsvTraceReader reader = new CsvTraceReader(fio.getFileHandle(csvFile).toPath());
+		try (FileChannel out = FileChannel.open(fio.getFileHandle(traceFile).toPath(), StandardOpenOption.CREATE,
+												StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+			buf.position(HEADER_BYTES);
+			int rows = 0, lastTime = Integer.MIN_VALUE;
+			while (reader.next()) {
+				if (reader.getTime() < lastTime)
+					throw new IllegalArgumentException("Row "+(rows+1)+" of "+csvFile+" is before the row above it");
+				if (!fitsShort(reader.getNumPass()) || !fitsShort(reader.getOnFloor()) || !fitsShort(reader.getDestFloor()))
+					throw new IllegalArgumentException("Row "+(rows+1)+" of "+csvFile+" does not fit in a binary trace");
+				lastTime = reader.getTime();
+				if (buf.remaining() < ROW_BYTES) write(out, buf);
+				buf.putInt(reader.getTime()).putInt(reader.getWaitTime()).putShort((short) reader.getNumPass())
+				   .putShort((short) reader.getOnFloor()).putShort((short) reader.getDestFloor())
+				   .put((byte) (reader.isPolite() ? 1 : 0)).put((byte) 0);
+				if (++rows < 0) throw new IllegalArgumentException(csvFile+" has too many rows");
+			}
+			write(out, buf);
+			buf.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(ROW_BYTES).flip();
+			while (buf.hasRemaining()) out.write(buf, buf.position());
+			return rows;
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Checks if a value fits in a short.
+	 *
+	 * @param value the value
+	 * @return true, if it fits
+	 */
+	private static boolean fitsShort(int value) {
+		return value == (short) value;
+	}
+
+	/**
+	 * Writes the buffer to the end of the file, and clears it.
+	 *
+	 * @param out the file
+	 * @param buf the buffer
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static void write(FileChannel out, ByteBuffer buf) throws IOException {
+		buf.flip();
+		while (buf.hasRemaining()) out.write(buf);
+		buf.clear();
+	}
+
+	/**
+	 * Gets the name of the trace file.
+	 *
+	 * @return the filename
+	 */
+	@Override
+	public String getFilename() {
+		return filename;
+	}
+
+	/**
+	 * Gets the number of passenger groups in the trace.
+	 *
+	 * @return the size
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the mapping that holds a row.
+	 *
+	 * @param row the row
+	 * @return the mapping
+	 */
+	private MappedByteBuffer map(int row) {
+		return maps[row / ROWS_PER_MAP];
+	}
+
+	/**
+	 * Gets the offset of a row in its mapping.
+	 *
+	 * @param row the row
+	 * @return the offset
+	 */
+	private static int offset(int row) {
+		return (row % ROWS_PER_MAP) * ROW_BYTES;
+	}
+
+	/**
+	 * Gets the time that a group will call the elevator.
+	 *
+	 * @param row the row of the group
+	 * @return the time
+	 */
+	@Override
+	public int getTime(int row) {
+		return map(row).getInt(offset(row));
+	}
+
+	/**
+	 * Gets the amount of time that a group will wait for the elevator.
+	 *
+	 * @param row the row of the group
+	 * @return the wait time
+	 */
+	@Override
+	public int getWaitTime(int row) {
+		return map(row).getInt(offset(row) + 4);
+	}
+
+	/**
+	 * Gets the number of passengers in a group.
+	 *
+	 * @param row the row of the group
+	 * @return the num pass
+	 */
+	@Override
+	public int getNumPass(int row) {
+		return map(row).getShort(offset(row) + 8);
+	}
+
+	/**
+	 * Gets the floor that a group appears on, starting at 1 as in the file.
+	 *
+	 * @param row the row of the group
+	 * @return the on floor
+	 */
+	@Override
+	public int getOnFloor(int row) {
+		return map(row).getShort(offset(row) + 10);
+	}
+
+	/**
+	 * Gets the floor that a group will get off on, starting at 1 as in the file.
+	 *
+	 * @param row the row of the group
+	 * @return the dest floor
+	 */
+	@Override
+	public int getDestFloor(int row) {
+		return map(row).getShort(offset(row) + 12);
+	}
+
+	/**
+	 * Checks if a group will let the doors close.
+	 *
+	 * @param row the row of the group
+	 * @return true, if polite
+	 */
+	@Override
+	public boolean isPolite(int row) {
+		return map(row).get(offset(row) + 14) != 0;
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 */
+	@Override
+	public String toString() {
+		return filename+": "+size+" groups, last at time "+((size == 0) ? 0 : getTime(size-1));
+	}
+}
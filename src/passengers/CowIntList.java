@@ -0,0 +1,129 @@
+package passengers;
+
+import java.util.Arrays;
+
+/**
+ * The Class CowIntList. A growable list of ints stored in fixed-size chunks,
+ * which can be forked in time proportional to the number of chunks rather than
+ * the number of ints. A fork shares every chunk with the list it was forked
+ * from; a chunk is copied by whichever list writes to it first, so each list
+ * only pays for the chunks it changes. Appending only ever touches the last
+ * chunk, so a forked list that grows copies at most one shared chunk.
+ */
+class CowIntList {
+
+	/** The log2 of the number of ints in a chunk. */
+	private static final int SHIFT = 8;
+
+	/** The number of ints in a chunk. */
+	private static final int CHUNK_SIZE = 1 << SHIFT;
+
+	/** The mask that maps an index to its position in a chunk. */
+	private static final int MASK = CHUNK_SIZE - 1;
+
+	/** The chunks. */
+	private int[][] chunks;
+
+	/** Whether this list owns each chunk - a chunk that is not owned may be shared, and is copied before it is written. */
+	private boolean[] owned;
+
+	/** The number of ints in the list. */
+	private int size;
+
+	/**
+	 * Instantiates a new, empty list.
+	 */
+	CowIntList() {
+		chunks = new int[1][];
+		owned = new boolean[1];
+	}
+
+	/**
+	 * Instantiates a fork of a list.
+	 *
+	 * @param chunks the chunks
+	 * @param size the size
+	 */
+	private CowIntList(int[][] chunks, int size) {
+		this.chunks = chunks;
+		this.owned = new boolean[chunks.length];
+		this.size = size;
+	}
+
+	/**
+	 * Gets the number of ints in the list.
+	 *
+	 * @return the size
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Gets an int.
+	 *
+	 * @param i the index
+	 * @return the int
+	 */
+	int get(int i) {
+		return chunks[i >>> SHIFT][i & MASK];
+	}
+
+	/**
+	 * Sets an int, copying its chunk first if it may be shared.
+	 *
+	 * @param i the index
+	 * @param value the value
+	 */
+	void set(int i, int value) {
+		int c = i >>> SHIFT;
+		if (!owned[c]) {
+			chunks[c] = chunks[c].clone();
+			owned[c] = true;
+		}
+		chunks[c][i & MASK] = value;
+	}
+
+	/**
+	 * Appends an int.
+	 *
+	 * @param value the value
+	 */
+	void add(int value) {
+		int c = size >>> SHIFT;
+		if (c == chunks.length) {
+			chunks = Arrays.copyOf(chunks, c * 2);
+			owned = Arrays.copyOf(owned, c * 2);
+		}
+		if (chunks[c] == null) {
+			chunks[c] = new int[CHUNK_SIZE];
+			owned[c] = true;
+		}
+		size++;
+		set(size - 1, value);
+	}
+
+	/**
+	 * Removes every int.
+	 */
+	void clear() {
+		chunks = new int[1][];
+		owned = new boolean[1];
+		size = 0;
+	}
+
+	/**
+	 * Forks the first ints of the list. The fork shares the chunks holding them,
+	 * and from then on neither list owns any of the shared chunks.
+	 *
+	 * @param size the number of ints in the fork - at most the size of this list
+	 * @return the fork
+	 */
+	CowIntList fork(int size) {
+		int numChunks = (size + MASK) >>> SHIFT;
+		int[][] shared = Arrays.copyOf(chunks, Math.max(1, Integer.highestOneBit(Math.max(1, numChunks)) * 2));
+		Arrays.fill(shared, numChunks, shared.length, null);
+		Arrays.fill(owned, 0, Math.min(numChunks, owned.length), false);
+		return new CowIntList(shared, size);
+	}
+}
@@ -0,0 +1,136 @@
+package passengers;
+
+import java.io.IOException;
+
+import myfileio.MyFileIO;
+
+/**
+ * The Class CsvPassengerSource. Streams passenger groups from a passenger CSV
+ * file (Time,NumPass,FromFloor,ToFloor,Polite,Wait), reading each row only 
+ * when the previous group has been polled. Only one group is held in memory
+ * at a time, so the length of the trace is not limited. The rows are parsed
+ * by CsvTraceReader, straight from the mapped file.
+ */
+public class CsvPassengerSource implements PassengerSource {
+
+	/** The fio. */
+	private MyFileIO fio;
+
+	/** The reader for the passenger file, null once the file has been read. */
+	private CsvTraceReader reader;
+
+	/** The filename. */
+	private String filename;
+
+	/** The store that the passenger groups are added to. */
+	private PassengerStore store;
+
+	/** The next passenger group, null if there are no more. */
+	private Passengers next;
+
+	/** When true, each passenger group is printed as it is read. */
+	private boolean debug;
+
+	/**
+	 * Instantiates a new CSV passenger source, skips the header row, and reads
+	 * the first passenger group.
+	 *
+	 * @param filename the filename
+	 * @param store the store to add the passenger groups to
+	 * @param debug true to print each passenger group as it is read
+	 */
+	public CsvPassengerSource(String filename, PassengerStore store, boolean debug) {
+		this(filename, store, debug, 0);
+	}
+
+	/**
+	 * Instantiates a new CSV passenger source that starts part way through the
+	 * file - used to resume a simulation from a snapshot, whose store already
+	 * holds the groups before the first one.
+	 *
+	 * @param filename the filename
+	 * @param store the store to add the passenger groups to
+	 * @param debug true to print each passenger group as it is read
+	 * @param firstGroup the number of passenger groups to skip
+	 */
+	public CsvPassengerSource(String filename, PassengerStore store, boolean debug, int firstGroup) {
+		this.filename = filename;
+		this.store = store;
+		this.debug = debug;
+		fio = new MyFileIO();
+		try {
+			reader = new CsvTraceReader(fio.getFileHandle(filename).toPath());
+		} catch (IOException e) {
+			System.err.println("Error in reading file: "+filename);
+			return;
+		}
+		if (debug) System.out.println("Passengers Queue:");
+		for (int i = 0; i < firstGroup; i++) readRow();
+		readNext();
+	}
+
+	/**
+	 * Reads the next row of the file, closing the file at the end.
+	 *
+	 * @return true, if a row was read
+	 */
+	private boolean readRow() {
+		if (reader == null) return false;
+		if (reader.next()) return true;
+		close();
+		return false;
+	}
+
+	/**
+	 * Reads the next passenger group from the file. Polite defaults to true
+	 * and Wait to 1000 if the columns are missing.
+	 */
+	private void readNext() {
+		next = !readRow() ? null : store.add(reader.getTime(), reader.getNumPass(), reader.getOnFloor(),
+											  reader.getDestFloor(), reader.isPolite(), reader.getWaitTime());
+		if (debug && next != null) System.out.println(next);
+	}
+
+	/**
+	 * Checks if there are no more passenger groups.
+	 *
+	 * @return true, if empty
+	 */
+	@Override
+	public boolean isEmpty() {
+		return next == null;
+	}
+
+	/**
+	 * Returns the next passenger group without removing it.
+	 *
+	 * @return the next passenger group, or null if there are no more
+	 */
+	@Override
+	public Passengers peek() {
+		return next;
+	}
+
+	/**
+	 * Removes and returns the next passenger group, and reads the one after it.
+	 *
+	 * @return the next passenger group, or null if there are no more
+	 */
+	@Override
+	public Passengers poll() {
+		Passengers p = next;
+		if (p != null) readNext();
+		return p;
+	}
+
+	/**
+	 * Closes the passenger file.
+	 */
+	@Override
+	public void close() {
+		if (reader != null) {
+			reader.close();
+			reader = null;
+		}
+	}
+}
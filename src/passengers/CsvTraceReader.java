@@ -0,0 +1,370 @@
+package passengers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The Class CsvTraceReader. Reads the rows of a passenger CSV file
+ * (Time,NumPass,FromFloor,ToFloor,Polite,Wait) by memory-mapping the file and
+ * parsing the columns from the bytes into ints, so reading a row allocates
+ * nothing. The mapped bytes are copied in bulk into one reused array, which
+ * is far quicker to parse from than a byte at a time from the mapping. The
+ * file is mapped in windows, so its size is not limited by the largest mapping.
+ *
+ * Each row is parsed as line.split(",") and Integer.parseInt() did: the first
+ * line is the header, missing trailing columns default to polite and a wait
+ * of 1000, Polite is true only for "TRUE" in any case, and a number that
+ * Integer.parseInt() would reject throws a NumberFormatException. Blank lines
+ * are skipped.
+ */
+class CsvTraceReader {
+
+	/** The most bytes mapped at once. */
+	private static final int WINDOW = 1 << 30;
+
+	/** The fewest bytes kept in the chunk ahead of the next row, so that rows are rarely cut. */
+	private static final int AHEAD = 1 << 12;
+
+	/** The file. */
+	private final FileChannel channel;
+
+	/** The size of the file. */
+	private final long size;
+
+	/** The mapped window of the file. */
+	private MappedByteBuffer buf;
+
+	/** The offset in the file of the start of the window. */
+	private long bufStart;
+
+	/** The offset in the file of the next byte to copy into the chunk. */
+	private long filePos;
+
+	/** The bytes being parsed - grown only for a line longer than it. */
+	private byte[] chunk = new byte[1 << 16];
+
+	/** The position of the next byte to parse in the chunk. */
+	private int pos;
+
+	/** The number of bytes in the chunk. */
+	private int end;
+
+	/** The position that parsing the current row stops at - the end of the chunk, unless the line is cut by it. */
+	private int eol;
+
+	/** The time of the current row. */
+	private int time;
+
+	/** The number of passengers in the current row. */
+	private int numPass;
+
+	/** The floor of the current row, starting at 1 as in the file. */
+	private int onFloor;
+
+	/** The destination floor of the current row, starting at 1 as in the file. */
+	private int destFloor;
+
+	/** Whether the group in the current row is polite. */
+	private boolean polite;
+
+	/** The wait time of the current row. */
+	private int waitTime;
+
+	/**
+	 * Opens a passenger file, and skips the header row.
+	 *
+	 * @param file the file
+	 * @throws IOException Signals that the file could not be opened or mapped.
+	 */
+	CsvTraceReader(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		size = channel.size();
+		map(0);
+		pos = endOfLine();
+		skipLineEnd();
+	}
+
+	/**
+	 * Maps the window of the file starting at an offset.
+	 *
+	 * @param offset the offset
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private void map(long offset) throws IOException {
+		bufStart = offset;
+		buf = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW, size - offset));
+	}
+
+	/**
+	 * Moves the bytes not yet parsed to the start of the chunk, and fills the
+	 * rest of it from the file. The chunk is doubled if it holds only part of
+	 * one line.
+	 */
+	private void fill() {
+		int rest = end - pos;
+		if (rest == chunk.length) chunk = Arrays.copyOf(chunk, 2 * chunk.length);
+		else System.arraycopy(chunk, pos, chunk, 0, rest);
+		pos = 0;
+		end = rest;
+		try {
+			while (end < chunk.length && filePos < size) {
+				if (filePos == bufStart + buf.limit()) map(filePos);
+				int n = (int) Math.min(chunk.length - end, bufStart + buf.limit() - filePos);
+				buf.get((int) (filePos - bufStart), chunk, end, n);
+				end += n;
+				filePos += n;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Finds the end of the line starting at the current position, filling the
+	 * chunk until it holds the whole line.
+	 *
+	 * @return the position of the \n or \r ending the line, or the end of the
+	 *         chunk for a last line without one
+	 */
+	private int endOfLine() {
+		int i = pos;
+		while (true) {
+			byte[] c = chunk;
+			for (; i < end; i++) if (c[i] == '\n' || c[i] == '\r') return i;
+			if (filePos == size) return end;
+			i -= pos;
+			fill();
+		}
+	}
+
+	/**
+	 * Moves past the \n, \r or \r\n at the current position, if there is one.
+	 */
+	private void skipLineEnd() {
+		if (pos < end && chunk[pos] == '\r') pos++;
+		if (pos < end && chunk[pos] == '\n') pos++;
+	}
+
+	/**
+	 * Reads the next row. The row is parsed in place in the chunk, which is
+	 * kept at least AHEAD bytes ahead. Only a line that runs past the end of
+	 * the chunk is found in full first and parsed again.
+	 *
+	 * @return true, if a row was read - false at the end of the file
+	 * @throws NumberFormatException if a number in the row cannot be parsed
+	 */
+	boolean next() {
+		while (true) {
+			if (end - pos < AHEAD && filePos < size) fill();
+			if (pos == end) return false;
+			if (chunk[pos] != '\n' && chunk[pos] != '\r') break;
+			skipLineEnd();
+		}
+		int start = pos;
+		eol = end;
+		parseRow();
+		if (pos == end && filePos < size) {
+			pos = start;
+			eol = endOfLine();
+			parseRow();
+		}
+		skipLineEnd();
+		return true;
+	}
+
+	/**
+	 * Parses the columns of the row at the current position, stopping at the
+	 * end of the line.
+	 */
+	private void parseRow() {
+		time = 0;
+		numPass = 0;
+		onFloor = 0;
+		destFloor = 0;
+		polite = true;
+		waitTime = 1000;
+		for (int column = 0; ; column++) {
+			if (atEndOfField() && restOfLineIsEmpty()) break;
+			switch (column) {
+			case 0: time = parseInt(); break;
+			case 1: numPass = parseInt(); break;
+			case 2: onFloor = parseInt(); break;
+			case 3: destFloor = parseInt(); break;
+			case 4: polite = parseTrue(); break;
+			case 5: waitTime = parseInt(); break;
+			default: skipField(); break;
+			}
+			if (pos == eol || chunk[pos] != ',') break;
+			pos++;
+		}
+	}
+
+	/**
+	 * Checks if the current position is at the end of a field.
+	 *
+	 * @return true, if at a ',' or the end of the line
+	 */
+	private boolean atEndOfField() {
+		if (pos == eol) return true;
+		byte b = chunk[pos];
+		return b == ',' || b == '\n' || b == '\r';
+	}
+
+	/**
+	 * Checks if the rest of the line holds only commas - the empty fields that
+	 * split(",") drops from the end of a line - and if so, moves past them.
+	 *
+	 * @return true, if there are no more values on the line
+	 */
+	private boolean restOfLineIsEmpty() {
+		int i = pos;
+		for (; i < eol; i++) {
+			byte b = chunk[i];
+			if (b == '\n' || b == '\r') break;
+			if (b != ',') return false;
+		}
+		pos = i;
+		return true;
+	}
+
+	/**
+	 * Parses an int field, as Integer.parseInt() does.
+	 *
+	 * @return the int
+	 * @throws NumberFormatException if the field is not an int
+	 */
+	private int parseInt() {
+		byte[] c = chunk;
+		int start = pos, p = pos;
+		boolean negative = false;
+		if (p < eol && (c[p] == '-' || c[p] == '+')) negative = c[p++] == '-';
+		long value = 0;
+		int digits = 0;
+		for (; p < eol && value <= Integer.MAX_VALUE; p++, digits++) {
+			int d = c[p] - '0';
+			if (d < 0 || d > 9) break;
+			value = value * 10 + d;
+		}
+		pos = p;
+		if (digits == 0 || !atEndOfField() || value > (negative ? (long) Integer.MAX_VALUE + 1 : Integer.MAX_VALUE))
+			return notAnInt(start);
+		return (int) (negative ? -value : value);
+	}
+
+	/**
+	 * Parses a Polite field.
+	 *
+	 * @return true, if the field is "TRUE" in any case
+	 */
+	private boolean parseTrue() {
+		int start = pos;
+		skipField();
+		byte[] c = chunk;
+		return pos - start == 4 && (c[start] | 0x20) == 't' && (c[start+1] | 0x20) == 'r' &&
+			   (c[start+2] | 0x20) == 'u' && (c[start+3] | 0x20) == 'e';
+	}
+
+	/**
+	 * Moves to the end of the current field.
+	 */
+	private void skipField() {
+		while (!atEndOfField()) pos++;
+	}
+
+	/**
+	 * Handles a field that is not an int. If the line runs past the end of the
+	 * chunk, the field may just be cut short, so the rest of the row is skipped
+	 * to be parsed again once the whole line is read. Only called on an error,
+	 * so the field is copied into a String for the message.
+	 *
+	 * @param start the position of the start of the field
+	 * @return 0, if the line runs past the chunk
+	 * @throws NumberFormatException if the field is not an int
+	 */
+	private int notAnInt(int start) {
+		pos = start;
+		skipField();
+		if (pos == end && filePos < size) return 0;
+		throw new NumberFormatException("For input string: \""+new String(chunk, start, pos - start)+"\"");
+	}
+
+	/**
+	 * Gets the size of the file.
+	 *
+	 * @return the size in bytes
+	 */
+	long getFileSize() {
+		return size;
+	}
+
+	/**
+	 * Gets the time of the current row.
+	 *
+	 * @return the time
+	 */
+	int getTime() {
+		return time;
+	}
+
+	/**
+	 * Gets the number of passengers in the current row.
+	 *
+	 * @return the num pass
+	 */
+	int getNumPass() {
+		return numPass;
+	}
+
+	/**
+	 * Gets the floor of the current row, starting at 1 as in the file.
+	 *
+	 * @return the on floor
+	 */
+	int getOnFloor() {
+		return onFloor;
+	}
+
+	/**
+	 * Gets the destination floor of the current row, starting at 1 as in the file.
+	 *
+	 * @return the dest floor
+	 */
+	int getDestFloor() {
+		return destFloor;
+	}
+
+	/**
+	 * Checks if the group in the current row is polite.
+	 *
+	 * @return true, if polite
+	 */
+	boolean isPolite() {
+		return polite;
+	}
+
+	/**
+	 * Gets the wait time of the current row.
+	 *
+	 * @return the wait time
+	 */
+	int getWaitTime() {
+		return waitTime;
+	}
+
+	/**
+	 * Closes the file. The mapping is released when it is garbage collected.
+	 */
+	void close() {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		buf = null;
+	}
+}
@@ -0,0 +1,36 @@
+package passengers;
+
+/**
+ * The Interface PassengerSource. Supplies the time-ordered sequence of 
+ * Passengers for a simulation, one group at a time, so the controller only
+ * needs to look at the next group to decide whether it arrives on the
+ * current tick. Implementations may read the groups lazily.
+ */
+public interface PassengerSource {
+
+	/**
+	 * Checks if there are no more passenger groups.
+	 *
+	 * @return true, if empty
+	 */
+	boolean isEmpty();
+
+	/**
+	 * Returns the next passenger group without removing it.
+	 *
+	 * @return the next passenger group, or null if there are no more
+	 */
+	Passengers peek();
+
+	/**
+	 * Removes and returns the next passenger group.
+	 *
+	 * @return the next passenger group, or null if there are no more
+	 */
+	Passengers poll();
+
+	/**
+	 * Releases any resources held by the source.
+	 */
+	void close();
+}
@@ -0,0 +1,158 @@
+package passengers;
+
+import java.util.Arrays;
+
+/**
+ * The Class PassengerStats. Summarizes the results of a finished simulation from
+ * its PassengerStore - the same WaitToBoard and TotalTime that are written to the
+ * passenger data file - without writing any files. The times are per group, and
+ * only the groups that arrived at their destination are included; the groups
+ * that gave up are counted separately.
+ */
+public class PassengerStats {
+
+	/** The number of groups that arrived. */
+	private final int numGroups;
+
+	/** The number of passengers that arrived. */
+	private final int numPassengers;
+
+	/** The number of groups that gave up. */
+	private final int numGaveUp;
+
+	/** The number of passengers that gave up. */
+	private final int numPassGaveUp;
+
+	/** The time from calling the elevator to boarding for each group that arrived, sorted. */
+	private final int[] waitToBoard;
+
+	/** The time from calling the elevator to arriving for each group that arrived, sorted. */
+	private final int[] totalTime;
+
+	/**
+	 * Instantiates the stats for the groups in a store.
+	 *
+	 * @param store the store
+	 */
+	public PassengerStats(PassengerStore store) {
+		numGroups = store.getNumSuccess();
+		waitToBoard = new int[numGroups];
+		totalTime = new int[numGroups];
+		int passengers = 0;
+		for (int i = 0; i < numGroups; i++) {
+			int id = store.getSuccess(i);
+			int time = store.getTime(id);
+			passengers += store.getNumPass(id);
+			waitToBoard[i] = store.getBoardTime(id) - time;
+			totalTime[i] = store.getTimeArrived(id) - time;
+		}
+		numPassengers = passengers;
+		numGaveUp = store.getNumGaveUp();
+		passengers = 0;
+		for (int i = 0; i < numGaveUp; i++)
+			passengers += store.getNumPass(store.getGaveUp(i));
+		numPassGaveUp = passengers;
+		Arrays.sort(waitToBoard);
+		Arrays.sort(totalTime);
+	}
+
+	/**
+	 * Gets the number of groups that arrived.
+	 *
+	 * @return the num groups
+	 */
+	public int getNumGroups() {
+		return numGroups;
+	}
+
+	/**
+	 * Gets the number of passengers that arrived.
+	 *
+	 * @return the num passengers
+	 */
+	public int getNumPassengers() {
+		return numPassengers;
+	}
+
+	/**
+	 * Gets the number of groups that gave up.
+	 *
+	 * @return the num gave up
+	 */
+	public int getNumGaveUp() {
+		return numGaveUp;
+	}
+
+	/**
+	 * Gets the number of passengers that gave up.
+	 *
+	 * @return the num pass gave up
+	 */
+	public int getNumPassGaveUp() {
+		return numPassGaveUp;
+	}
+
+	/**
+	 * Gets the mean wait to board.
+	 *
+	 * @return the mean wait to board, or 0 if no group arrived
+	 */
+	public double getMeanWaitToBoard() {
+		return mean(waitToBoard);
+	}
+
+	/**
+	 * Gets a percentile of the wait to board.
+	 *
+	 * @param pct the percentile, from 0 to 100
+	 * @return the wait to board, or 0 if no group arrived
+	 */
+	public int getWaitToBoardPercentile(double pct) {
+		return percentile(waitToBoard, pct);
+	}
+
+	/**
+	 * Gets the mean total time.
+	 *
+	 * @return the mean total time, or 0 if no group arrived
+	 */
+	public double getMeanTotalTime() {
+		return mean(totalTime);
+	}
+
+	/**
+	 * Gets a percentile of the total time.
+	 *
+	 * @param pct the percentile, from 0 to 100
+	 * @return the total time, or 0 if no group arrived
+	 */
+	public int getTotalTimePercentile(double pct) {
+		return percentile(totalTime, pct);
+	}
+
+	/**
+	 * Gets the mean of the values.
+	 *
+	 * @param values the values
+	 * @return the mean
+	 */
+	private static double mean(int[] values) {
+		if (values.length == 0) return 0;
+		long sum = 0;
+		for (int v : values) sum += v;
+		return (double) sum / values.length;
+	}
+
+	/**
+	 * Gets a percentile of the sorted values, by the nearest-rank method.
+	 *
+	 * @param sorted the sorted values
+	 * @param pct the percentile, from 0 to 100
+	 * @return the value
+	 */
+	private static int percentile(int[] sorted, double pct) {
+		if (sorted.length == 0) return 0;
+		int rank = (int) Math.ceil(pct / 100 * sorted.length);
+		return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+	}
+}
@@ -0,0 +1,457 @@
+package passengers;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The Class PassengerStore. Holds the data for every passenger group in a
+ * simulation as parallel arrays of primitives indexed by the group's id,
+ * rather than as one object per group. The Passengers objects handed to the
+ * floors and elevators are lightweight handles onto a row of the store, and
+ * can be discarded once the group has arrived or given up. The store also
+ * records, in order, the ids of the groups that arrived and that gave up, 
+ * which is all that is needed to write the passenger data at the end of
+ * the simulation.
+ *
+ * The columns are CowIntLists, so a store can be forked cheaply: the fork
+ * shares the rows with the original, and each copies only the chunks of rows
+ * that it changes afterwards.
+ */
+public class PassengerStore {
+
+	/** The Constant UP. */
+	private static final int UP = 1;
+
+	/** The Constant DOWN. */
+	private static final int DOWN = -1;
+
+	/** The time that each group will call the elevator. */
+	private CowIntList time;
+
+	/** The number of passengers in each group. */
+	private CowIntList numPass;
+
+	/** The floor that each group appears on. */
+	private CowIntList onFloor;
+
+	/** The floor that each group will get off on. */
+	private CowIntList destFloor;
+
+	/** Whether each group will let the doors close - 1 if polite, 0 if not. */
+	private CowIntList polite;
+
+	/** The amount of time that each group will wait for the elevator. */
+	private CowIntList waitTime;
+
+	/** The time that each group boarded, -1 until boarded. */
+	private CowIntList boardTime;
+
+	/** The time that each group arrived, -1 until arrived. */
+	private CowIntList timeArrived;
+
+	/** The floor that each group starts its current leg on - onFloor, unless it has changed elevators. */
+	private CowIntList legFloor;
+
+	/** The floor that each group ends its current leg on - destFloor, unless it must change elevators. */
+	private CowIntList legDest;
+
+	/** The ids of the groups that boarded the elevator, in the order they boarded. */
+	private CowIntList success;
+
+	/** The ids of the groups that gave up, in the order they gave up. */
+	private CowIntList gaveUp;
+
+	/**
+	 * Instantiates a new, empty passenger store.
+	 */
+	public PassengerStore() {
+		time = new CowIntList();
+		numPass = new CowIntList();
+		onFloor = new CowIntList();
+		destFloor = new CowIntList();
+		polite = new CowIntList();
+		waitTime = new CowIntList();
+		boardTime = new CowIntList();
+		timeArrived = new CowIntList();
+		legFloor = new CowIntList();
+		legDest = new CowIntList();
+		success = new CowIntList();
+		gaveUp = new CowIntList();
+	}
+
+	/**
+	 * Instantiates a fork of a passenger store.
+	 *
+	 * @param src the store to fork
+	 * @param rows the number of rows to fork
+	 */
+	private PassengerStore(PassengerStore src, int rows) {
+		time = src.time.fork(rows);
+		numPass = src.numPass.fork(rows);
+		onFloor = src.onFloor.fork(rows);
+		destFloor = src.destFloor.fork(rows);
+		polite = src.polite.fork(rows);
+		waitTime = src.waitTime.fork(rows);
+		boardTime = src.boardTime.fork(rows);
+		timeArrived = src.timeArrived.fork(rows);
+		legFloor = src.legFloor.fork(rows);
+		legDest = src.legDest.fork(rows);
+		success = src.success.fork(src.success.size());
+		gaveUp = src.gaveUp.fork(src.gaveUp.size());
+	}
+
+	/**
+	 * Forks the store. The fork holds the first rows of this store, with the same
+	 * ids, and the same groups that arrived and gave up; after that, the two stores
+	 * are independent. The rows are shared rather than copied, so forking takes
+	 * time proportional to the number of chunks of rows, and a chunk is copied only
+	 * when one of the stores changes it.
+	 *
+	 * @param rows the number of rows to fork - the groups that have entered the building
+	 * @return the fork
+	 */
+	public PassengerStore fork(int rows) {
+		return new PassengerStore(this, rows);
+	}
+
+	/**
+	 * Adds a passenger group to the store, assigning it the next id.
+	 *
+	 * @param time the time
+	 * @param numPass the number of people in this Passenger
+	 * @param on the floor that the Passenger calls the elevator from (starting at 1)
+	 * @param dest the floor that the Passenger is going to (starting at 1)
+	 * @param polite - are the passengers polite?
+	 * @param waitTime the amount of time that the passenger will wait before giving up
+	 * @return the handle for the new passenger group
+	 */
+	public Passengers add(int time, int numPass, int on, int dest, boolean polite, int waitTime) {
+		int id = this.time.size();
+		this.time.add(time);
+		this.numPass.add(numPass);
+		this.onFloor.add(on - 1);
+		this.destFloor.add(dest - 1);
+		this.polite.add(polite ? 1 : 0);
+		this.waitTime.add(waitTime);
+		this.boardTime.add(-1);
+		this.timeArrived.add(-1);
+		this.legFloor.add(on - 1);
+		this.legDest.add(dest - 1);
+		return new Passengers(this, id);
+	}
+
+	/**
+	 * Gets the number of passenger groups in the store.
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		return time.size();
+	}
+
+	/**
+	 * Gets a handle for the passenger group with the specified id.
+	 *
+	 * @param id the id
+	 * @return the passengers
+	 */
+	public Passengers get(int id) {
+		return new Passengers(this, id);
+	}
+
+	/**
+	 * Gets the time.
+	 *
+	 * @param id the id
+	 * @return the time
+	 */
+	public int getTime(int id) {
+		return time.get(id);
+	}
+
+	/**
+	 * Gets the num pass.
+	 *
+	 * @param id the id
+	 * @return the num pass
+	 */
+	public int getNumPass(int id) {
+		return numPass.get(id);
+	}
+
+	/**
+	 * Gets the on floor.
+	 *
+	 * @param id the id
+	 * @return the on floor
+	 */
+	public int getOnFloor(int id) {
+		return onFloor.get(id);
+	}
+
+	/**
+	 * Gets the dest floor.
+	 *
+	 * @param id the id
+	 * @return the dest floor
+	 */
+	public int getDestFloor(int id) {
+		return destFloor.get(id);
+	}
+
+	/**
+	 * Checks if passenger is polite or not
+	 *
+	 * @param id the id
+	 * @return true if polite, false if impolite
+	 */
+	public boolean isPolite(int id) {
+		return polite.get(id) != 0;
+	}
+
+	/**
+	 * Gets the wait time.
+	 *
+	 * @param id the id
+	 * @return the wait time
+	 */
+	public int getWaitTime(int id) {
+		return waitTime.get(id);
+	}
+
+	/**
+	 * Gets the floor that the group starts its current leg on.
+	 *
+	 * @param id the id
+	 * @return the leg floor
+	 */
+	public int getLegFloor(int id) {
+		return legFloor.get(id);
+	}
+
+	/**
+	 * Gets the floor that the group ends its current leg on.
+	 *
+	 * @param id the id
+	 * @return the leg dest
+	 */
+	public int getLegDest(int id) {
+		return legDest.get(id);
+	}
+
+	/**
+	 * Sets the current leg of the group's trip - a trip that needs more than one
+	 * elevator is made in legs, changing elevators between them.
+	 *
+	 * @param id the id
+	 * @param floor the floor the leg starts on
+	 * @param dest the floor the leg ends on
+	 */
+	public void setLeg(int id, int floor, int dest) {
+		legFloor.set(id, floor);
+		legDest.set(id, dest);
+	}
+
+	/**
+	 * Gets the direction of the current leg.
+	 *
+	 * @param id the id
+	 * @return the direction
+	 */
+	public int getDirection(int id) {
+		return (legFloor.get(id) < legDest.get(id)) ? UP : DOWN;
+	}
+
+	/**
+	 * Gets the time will give up. A group that has boarded, and is waiting to
+	 * change elevators, never gives up.
+	 *
+	 * @param id the id
+	 * @return the time will give up
+	 */
+	public int getTimeWillGiveUp(int id) {
+		return (boardTime.get(id) < 0) ? time.get(id) + waitTime.get(id) : Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Gets the board time.
+	 *
+	 * @param id the id
+	 * @return the board time
+	 */
+	public int getBoardTime(int id) {
+		return boardTime.get(id);
+	}
+
+	/**
+	 * Sets the board time.
+	 *
+	 * @param id the id
+	 * @param boardTime the board time
+	 */
+	public void setBoardTime(int id, int boardTime) {
+		this.boardTime.set(id, boardTime);
+	}
+
+	/**
+	 * Gets the time arrived.
+	 *
+	 * @param id the id
+	 * @return the time arrived
+	 */
+	public int getTimeArrived(int id) {
+		return timeArrived.get(id);
+	}
+
+	/**
+	 * Sets the time arrived.
+	 *
+	 * @param id the id
+	 * @param timeArrived the time arrived
+	 */
+	public void setTimeArrived(int id, int timeArrived) {
+		this.timeArrived.set(id, timeArrived);
+	}
+
+	/**
+	 * Records that the passenger group boarded the elevator.
+	 *
+	 * @param id the id
+	 */
+	public void recordSuccess(int id) {
+		success.add(id);
+	}
+
+	/**
+	 * Records that the passenger group gave up waiting for the elevator.
+	 *
+	 * @param id the id
+	 */
+	public void recordGaveUp(int id) {
+		gaveUp.add(id);
+	}
+
+	/**
+	 * Gets the number of passenger groups that boarded.
+	 *
+	 * @return the num success
+	 */
+	public int getNumSuccess() {
+		return success.size();
+	}
+
+	/**
+	 * Gets the id of the i'th passenger group to board.
+	 *
+	 * @param i the position in boarding order
+	 * @return the id
+	 */
+	public int getSuccess(int i) {
+		return success.get(i);
+	}
+
+	/**
+	 * Gets the number of passenger groups that gave up.
+	 *
+	 * @return the num gave up
+	 */
+	public int getNumGaveUp() {
+		return gaveUp.size();
+	}
+
+	/**
+	 * Gets the id of the i'th passenger group to give up.
+	 *
+	 * @param i the position in give up order
+	 * @return the id
+	 */
+	public int getGaveUp(int i) {
+		return gaveUp.get(i);
+	}
+
+	/**
+	 * Writes the first rows of the store, and the ids of the groups that arrived
+	 * and that gave up, for a snapshot of the simulation.
+	 *
+	 * @param out the output
+	 * @param rows the number of rows to write - the groups that have entered the building
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public void writeState(DataOutput out, int rows) throws IOException {
+		out.writeInt(rows);
+		for (int id = 0; id < rows; id++) {
+			out.writeInt(time.get(id));
+			out.writeInt(numPass.get(id));
+			out.writeInt(onFloor.get(id));
+			out.writeInt(destFloor.get(id));
+			out.writeBoolean(polite.get(id) != 0);
+			out.writeInt(waitTime.get(id));
+			out.writeInt(boardTime.get(id));
+			out.writeInt(timeArrived.get(id));
+			out.writeInt(legFloor.get(id));
+			out.writeInt(legDest.get(id));
+		}
+		writeList(out, success);
+		writeList(out, gaveUp);
+	}
+
+	/**
+	 * Replaces the contents of the store with the state written by writeState().
+	 *
+	 * @param in the input
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public void readState(DataInput in) throws IOException {
+		time.clear();
+		numPass.clear();
+		onFloor.clear();
+		destFloor.clear();
+		polite.clear();
+		waitTime.clear();
+		boardTime.clear();
+		timeArrived.clear();
+		legFloor.clear();
+		legDest.clear();
+		int rows = in.readInt();
+		for (int id = 0; id < rows; id++) {
+			time.add(in.readInt());
+			numPass.add(in.readInt());
+			onFloor.add(in.readInt());
+			destFloor.add(in.readInt());
+			polite.add(in.readBoolean() ? 1 : 0);
+			waitTime.add(in.readInt());
+			boardTime.add(in.readInt());
+			timeArrived.add(in.readInt());
+			legFloor.add(in.readInt());
+			legDest.add(in.readInt());
+		}
+		readList(in, success);
+		readList(in, gaveUp);
+	}
+
+	/**
+	 * Writes a list of ids.
+	 *
+	 * @param out the output
+	 * @param list the list
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static void writeList(DataOutput out, CowIntList list) throws IOException {
+		out.writeInt(list.size());
+		for (int i = 0; i < list.size(); i++) out.writeInt(list.get(i));
+	}
+
+	/**
+	 * Replaces the contents of a list of ids with one written by writeList().
+	 *
+	 * @param in the input
+	 * @param list the list
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static void readList(DataInput in, CowIntList list) throws IOException {
+		list.clear();
+		int n = in.readInt();
+		for (int i = 0; i < n; i++) list.add(in.readInt());
+	}
+}
@@ -0,0 +1,186 @@
+package passengers;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import myfileio.MyFileIO;
+
+/**
+ * The Class PassengerTrace. A passenger CSV file read once into memory, so it can
+ * be replayed by many simulations without parsing the file again. The trace is
+ * never changed after it is read, so any number of simulations can replay it at
+ * the same time; each replay adds the groups to its own PassengerStore, and so
+ * gets its own ids.
+ */
+public class PassengerTrace implements Trace {
+
+	/** The name of the passenger file. */
+	private final String filename;
+
+	/** The number of passenger groups - the arrays may be longer. */
+	private final int size;
+
+	/** The time that each group will call the elevator. */
+	private final int[] time;
+
+	/** The number of passengers in each group. */
+	private final int[] numPass;
+
+	/** The floor that each group appears on, starting at 1 as in the file. */
+	private final int[] onFloor;
+
+	/** The floor that each group will get off on, starting at 1 as in the file. */
+	private final int[] destFloor;
+
+	/** Whether each group will let the doors close. */
+	private final boolean[] polite;
+
+	/** The amount of time that each group will wait for the elevator. */
+	private final int[] waitTime;
+
+	/**
+	 * Reads a passenger file into a trace. The rows are parsed by
+	 * CsvTraceReader, as for CsvPassengerSource, so the defaults for missing
+	 * columns are the same. A file that cannot be read gives an empty trace.
+	 *
+	 * @param filename the filename
+	 */
+	public PassengerTrace(String filename) {
+		this.filename = filename;
+		CsvTraceReader reader = null;
+		try {
+			reader = new CsvTraceReader(new MyFileIO().getFileHandle(filename).toPath());
+		} catch (IOException e) {
+			System.err.println("Error in reading file: "+filename);
+		}
+		// sized for rows of about 20 bytes, so that a typical trace is not copied as it grows
+		int capacity = (reader == null) ? 0 : (int) Math.min(Integer.MAX_VALUE - 8, reader.getFileSize() / 20 + 16);
+		int[] time = new int[capacity], numPass = new int[capacity], onFloor = new int[capacity];
+		int[] destFloor = new int[capacity], waitTime = new int[capacity];
+		boolean[] polite = new boolean[capacity];
+		int size = 0;
+		while (reader != null && reader.next()) {
+			if (size == time.length) {
+				capacity = 2 * size;
+				time = Arrays.copyOf(time, capacity);
+				numPass = Arrays.copyOf(numPass, capacity);
+				onFloor = Arrays.copyOf(onFloor, capacity);
+				destFloor = Arrays.copyOf(destFloor, capacity);
+				polite = Arrays.copyOf(polite, capacity);
+				waitTime = Arrays.copyOf(waitTime, capacity);
+			}
+			time[size] = reader.getTime();
+			numPass[size] = reader.getNumPass();
+			onFloor[size] = reader.getOnFloor();
+			destFloor[size] = reader.getDestFloor();
+			polite[size] = reader.isPolite();
+			waitTime[size] = reader.getWaitTime();
+			size++;
+		}
+		if (reader != null) reader.close();
+		this.size = size;
+		this.time = time;
+		this.numPass = numPass;
+		this.onFloor = onFloor;
+		this.destFloor = destFloor;
+		this.polite = polite;
+		this.waitTime = waitTime;
+	}
+
+	/**
+	 * Gets the name of the passenger file.
+	 *
+	 * @return the filename
+	 */
+	@Override
+	public String getFilename() {
+		return filename;
+	}
+
+	/**
+	 * Gets the number of passenger groups in the trace.
+	 *
+	 * @return the size
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the time that a group will call the elevator.
+	 *
+	 * @param row the row of the group
+	 * @return the time
+	 */
+	@Override
+	public int getTime(int row) {
+		return time[row];
+	}
+
+	/**
+	 * Gets the number of passengers in a group.
+	 *
+	 * @param row the row of the group
+	 * @return the num pass
+	 */
+	@Override
+	public int getNumPass(int row) {
+		return numPass[row];
+	}
+
+	/**
+	 * Gets the floor that a group appears on, starting at 1 as in the file.
+	 *
+	 * @param row the row of the group
+	 * @return the on floor
+	 */
+	@Override
+	public int getOnFloor(int row) {
+		return onFloor[row];
+	}
+
+	/**
+	 * Gets the floor that a group will get off on, starting at 1 as in the file.
+	 *
+	 * @param row the row of the group
+	 * @return the dest floor
+	 */
+	@Override
+	public int getDestFloor(int row) {
+		return destFloor[row];
+	}
+
+	/**
+	 * Checks if a group will let the doors close.
+	 *
+	 * @param row the row of the group
+	 * @return true, if polite
+	 */
+	@Override
+	public boolean isPolite(int row) {
+		return polite[row];
+	}
+
+	/**
+	 * Gets the amount of time that a group will wait for the elevator.
+	 *
+	 * @param row the row of the group
+	 * @return the wait time
+	 */
+	@Override
+	public int getWaitTime(int row) {
+		return waitTime[row];
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the string
+	 */
+	@Override
+	public String toString() {
+		return filename+": "+size()+" groups, last at time "+((size() == 0) ? 0 : time[size()-1])+
+			   ", "+Arrays.stream(numPass, 0, size).sum()+" passengers";
+	}
+}
@@ -4,82 +4,30 @@ package passengers;
 /**
  * The Class Passengers. Represents a GROUP of passengers that are 
  * traveling together from one floor to another. Tracks information that 
- * can be used to analyze Elevator performance.
+ * can be used to analyze Elevator performance. The information itself is
+ * kept in a PassengerStore - a Passengers object is just a handle onto the
+ * group's row in the store, so it is cheap to create and to throw away.
  */
 public class Passengers {
 	
-	/**  Constant for representing direction. */
-	private static final int UP = 1;
-	
-	/** The Constant DOWN. */
-	private static final int DOWN = -1;
-	
-	/**  ID represents the NEXT available id for the passenger group. */
-	private static int ID=0;
+	/** The store that holds the data for this group. */
+	private final PassengerStore store;
 
-	/** id is the unique ID assigned to each Passenger during construction.
-	 *  After assignment, static ID must be incremented.
-	 */
-	private int id;
-	
-	/** These fields will be passed into the constructor by the Building.
-	 *  This data will come from the .csv file read by the SimController
+	/** id is the unique ID of this group within its store. Passenger groups are
+	 *  created by PassengerStore.add(), which assigns ids in order starting at 0.
 	 */
-	private int time;         // the time that the Passenger will call the elevator
-	
-	/** The num pass. */
-	private int numPass;      // the number of passengers in this group
-	
-	/** The on floor. */
-	private int onFloor;      // the floor that the Passenger will appear on
-	
-	/** The dest floor. */
-	private int destFloor;	  // the floor that the Passenger will get off on
-	
-	/** The polite. */
-	private boolean polite;   // will the Passenger let the doors close?
-	
-	/** The wait time. */
-	private int waitTime;     // the amount of time that the Passenger will wait for the
-	                          // Elevator
-	
-	/** These values will be calculated during construction.
-	 */
-	private int direction;      // The direction that the Passenger is going
-	
-	/** The time will give up. */
-	private int timeWillGiveUp; // The calculated time when the Passenger will give up
-	
-	/** These values will actually be set during execution. Initialized to -1 */
-	private int boardTime=-1;
-	
-	/** The time arrived. */
-	private int timeArrived=-1;
+	private final int id;
 
 	/**
-	 * Instantiates a new passengers.
+	 * Instantiates a new handle for the passenger group.
 	 *
-	 * @param time the time
-	 * @param numPass the number of people in this Passenger
-	 * @param on the floor that the Passenger calls the elevator from
-	 * @param dest the floor that the Passenger is going to
-	 * @param polite - are the passengers polite?
-	 * @param waitTime the amount of time that the passenger will wait before giving up
-	 */
-	public Passengers(int time, int numPass, int on, int dest, boolean polite, int waitTime) {
-		this.time = time;
-		this.numPass = numPass;
-		this.onFloor = on - 1;
-		this.destFloor = dest - 1;
-		this.polite = polite;
-		this.waitTime = waitTime;
-		this.direction = (onFloor < destFloor) ? UP : DOWN;
-		this.timeWillGiveUp = time + waitTime;
-		this.id = ID++;
+	 * @param store the store that holds the data for the group
+	 * @param id the id of the group in the store
+	 */
+	Passengers(PassengerStore store, int id) {
+		this.store = store;
+		this.id = id;
 	}
-	
-	
-	// TODO: Write any required getters/setters for this class
 
 	/**
 	 * Gets the id.
@@ -96,7 +44,7 @@ public class Passengers {
 	 * @return the time
 	 */
 	public int getTime() {
-		return time;
+		return store.getTime(id);
 	}
 
 	/**
@@ -105,25 +53,36 @@ public class Passengers {
 	 * @return the num pass
 	 */
 	public int getNumPass() {
-		return numPass;
+		return store.getNumPass(id);
 	}
 
 	/**
-	 * Gets the on floor.
+	 * Gets the on floor - the floor the group's current leg starts on, which is
+	 * the floor it called from unless it has changed elevators.
 	 *
 	 * @return the on floor
 	 */
 	public int getOnFloor() {
-		return onFloor;
+		return store.getLegFloor(id);
 	}
 
 	/**
-	 * Gets the dest floor.
+	 * Gets the dest floor - the floor the group's current leg ends on, which is
+	 * its destination unless it must change elevators.
 	 *
 	 * @return the dest floor
 	 */
 	public int getDestFloor() {
-		return destFloor;
+		return store.getLegDest(id);
+	}
+
+	/**
+	 * Checks if the current leg ends at the group's destination.
+	 *
+	 * @return true, if this is the last leg
+	 */
+	public boolean isLastLeg() {
+		return store.getLegDest(id) == store.getDestFloor(id);
 	}
 
 	/**
@@ -132,7 +91,7 @@ public class Passengers {
 	 * @return the wait time
 	 */
 	public int getWaitTime() {
-		return waitTime;
+		return store.getWaitTime(id);
 	}
 
 	/**
@@ -141,7 +100,7 @@ public class Passengers {
 	 * @return the board time
 	 */
 	public int getBoardTime() {
-		return boardTime;
+		return store.getBoardTime(id);
 	}
 
 	/**
@@ -150,7 +109,7 @@ public class Passengers {
 	 * @return the time arrived
 	 */
 	public int getTimeArrived() {
-		return timeArrived;
+		return store.getTimeArrived(id);
 	}
 
 	/**
@@ -159,7 +118,7 @@ public class Passengers {
 	 * @return the direction
 	 */
 	public int getDirection() {
-		return direction;
+		return store.getDirection(id);
 	}
 
 	/**
@@ -168,7 +127,7 @@ public class Passengers {
 	 * @return the time will give up
 	 */
 	public int getTimeWillGiveUp() {
-		return timeWillGiveUp;
+		return store.getTimeWillGiveUp(id);
 	}
 	
 	
@@ -178,7 +137,7 @@ public class Passengers {
 	 * @return true if polite, false if impolite
 	 */
 	public boolean isPolite() {
-		return polite;
+		return store.isPolite(id);
 	}
 	
 	/**
@@ -187,7 +146,7 @@ public class Passengers {
 	 * @param boardTime
 	 */
 	public void setBoardTime(int boardTime) {
-		this.boardTime = boardTime;
+		store.setBoardTime(id, boardTime);
 	}
 	
 	/**
@@ -196,19 +155,9 @@ public class Passengers {
 	 * @param timeArrived
 	 */
 	public void setTimeArrived(int timeArrived) {
-		this.timeArrived = timeArrived;
+		store.setTimeArrived(id, timeArrived);
 	}
 	
-	/**
-	 * Reset static ID. 
-	 * This method MUST be called during the building constructor BEFORE
-	 * reading the configuration files. This is to provide consistency in the
-	 * Passenger ID's during JUnit testing.
-	 */
-	public static void resetStaticID() {
-		ID = 0;
-	}
-
 	/**
 	 * toString - returns the formatted string for this class.
 	 *
@@ -216,7 +165,8 @@ public class Passengers {
 	 */
 	@Override
 	public String toString() {
-		return("ID="+id+"   Time="+time+"   NumPass="+numPass+"   From="+(onFloor+1)+"   To="+(destFloor+1)+"   Polite="+polite+"   Wait="+waitTime);
+		return("ID="+id+"   Time="+getTime()+"   NumPass="+getNumPass()+"   From="+(store.getOnFloor(id)+1)+"   To="+(store.getDestFloor(id)+1)+
+			   "   Polite="+isPolite()+"   Wait="+getWaitTime());
 	}
 
 }
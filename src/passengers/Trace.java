@@ -0,0 +1,137 @@
+package passengers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * The Interface Trace. A passenger file that has been read, or mapped, once so
+ * that it can be replayed by many simulations without parsing the file again.
+ * A trace is never changed, so any number of simulations can replay it at the
+ * same time; each replay adds the groups to its own PassengerStore, and so gets
+ * its own ids.
+ *
+ * The rows are in time order, as the simulation requires, so the first row at
+ * or after a time can be found by a binary search.
+ */
+public interface Trace {
+
+	/**
+	 * Opens a passenger file as a trace. A binary trace (BinaryTrace.EXTENSION)
+	 * is mapped, and any other file is read as CSV into a PassengerTrace.
+	 *
+	 * @param filename the filename
+	 * @return the trace
+	 * @throws UncheckedIOException if a binary trace cannot be read
+	 */
+	static Trace open(String filename) {
+		if (!BinaryTrace.isBinaryTrace(filename)) return new PassengerTrace(filename);
+		try {
+			return new BinaryTrace(filename);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Error in reading file: "+filename, e);
+		}
+	}
+
+	/**
+	 * Gets the name of the passenger file.
+	 *
+	 * @return the filename
+	 */
+	String getFilename();
+
+	/**
+	 * Gets the number of passenger groups in the trace.
+	 *
+	 * @return the size
+	 */
+	int size();
+
+	/**
+	 * Gets the time that a group will call the elevator.
+	 *
+	 * @param row the row of the group
+	 * @return the time
+	 */
+	int getTime(int row);
+
+	/**
+	 * Gets the number of passengers in a group.
+	 *
+	 * @param row the row of the group
+	 * @return the num pass
+	 */
+	int getNumPass(int row);
+
+	/**
+	 * Gets the floor that a group appears on, starting at 1 as in the file.
+	 *
+	 * @param row the row of the group
+	 * @return the on floor
+	 */
+	int getOnFloor(int row);
+
+	/**
+	 * Gets the floor that a group will get off on, starting at 1 as in the file.
+	 *
+	 * @param row the row of the group
+	 * @return the dest floor
+	 */
+	int getDestFloor(int row);
+
+	/**
+	 * Checks if a group will let the doors close.
+	 *
+	 * @param row the row of the group
+	 * @return true, if polite
+	 */
+	boolean isPolite(int row);
+
+	/**
+	 * Gets the amount of time that a group will wait for the elevator.
+	 *
+	 * @param row the row of the group
+	 * @return the wait time
+	 */
+	int getWaitTime(int row);
+
+	/**
+	 * Finds the first passenger group that calls at or after a time.
+	 *
+	 * @param time the time
+	 * @return the row of the group, or size() if every group calls before the time
+	 */
+	default int seek(int time) {
+		int lo = 0, hi = size();
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (getTime(mid) < time) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Creates a source that replays the trace, adding each group to the store
+	 * only when the simulation reaches the previous one - the same order and
+	 * timing as reading the file with CsvPassengerSource.
+	 *
+	 * @param store the store to add the passenger groups to
+	 * @return the passenger source
+	 */
+	default PassengerSource newSource(PassengerStore store) {
+		return new TraceReplay(this, store, 0);
+	}
+
+	/**
+	 * Creates a source that replays the trace from a passenger group part way
+	 * through - used to resume a simulation from a snapshot, whose store already
+	 * holds the groups before the first one, or to start at a time found by seek().
+	 *
+	 * @param store the store to add the passenger groups to
+	 * @param firstGroup the index of the first passenger group to replay
+	 * @return the passenger source
+	 */
+	default PassengerSource newSource(PassengerStore store, int firstGroup) {
+		return new TraceReplay(this, store, firstGroup);
+	}
+}
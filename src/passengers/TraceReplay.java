@@ -0,0 +1,82 @@
+package passengers;
+
+/**
+ * The Class TraceReplay. A PassengerSource over the rows of a trace.
+ */
+class TraceReplay implements PassengerSource {
+
+	/** The trace. */
+	private final Trace trace;
+
+	/** The store that the passenger groups are added to. */
+	private final PassengerStore store;
+
+	/** The row of the next passenger group. */
+	private int row;
+
+	/** The next passenger group, null if there are no more. */
+	private Passengers next;
+
+	/**
+	 * Instantiates a new replay, and adds the first passenger group.
+	 *
+	 * @param trace the trace
+	 * @param store the store
+	 * @param firstGroup the index of the first passenger group
+	 */
+	TraceReplay(Trace trace, PassengerStore store, int firstGroup) {
+		this.trace = trace;
+		this.store = store;
+		row = Math.min(firstGroup, trace.size());
+		addNext();
+	}
+
+	/**
+	 * Adds the next row of the trace to the store.
+	 */
+	private void addNext() {
+		next = (row == trace.size()) ? null
+			 : store.add(trace.getTime(row), trace.getNumPass(row), trace.getOnFloor(row), trace.getDestFloor(row),
+					     trace.isPolite(row), trace.getWaitTime(row));
+		if (next != null) row++;
+	}
+
+	/**
+	 * Checks if there are no more passenger groups.
+	 *
+	 * @return true, if empty
+	 */
+	@Override
+	public boolean isEmpty() {
+		return next == null;
+	}
+
+	/**
+	 * Returns the next passenger group without removing it.
+	 *
+	 * @return the next passenger group, or null if there are no more
+	 */
+	@Override
+	public Passengers peek() {
+		return next;
+	}
+
+	/**
+	 * Removes and returns the next passenger group, and adds the one after it.
+	 *
+	 * @return the next passenger group, or null if there are no more
+	 */
+	@Override
+	public Passengers poll() {
+		Passengers p = next;
+		if (p != null) addNext();
+		return p;
+	}
+
+	/**
+	 * Nothing to release.
+	 */
+	@Override
+	public void close() {
+	}
+}
@@ -0,0 +1,160 @@
+package passengers;
+
+import java.util.SplittableRandom;
+
+/**
+ * The Class TrafficGenerator. A PassengerSource that generates synthetic
+ * passenger groups as described by a TrafficSpec, adding each group to the
+ * store only when the simulation reaches the previous one - as CsvPassengerSource
+ * does with the rows of a file. Nothing is written or held beyond the next group,
+ * so the load is not limited by the size of a trace file. The groups depend only
+ * on the spec and the number of floors, so a generator can start part way
+ * through by generating and dropping the groups before the first one.
+ */
+public class TrafficGenerator implements PassengerSource {
+
+	/** The spec. */
+	private final TrafficSpec spec;
+
+	/** The num floors. */
+	private final int numFloors;
+
+	/** The store that the passenger groups are added to. */
+	private final PassengerStore store;
+
+	/** The random numbers, seeded from the spec. */
+	private final SplittableRandom random;
+
+	/** The time of the last arrival, before it is rounded up to a tick. */
+	private double clock;
+
+	/** The time of the next group drawn. */
+	private int time;
+
+	/** The number of passengers in the next group drawn. */
+	private int numPass;
+
+	/** The floor of the next group drawn, starting at 1 as in the passenger files. */
+	private int onFloor;
+
+	/** The destination floor of the next group drawn, starting at 1 as in the passenger files. */
+	private int destFloor;
+
+	/** Whether the next group drawn is polite. */
+	private boolean polite;
+
+	/** The wait time of the next group drawn. */
+	private int waitTime;
+
+	/** The next passenger group, null if there are no more. */
+	private Passengers next;
+
+	/**
+	 * Instantiates a new traffic generator, and adds the first passenger group.
+	 *
+	 * @param spec the spec
+	 * @param numFloors the num floors
+	 * @param store the store to add the passenger groups to
+	 */
+	public TrafficGenerator(TrafficSpec spec, int numFloors, PassengerStore store) {
+		this(spec, numFloors, store, 0);
+	}
+
+	/**
+	 * Instantiates a new traffic generator that starts part way through the
+	 * traffic - used to resume a simulation from a snapshot, or a fork, whose
+	 * store already holds the groups before the first one.
+	 *
+	 * @param spec the spec
+	 * @param numFloors the num floors
+	 * @param store the store to add the passenger groups to
+	 * @param firstGroup the number of passenger groups to skip
+	 * @throws IllegalArgumentException if the building has fewer than 2 floors
+	 */
+	public TrafficGenerator(TrafficSpec spec, int numFloors, PassengerStore store, int firstGroup) {
+		if (numFloors < 2) throw new IllegalArgumentException("Traffic needs at least 2 floors");
+		this.spec = spec;
+		this.numFloors = numFloors;
+		this.store = store;
+		random = new SplittableRandom(spec.getSeed());
+		for (int i = 0; i < firstGroup && draw(); i++);
+		addNext();
+	}
+
+	/**
+	 * Draws the next group.
+	 *
+	 * @return true, if the group arrives by the last tick of the spec
+	 */
+	private boolean draw() {
+		clock += spec.drawGap(random);
+		if (clock > spec.getTicks()) return false;
+		time = Math.max(1, (int) Math.ceil(clock));
+		switch (spec.drawPattern(random)) {
+		case 0:
+			onFloor = 1;
+			destFloor = 2 + random.nextInt(numFloors - 1);
+			break;
+		case 1:
+			onFloor = 2 + random.nextInt(numFloors - 1);
+			destFloor = 1;
+			break;
+		default:
+			onFloor = 1 + random.nextInt(numFloors);
+			destFloor = 1 + random.nextInt(numFloors - 1);
+			if (destFloor >= onFloor) destFloor++;
+			break;
+		}
+		numPass = spec.drawSize(random);
+		polite = spec.drawPolite(random);
+		waitTime = spec.drawWait(random);
+		return true;
+	}
+
+	/**
+	 * Draws the next group and adds it to the store.
+	 */
+	private void addNext() {
+		next = (clock > spec.getTicks() || !draw()) ? null
+			 : store.add(time, numPass, onFloor, destFloor, polite, waitTime);
+	}
+
+	/**
+	 * Checks if there are no more passenger groups.
+	 *
+	 * @return true, if empty
+	 */
+	@Override
+	public boolean isEmpty() {
+		return next == null;
+	}
+
+	/**
+	 * Returns the next passenger group without removing it.
+	 *
+	 * @return the next passenger group, or null if there are no more
+	 */
+	@Override
+	public Passengers peek() {
+		return next;
+	}
+
+	/**
+	 * Removes and returns the next passenger group, and generates the one after it.
+	 *
+	 * @return the next passenger group, or null if there are no more
+	 */
+	@Override
+	public Passengers poll() {
+		Passengers p = next;
+		if (p != null) addNext();
+		return p;
+	}
+
+	/**
+	 * Nothing to release.
+	 */
+	@Override
+	public void close() {
+	}
+}
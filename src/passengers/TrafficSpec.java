@@ -0,0 +1,284 @@
+package passengers;
+
+import java.util.SplittableRandom;
+
+/**
+ * The Class TrafficSpec. Describes synthetic passenger traffic, generated by
+ * TrafficGenerator instead of being read from a passenger file. Groups arrive
+ * as a Poisson process, at a mean of rate groups per tick, from tick 1 until
+ * the last tick. The pattern decides the floors:
+ *
+ *     uppeak      from the lobby to any other floor
+ *     downpeak    from any other floor to the lobby
+ *     lunch       40% up from the lobby, 40% down to it, and 20% between any two floors
+ *     interfloor  between any two floors
+ *
+ * A spec is written as the pattern and then name=value settings, separated by
+ * ';' so that it can sit in a CSV config line. For example:
+ *
+ *     uppeak;rate=0.1;ticks=3600;size=geo:2;wait=exp:900;polite=0.9;seed=7
+ *
+ * The group size and wait time are distributions: a number n, a uniform range
+ * a-b, geo:m for a geometric distribution of mean m starting at 1, or exp:m for
+ * an exponential distribution of mean m, rounded up. The defaults are rate=0.05,
+ * ticks=3600, size=1-4, wait=1000, polite=1 and seed=1. The same spec always
+ * generates the same groups. A spec is immutable.
+ */
+public class TrafficSpec {
+
+	/** The traffic patterns. */
+	public static final String[] PATTERNS = {"uppeak", "downpeak", "lunch", "interfloor"};
+
+	/** The spec, as written. */
+	private final String spec;
+
+	/** The index of the pattern in PATTERNS. */
+	private final int pattern;
+
+	/** The mean number of groups arriving per tick. */
+	private final double rate;
+
+	/** The last tick at which groups arrive. */
+	private final int ticks;
+
+	/** The distribution of the number of passengers in a group. */
+	private final Distribution size;
+
+	/** The distribution of the time a group waits before giving up. */
+	private final Distribution wait;
+
+	/** The fraction of groups that are polite. */
+	private final double polite;
+
+	/** The seed of the random numbers. */
+	private final long seed;
+
+	/**
+	 * Parses a spec.
+	 *
+	 * @param spec the spec, as described above
+	 * @throws IllegalArgumentException if the spec cannot be parsed
+	 */
+	public TrafficSpec(String spec) {
+		this.spec = spec;
+		String[] parts = spec.split(";");
+		int p = -1;
+		for (int i = 0; i < PATTERNS.length; i++)
+			if (PATTERNS[i].equals(parts[0].trim())) p = i;
+		if (p < 0) throw new IllegalArgumentException("Unknown traffic pattern "+parts[0]);
+		pattern = p;
+		double rate = 0.05, polite = 1;
+		int ticks = 3600;
+		long seed = 1;
+		Distribution size = new Distribution("1-4"), wait = new Distribution("1000");
+		try {
+			for (int i = 1; i < parts.length; i++) {
+				String[] setting = parts[i].split("=");
+				String value = (setting.length == 2) ? setting[1].trim() : "";
+				switch (setting[0].trim()) {
+				case "rate": rate = Double.parseDouble(value); break;
+				case "ticks": ticks = Integer.parseInt(value); break;
+				case "size": size = new Distribution(value); break;
+				case "wait": wait = new Distribution(value); break;
+				case "polite": polite = Double.parseDouble(value); break;
+				case "seed": seed = Long.parseLong(value); break;
+				default: throw new IllegalArgumentException("Unknown traffic setting "+parts[i]);
+				}
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Bad traffic spec "+spec, e);
+		}
+		if (!(rate > 0) || ticks < 1 || polite < 0 || polite > 1)
+			throw new IllegalArgumentException("Bad traffic spec "+spec);
+		this.rate = rate;
+		this.ticks = ticks;
+		this.size = size;
+		this.wait = wait;
+		this.polite = polite;
+		this.seed = seed;
+	}
+
+	/**
+	 * Gets the pattern.
+	 *
+	 * @return the pattern, one of PATTERNS
+	 */
+	public String getPattern() {
+		return PATTERNS[pattern];
+	}
+
+	/**
+	 * Gets the mean number of groups arriving per tick.
+	 *
+	 * @return the rate
+	 */
+	public double getRate() {
+		return rate;
+	}
+
+	/**
+	 * Gets the last tick at which groups arrive.
+	 *
+	 * @return the ticks
+	 */
+	public int getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Gets the seed.
+	 *
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Returns a copy with a different seed.
+	 *
+	 * @param seed the seed
+	 * @return the spec
+	 */
+	public TrafficSpec withSeed(long seed) {
+		String settings = spec.replaceAll(";\\s*seed=[^;]*", "");
+		return new TrafficSpec(settings+";seed="+seed);
+	}
+
+	/**
+	 * Splits the spec into specs with independent seeds, for parallel runs of
+	 * the same traffic. The seeds are drawn from SplittableRandom.split() of this
+	 * spec's seed, so the same spec always splits into the same specs.
+	 *
+	 * @param n the number of specs
+	 * @return the specs
+	 */
+	public TrafficSpec[] split(int n) {
+		SplittableRandom random = new SplittableRandom(seed);
+		TrafficSpec[] specs = new TrafficSpec[n];
+		for (int i = 0; i < n; i++)
+			specs[i] = withSeed(random.split().nextLong());
+		return specs;
+	}
+
+	/**
+	 * Draws the index of the pattern for the next group - for lunch, one of
+	 * the other three patterns.
+	 *
+	 * @param random the random numbers
+	 * @return the pattern
+	 */
+	int drawPattern(SplittableRandom random) {
+		if (pattern != 2) return pattern;
+		double u = random.nextDouble();
+		return (u < 0.4) ? 0 : (u < 0.8) ? 1 : 3;
+	}
+
+	/**
+	 * Draws the time from one arrival to the next.
+	 *
+	 * @param random the random numbers
+	 * @return the ticks, not rounded
+	 */
+	double drawGap(SplittableRandom random) {
+		return -Math.log(1 - random.nextDouble()) / rate;
+	}
+
+	/**
+	 * Draws the number of passengers in a group.
+	 *
+	 * @param random the random numbers
+	 * @return the num pass
+	 */
+	int drawSize(SplittableRandom random) {
+		return size.draw(random);
+	}
+
+	/**
+	 * Draws the time a group waits before giving up.
+	 *
+	 * @param random the random numbers
+	 * @return the wait time
+	 */
+	int drawWait(SplittableRandom random) {
+		return wait.draw(random);
+	}
+
+	/**
+	 * Draws whether a group is polite.
+	 *
+	 * @param random the random numbers
+	 * @return true, if polite
+	 */
+	boolean drawPolite(SplittableRandom random) {
+		return polite == 1 || random.nextDouble() < polite;
+	}
+
+	/**
+	 * To string.
+	 *
+	 * @return the spec, as written
+	 */
+	@Override
+	public String toString() {
+		return spec;
+	}
+
+	/**
+	 * The Class Distribution. A distribution of positive ints - a number n, a
+	 * uniform range a-b, geo:m or exp:m.
+	 */
+	static class Distribution {
+
+		/** The kind - 'n' for a number or range, 'g' for geometric, 'e' for exponential. */
+		private final char kind;
+
+		/** The lowest value of a range. */
+		private final int min;
+
+		/** The highest value of a range. */
+		private final int max;
+
+		/** The mean of a geometric or exponential distribution. */
+		private final double mean;
+
+		/**
+		 * Parses a distribution.
+		 *
+		 * @param spec the distribution
+		 * @throws NumberFormatException if a number cannot be parsed
+		 * @throws IllegalArgumentException if the distribution is bad
+		 */
+		Distribution(String spec) {
+			if (spec.startsWith("geo:") || spec.startsWith("exp:")) {
+				kind = spec.charAt(0);
+				mean = Double.parseDouble(spec.substring(4));
+				min = 1;
+				max = Integer.MAX_VALUE;
+				if (!(mean >= 1)) throw new IllegalArgumentException("The mean of "+spec+" is less than 1");
+			} else {
+				String[] ends = spec.split("-");
+				kind = 'n';
+				min = Integer.parseInt(ends[0].trim());
+				max = Integer.parseInt(ends[ends.length - 1].trim());
+				mean = (min + max) / 2.0;
+				if (ends.length > 2 || min < 1 || max < min) throw new IllegalArgumentException("Bad range "+spec);
+			}
+		}
+
+		/**
+		 * Draws a value.
+		 *
+		 * @param random the random numbers
+		 * @return the value
+		 */
+		int draw(SplittableRandom random) {
+			switch (kind) {
+			case 'g': return (mean == 1) ? 1 : 1 + (int) Math.min(Integer.MAX_VALUE - 1,
+										   Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - 1 / mean)));
+			case 'e': return (int) Math.max(1, Math.min(Integer.MAX_VALUE, Math.ceil(-Math.log(1 - random.nextDouble()) * mean)));
+			default: return (min == max) ? min : min + random.nextInt(max - min + 1);
+			}
+		}
+	}
+}